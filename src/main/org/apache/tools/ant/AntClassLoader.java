@@ -642,7 +642,13 @@ public class AntClassLoader extends ClassLoader implements SubBuildListener, Clo
      *                    Should not be <code>null</code>.
      */
     public void addSystemPackageRoot(final String packageRoot) {
-        systemPackages.addElement(packageRoot + (packageRoot.endsWith(".") ? "" : "."));
+        final String root = packageRoot + (packageRoot.endsWith(".") ? "" : ".");
+        synchronized (systemPackages) {
+            // pooled loaders are handed out repeatedly
+            if (!systemPackages.contains(root)) {
+                systemPackages.addElement(root);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,264 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Passes build events on to the listeners on a dedicated thread.
+ *
+ * <p>Events are put into a bounded queue by the thread that fires
+ * them and delivered in batches by a single dispatcher thread, so
+ * the events of any given thread reach the listeners in the order
+ * they have been fired.  If the queue is full the firing thread
+ * waits for the dispatcher unless the dispatcher has been told to
+ * discard verbose and debug messages instead.</p>
+ *
+ * <p>Messages logged by the dispatcher thread itself - for example
+ * by a listener writing to <code>System.out</code> - are swallowed
+ * just like {@link Project} swallows messages logged while a
+ * listener is running.</p>
+ *
+ * @since Ant 1.10.16
+ */
+final class AsyncEventDispatcher {
+
+    /** Default capacity of the queue. */
+    static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int MAX_BATCH = 512;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final Event END = new Event(null, null, null);
+
+    private final Project owner;
+    private final BlockingQueue<Event> queue;
+    private final boolean discardOnOverflow;
+    private final Thread thread;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final Object processedLock = new Object();
+    private long processed;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    /**
+     * @param owner the project whose build finished event stops the
+     * dispatcher.
+     * @param capacity maximum number of events waiting to be delivered.
+     * @param discardOnOverflow whether verbose and debug messages
+     * should be dropped rather than waited for when the queue is full.
+     */
+    AsyncEventDispatcher(Project owner, int capacity, boolean discardOnOverflow) {
+        this.owner = owner;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.discardOnOverflow = discardOnOverflow;
+        thread = new Thread(this::run, "ant-event-dispatcher-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The project that has created the dispatcher.
+     * @return Project
+     */
+    Project getOwner() {
+        return owner;
+    }
+
+    /**
+     * Number of messages that have been dropped because the queue
+     * was full.
+     * @return long
+     */
+    long getDiscarded() {
+        return discarded.get();
+    }
+
+    /**
+     * Queues an event for the given listeners.
+     *
+     * @param listeners the listeners to notify.
+     * @param event the event.
+     * @param action the listener method to invoke.
+     */
+    void dispatch(BuildListener[] listeners, BuildEvent event,
+                  BiConsumer<BuildListener, BuildEvent> action) {
+        if (Thread.currentThread() == thread) {
+            if (event.getMessage() == null) {
+                deliver(listeners, event, action);
+            }
+            return;
+        }
+        if (closed) {
+            deliver(listeners, event, action);
+            return;
+        }
+        Event e = new Event(listeners, event, action);
+        if (!queue.offer(e)) {
+            if (discardOnOverflow && event.getMessage() != null
+                && event.getPriority() > Project.MSG_INFO) {
+                discarded.incrementAndGet();
+                return;
+            }
+            put(e);
+        }
+        enqueued.incrementAndGet();
+    }
+
+    /**
+     * Waits until all events queued so far have been delivered.
+     */
+    void flush() {
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        final long target = enqueued.get();
+        boolean interrupted = false;
+        synchronized (processedLock) {
+            while (processed < target && thread.isAlive()) {
+                try {
+                    processedLock.wait(100);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Delivers all queued events and stops the dispatcher thread,
+     * events fired afterwards are delivered by the firing thread.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        put(END);
+        closed = true;
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // events that raced with closing the queue
+        for (Event e = queue.poll(); e != null; e = queue.poll()) {
+            if (e != END) {
+                deliver(e.listeners, e.event, e.action);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowFailure();
+    }
+
+    private void put(Event e) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(e);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            int count = 0;
+            boolean end = false;
+            for (Event e : batch) {
+                if (e == END) {
+                    end = true;
+                    break;
+                }
+                try {
+                    deliver(e.listeners, e.event, e.action);
+                } catch (RuntimeException | Error t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+                count++;
+            }
+            batch.clear();
+            synchronized (processedLock) {
+                processed += count;
+                processedLock.notifyAll();
+            }
+            if (end) {
+                return;
+            }
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable t = failure;
+        if (t != null) {
+            failure = null;
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw (RuntimeException) t;
+        }
+    }
+
+    private static void deliver(BuildListener[] listeners, BuildEvent event,
+                                BiConsumer<BuildListener, BuildEvent> action) {
+        for (BuildListener l : listeners) {
+            action.accept(l, event);
+        }
+    }
+
+    private static final class Event {
+        private final BuildListener[] listeners;
+        private final BuildEvent event;
+        private final BiConsumer<BuildListener, BuildEvent> action;
+
+        private Event(BuildListener[] listeners, BuildEvent event,
+                      BiConsumer<BuildListener, BuildEvent> action) {
+            this.listeners = listeners;
+            this.event = event;
+            this.action = action;
+        }
+    }
+}
@@ -52,6 +52,16 @@ public class BuildEvent extends EventObject {
      * and "buildFinished" events.
      */
     private Throwable exception;
+    /** CPU time used by a task in nanoseconds, -1 if not measured. */
+    private long cpuTime = -1;
+    /** Bytes allocated by a task, -1 if not measured. */
+    private long allocatedBytes = -1;
+    /** The thread that created the event. */
+    private final transient Thread thread = Thread.currentThread();
+    /** Creation time as returned by <code>System.currentTimeMillis()</code>. */
+    private final long timestamp = System.currentTimeMillis();
+    /** Creation time as returned by <code>System.nanoTime()</code>. */
+    private final long nanoTime = System.nanoTime();
 
     /**
      * Construct a BuildEvent for a project level event.
@@ -200,4 +210,89 @@ public class BuildEvent extends EventObject {
     public Throwable getException() {
         return exception;
     }
+
+    /**
+     * Records the resources used by a task.
+     *
+     * @param cpuTime CPU time in nanoseconds or -1.
+     * @param allocatedBytes allocated bytes or -1.
+     */
+    void setResourceUsage(long cpuTime, long allocatedBytes) {
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns the CPU time the task has used on the thread that
+     * executed it, excluding tasks it has executed itself.
+     *
+     * <p>This is only available for "taskFinished" events if
+     * {@link Project#setTaskResourceAccounting task resource
+     * accounting} has been enabled.</p>
+     *
+     * @return the CPU time in nanoseconds or -1 if it hasn't been
+     * measured.
+     * @since Ant 1.10.16
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns the number of bytes the task has allocated on the
+     * heap on the thread that executed it, excluding tasks it has
+     * executed itself.
+     *
+     * <p>This is only available for "taskFinished" events if
+     * {@link Project#setTaskResourceAccounting task resource
+     * accounting} has been enabled and the VM supports measuring
+     * allocations.</p>
+     *
+     * @return the number of bytes or -1 if it hasn't been measured.
+     * @since Ant 1.10.16
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the thread that has created the event.
+     *
+     * <p>This usually is the thread that listeners get invoked on,
+     * but not if the events are delivered {@link
+     * MagicNames#ASYNC_LISTENERS asynchronously} or have been
+     * recorded and passed on later, like the events of sub-builds
+     * run in parallel by <code>&lt;subant&gt;</code>. Listeners that
+     * track state per thread should use this rather than {@link
+     * Thread#currentThread}.</p>
+     *
+     * @return the thread, null if the event has been deserialized.
+     * @since Ant 1.10.16
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * Returns the time the event has been created at.
+     *
+     * @return the time in milliseconds as returned by {@link
+     * System#currentTimeMillis}.
+     * @since Ant 1.10.16
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the time the event has been created at, suitable for
+     * measuring elapsed time between events.
+     *
+     * @return the value of {@link System#nanoTime} at the time the
+     * event has been created.
+     * @since Ant 1.10.16
+     */
+    public long getNanoTime() {
+        return nanoTime;
+    }
 }
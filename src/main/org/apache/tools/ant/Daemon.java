@@ -0,0 +1,330 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.tools.ant.helper.InMemoryParseCache;
+import org.apache.tools.ant.launch.AntMain;
+import org.apache.tools.ant.launch.DaemonClient;
+import org.apache.tools.ant.launch.Launcher;
+import org.apache.tools.ant.util.ClassLoaderPool;
+import org.apache.tools.ant.util.FileUtils;
+
+/**
+ * Long-lived Ant process that runs builds on behalf of
+ * <code>ant -client</code>.
+ *
+ * <p>The daemon listens on a local port and writes the port together
+ * with a random secret to a file inside the per-user Ant directory
+ * that only the current user can read.  Each build is run by a fresh
+ * {@link Main} - with its own {@link Project} - inside the daemon's
+ * JVM, so the classes of Ant, its libraries and antlibs only need to
+ * be loaded once.  Build files whose content hasn't changed since an
+ * earlier build are not parsed again.  If the magic property {@link
+ * MagicNames#CLASSLOADER_POOL ant.classloader.pool} is set, all
+ * builds share one {@link ClassLoaderPool}, so classes loaded from
+ * unchanged archives by definitions with a classpath are loaded only
+ * once as well.  The log output of a build is sent back to the client
+ * while the build is running.</p>
+ *
+ * <p>Everything else is set up from scratch for each build, in
+ * particular the task and type definitions of the {@link
+ * ComponentHelper} and the antlibs loaded by the build.</p>
+ *
+ * <p>Builds are run one at a time as they share the daemon's
+ * <code>System.out</code>.  They see the environment variables and
+ * system properties of the daemon rather than the client's and cannot
+ * read from the client's standard input.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class Daemon implements AntMain {
+
+    /** Time the client gets to send its request. */
+    private static final int REQUEST_TIMEOUT = 10000;
+
+    private final File connectionFile;
+    private InMemoryParseCache parseCache;
+    /**
+     * The pooled loaders are bound to a project of their own that
+     * lives as long as the daemon, the build finished event of a
+     * single build must not clean them up.
+     */
+    private final ClassLoaderPool loaderPool = new ClassLoaderPool(new Project());
+    private volatile boolean stopped;
+
+    /**
+     * Creates a daemon for the Ant installation given by the
+     * <code>ant.home</code> system property.
+     */
+    public Daemon() {
+        this(DaemonClient.getConnectionFile(
+            new File(System.getProperty(Launcher.ANTHOME_PROPERTY, "."))));
+    }
+
+    /**
+     * Creates a daemon that writes its port to the given file.
+     * @param connectionFile the file.
+     */
+    Daemon(File connectionFile) {
+        this.connectionFile = connectionFile;
+    }
+
+    /**
+     * Serves builds until a client asks the daemon to stop.
+     *
+     * @param args command line args, must be empty.
+     * @param additionalUserProperties ignored.
+     * @param coreLoader the loader used for the projects of all builds.
+     */
+    @Override
+    public void startAnt(String[] args, Properties additionalUserProperties,
+                         ClassLoader coreLoader) {
+        if (args.length > 0) {
+            System.err.println("Unknown argument: " + args[0]);
+            exit(1);
+            return;
+        }
+        try {
+            serve(coreLoader);
+        } catch (IOException e) {
+            System.err.println("Ant daemon failed: " + e.getMessage());
+            exit(1);
+        }
+    }
+
+    /**
+     * Invoked when the daemon cannot be started.
+     * @param exitCode code to exit with
+     */
+    protected void exit(int exitCode) {
+        System.exit(exitCode);
+    }
+
+    /**
+     * Accepts connections until a client asks the daemon to stop.
+     */
+    void serve(ClassLoader coreLoader) throws IOException {
+        String token = createToken();
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            writeConnectionFile(server.getLocalPort(), token);
+            System.out.println("Ant daemon listening on port " + server.getLocalPort());
+            try {
+                while (!stopped) {
+                    try (Socket s = server.accept()) {
+                        handle(s, token, coreLoader);
+                    } catch (IOException e) {
+                        System.err.println("Lost connection to client: " + e.getMessage());
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(connectionFile.toPath());
+            }
+        }
+        System.out.println("Ant daemon stopped");
+    }
+
+    private void handle(Socket s, String token, ClassLoader coreLoader) throws IOException {
+        s.setSoTimeout(REQUEST_TIMEOUT);
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                                   DaemonClient.readString(requests)
+                                   .getBytes(StandardCharsets.UTF_8))) {
+            System.err.println("Rejected client with wrong secret");
+            return;
+        }
+        File dir = new File(DaemonClient.readString(requests));
+        String[] args = new String[requests.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = DaemonClient.readString(requests);
+        }
+        s.setSoTimeout(0);
+
+        DataOutputStream replies =
+            new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+        int exitCode;
+        if (args.length == 1 && DaemonClient.STOP.equals(args[0])) {
+            stopped = true;
+            exitCode = 0;
+        } else {
+            exitCode = runBuild(dir, args, replies, coreLoader);
+        }
+        synchronized (replies) {
+            replies.writeByte(DaemonClient.EXIT);
+            replies.writeInt(exitCode);
+            replies.flush();
+        }
+    }
+
+    /**
+     * Runs a single build with System.out and System.err sent to the
+     * client.
+     */
+    private int runBuild(File dir, String[] args, DataOutputStream replies,
+                         ClassLoader coreLoader) {
+        final PrintStream savedOut = System.out;
+        final PrintStream savedErr = System.err;
+        final String savedDir = System.getProperty("user.dir");
+        final PrintStream out = createStream(replies, DaemonClient.OUTPUT);
+        final PrintStream err = createStream(replies, DaemonClient.ERROR);
+        final int[] exitCode = {0};
+        System.setOut(out);
+        System.setErr(err);
+        // used by -find
+        System.setProperty("user.dir", dir.getAbsolutePath());
+        try {
+            new Main() {
+                @Override
+                protected void exit(int code) {
+                    exitCode[0] = code;
+                }
+
+                @Override
+                protected void addBuildListeners(Project project) {
+                    super.addBuildListeners(project);
+                    synchronized (Daemon.this) {
+                        if (parseCache == null) {
+                            parseCache = InMemoryParseCache.enable(project);
+                        } else {
+                            project.addReference(MagicNames.REFID_IN_MEMORY_PARSE_CACHE,
+                                                 parseCache);
+                        }
+                    }
+                    project.addReference(MagicNames.REFID_CLASSLOADER_POOL, loaderPool);
+                }
+            }.startAnt(resolveArgs(dir, args), null, coreLoader);
+        } catch (Throwable t) { //NOSONAR
+            t.printStackTrace(); //NOSONAR
+            exitCode[0] = 1;
+        } finally {
+            out.flush();
+            err.flush();
+            System.setOut(savedOut);
+            System.setErr(savedErr);
+            System.setProperty("user.dir", savedDir);
+        }
+        return exitCode[0];
+    }
+
+    /**
+     * Makes the file arguments of the client's command line absolute
+     * as the daemon's working directory differs from the client's.
+     */
+    static String[] resolveArgs(File dir, String[] args) {
+        List<String> resolved = new ArrayList<>();
+        resolved.add("-noinput");
+        boolean haveBuildFile = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            resolved.add(arg);
+            if (arg.equals("-buildfile") || arg.equals("-file") || arg.equals("-f")
+                || arg.equals("-find") || arg.equals("-s")) {
+                haveBuildFile = true;
+            }
+            if ((arg.equals("-buildfile") || arg.equals("-file") || arg.equals("-f")
+                 || arg.equals("-logfile") || arg.equals("-l")
+                 || arg.equals("-propertyfile")) && i < args.length - 1) {
+                resolved.add(FileUtils.getFileUtils()
+                             .resolveFile(dir, args[++i]).getAbsolutePath());
+            } else if (arg.startsWith("-D") && !arg.contains("=") && i < args.length - 1) {
+                // the value may look like an option
+                resolved.add(args[++i]);
+            }
+        }
+        if (!haveBuildFile) {
+            resolved.add(1, "-buildfile");
+            resolved.add(2, new File(dir, Main.DEFAULT_BUILD_FILENAME).getAbsolutePath());
+        }
+        return resolved.toArray(new String[0]);
+    }
+
+    private static PrintStream createStream(DataOutputStream replies, int type) {
+        return new PrintStream(new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (replies) {
+                    replies.writeByte(type);
+                    replies.writeInt(len);
+                    replies.write(b, off, len);
+                    replies.flush();
+                }
+            }
+        }), true);
+    }
+
+    private static String createToken() {
+        byte[] b = new byte[16];
+        new SecureRandom().nextBytes(b);
+        StringBuilder sb = new StringBuilder();
+        for (byte x : b) {
+            sb.append(String.format("%02x", x));
+        }
+        return sb.toString();
+    }
+
+    private void writeConnectionFile(int port, String token) throws IOException {
+        File parent = connectionFile.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        // clients must never see a partially written file
+        Path tmp;
+        try {
+            tmp = Files.createTempFile(parent.toPath(), "daemon", ".tmp",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system
+            tmp = Files.createTempFile(parent.toPath(), "daemon", ".tmp");
+        }
+        Properties p = new Properties();
+        p.setProperty(DaemonClient.PORT_KEY, String.valueOf(port));
+        p.setProperty(DaemonClient.TOKEN_KEY, token);
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.ISO_8859_1)) {
+            p.store(w, "Ant daemon");
+        }
+        Files.move(tmp, connectionFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -36,7 +36,7 @@ import org.apache.tools.ant.util.StringUtils;
  * any messages that get logged.
  *
  */
-public class DefaultLogger implements BuildLogger {
+public class DefaultLogger implements BuildLogger, LevelAwareBuildListener {
     /**
      * Size of left-hand column for right-justified task name.
      * @see #messageLogged(BuildEvent)
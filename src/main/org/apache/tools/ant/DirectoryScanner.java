@@ -47,6 +47,7 @@ import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.types.selectors.TokenizedPath;
 import org.apache.tools.ant.types.selectors.TokenizedPattern;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.Instrumentation;
 import org.apache.tools.ant.util.VectorSet;
 import org.apache.tools.ant.util.WindowsJunctionUtils;
 
@@ -859,6 +860,7 @@ public class DirectoryScanner
             scanning = true;
         }
         final File savedBase = basedir;
+        final Instrumentation.Span span = Instrumentation.directoryScan(basedir);
         try {
             synchronized (this) {
                 illegal = null;
@@ -914,10 +916,12 @@ public class DirectoryScanner
                 }
                 checkIncludePatterns();
                 clearCaches();
+                Instrumentation.filesScanned(basedir, filesIncluded.size());
                 includes = nullIncludes ? null : includes;
                 excludes = nullExcludes ? null : excludes;
             }
         } finally {
+            span.end();
             basedir = savedBase;
             synchronized (scanLock) {
                 scanning = false;
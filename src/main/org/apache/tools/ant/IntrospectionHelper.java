@@ -18,9 +18,14 @@
 package org.apache.tools.ant;
 
 import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -129,6 +134,11 @@ public final class IntrospectionHelper {
      */
     private final Method addText;
 
+    /**
+     * Invoker for the addText method, null if there is none.
+     */
+    private final Invoker addTextInvoker;
+
     /**
      * The class introspected by this instance.
      */
@@ -303,6 +313,7 @@ public final class IntrospectionHelper {
             }
         }
         addText = addTextMethod;
+        addTextInvoker = addTextMethod == null ? null : new Invoker(addTextMethod);
     }
 
     /**
@@ -486,7 +497,7 @@ public final class IntrospectionHelper {
                     + " doesn't support nested text data (\"" + condenseText(text) + "\").");
         }
         try {
-            addText.invoke(element, text);
+            addTextInvoker.invoke(element, text);
         } catch (final IllegalAccessException ie) {
             // impossible as getMethods should only return public methods
             throw new BuildException(ie);
@@ -1239,7 +1250,7 @@ public final class IntrospectionHelper {
             }
         }
         final boolean finalIncludeProject = includeProject;
-        final Constructor<?> finalConstructor = c;
+        final Invoker finalConstructor = new Invoker(c);
 
         return new AttributeSetter(m, arg) {
             @Override
@@ -1435,13 +1446,19 @@ public final class IntrospectionHelper {
      */
     private abstract static class NestedCreator {
         private final Method method; // the method called to add/create the nested element
+        private final Invoker invoker;
 
         protected NestedCreator(final Method m) {
             method = m;
+            invoker = m == null ? null : new Invoker(m);
         }
         Method getMethod() {
             return method;
         }
+        Object invoke(final Object parent, final Object... args)
+                throws InvocationTargetException, IllegalAccessException {
+            return invoker.invoke(parent, args);
+        }
         boolean isPolyMorphic() {
             return false;
         }
@@ -1465,7 +1482,7 @@ public final class IntrospectionHelper {
         @Override
         Object create(final Project project, final Object parent, final Object ignore)
                 throws InvocationTargetException, IllegalAccessException {
-            return getMethod().invoke(parent);
+            return invoke(parent);
         }
     }
 
@@ -1475,12 +1492,12 @@ public final class IntrospectionHelper {
         static final int ADD = 1;
         static final int ADD_CONFIGURED = 2;
 
-        private final Constructor<?> constructor;
+        private final Invoker constructor;
         private final int behavior; // ADD or ADD_CONFIGURED
 
         AddNestedCreator(final Method m, final Constructor<?> c, final int behavior) {
             super(m);
-            this.constructor = c;
+            this.constructor = new Invoker(c);
             this.behavior = behavior;
         }
 
@@ -1494,7 +1511,7 @@ public final class IntrospectionHelper {
                 throws InvocationTargetException, IllegalAccessException, InstantiationException {
             if (child == null) {
                 child = constructor.newInstance(
-                        constructor.getParameterTypes().length == 0
+                        constructor.getParameterCount() == 0
                                 ? new Object[] {} : new Object[] {project});
             }
             if (child instanceof PreSetDef.PreSetDefinition) {
@@ -1516,7 +1533,7 @@ public final class IntrospectionHelper {
 
         private void istore(final Object parent, final Object child)
                 throws InvocationTargetException, IllegalAccessException {
-            getMethod().invoke(parent, child);
+            invoke(parent, child);
         }
     }
 
@@ -1526,6 +1543,7 @@ public final class IntrospectionHelper {
      */
     private abstract static class AttributeSetter {
         private final Method method; // the method called to set the attribute
+        private final Invoker invoker;
         private final Class<?> type;
         private final Supplier<?> supplyWhenNull;
 
@@ -1536,6 +1554,7 @@ public final class IntrospectionHelper {
         protected AttributeSetter(final Method method, final Class<?> type,
             final Supplier<?> supplyWhenNull) {
             this.method = method;
+            this.invoker = new Invoker(method);
             this.type = type;
             this.supplyWhenNull = supplyWhenNull;
         }
@@ -1555,11 +1574,11 @@ public final class IntrospectionHelper {
                     value = supplyWhenNull.get();
                 }
                 if (value == null || useType.isInstance(value)) {
-                    method.invoke(parent, value);
+                    invoker.invoke(parent, value);
                     return;
                 }
             }
-            method.invoke(parent, toTargetType(p, value.toString()));
+            invoker.invoke(parent, toTargetType(p, value.toString()));
         }
 
         Object toTargetType(Project project, String value) {
@@ -1567,6 +1586,121 @@ public final class IntrospectionHelper {
         }
     }
 
+    /**
+     * Calls a method or constructor through a MethodHandle bound on
+     * first use, which avoids the access checks and argument
+     * unwrapping Method.invoke performs on every call.
+     *
+     * <p>Arguments are checked up front so callers see the same
+     * IllegalArgumentException and InvocationTargetException that
+     * reflection would have thrown.  Anything the handle cannot deal
+     * with - inaccessible members or arguments requiring widening
+     * conversions - is passed on to plain reflection.</p>
+     */
+    static final class Invoker {
+        private static final MethodHandle UNBOUND = MethodHandles.constant(Object.class, null);
+
+        private final Executable executable;
+        private final Class<?>[] params;
+        private final Class<?>[] argTypes; // boxed parameter types
+        private volatile MethodHandle handle;
+
+        Invoker(final Executable executable) {
+            this.executable = executable;
+            params = executable.getParameterTypes();
+            argTypes = new Class<?>[params.length];
+            for (int i = 0; i < params.length; i++) {
+                argTypes[i] = PRIMITIVE_TYPE_MAP.getOrDefault(params[i], params[i]);
+            }
+        }
+
+        int getParameterCount() {
+            return params.length;
+        }
+
+        /**
+         * Invokes the method on the target object.
+         */
+        Object invoke(final Object target, final Object... args)
+                throws InvocationTargetException, IllegalAccessException {
+            final Method m = (Method) executable;
+            final MethodHandle h = getHandle();
+            if (h == null || !m.getDeclaringClass().isInstance(target) || !matches(args)) {
+                return m.invoke(target, args);
+            }
+            return invokeHandle(h, target, args);
+        }
+
+        /**
+         * Invokes the constructor.
+         */
+        Object newInstance(final Object... args)
+                throws InvocationTargetException, IllegalAccessException, InstantiationException {
+            final MethodHandle h = getHandle();
+            if (h == null || !matches(args)) {
+                return ((Constructor<?>) executable).newInstance(args);
+            }
+            return invokeHandle(h, null, args);
+        }
+
+        private static Object invokeHandle(final MethodHandle h, final Object target,
+                                           final Object[] args)
+                throws InvocationTargetException {
+            try {
+                return (Object) h.invokeExact(target, args);
+            } catch (final Throwable t) { //NOSONAR
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private boolean matches(final Object[] args) {
+            if (args.length != argTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] == null ? params[i].isPrimitive()
+                    : !argTypes[i].isInstance(args[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return a handle of type (Object, Object[])Object or null
+         * if the member cannot be accessed via a handle.
+         */
+        private MethodHandle getHandle() {
+            MethodHandle h = handle;
+            if (h == null) {
+                h = createHandle();
+                handle = h;
+            }
+            return h == UNBOUND ? null : h;
+        }
+
+        private MethodHandle createHandle() {
+            final int arity = argTypes.length;
+            try {
+                final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                if (executable instanceof Method) {
+                    return lookup.unreflect((Method) executable)
+                        .asType(MethodType.genericMethodType(arity + 1))
+                        .asSpreader(Object[].class, arity);
+                }
+                if (Modifier.isAbstract(executable.getDeclaringClass().getModifiers())) {
+                    return UNBOUND;
+                }
+                return MethodHandles.dropArguments(
+                    lookup.unreflectConstructor((Constructor<?>) executable)
+                        .asType(MethodType.genericMethodType(arity))
+                        .asSpreader(Object[].class, arity), 0, Object.class);
+            } catch (final IllegalAccessException | RuntimeException e) {
+                return UNBOUND;
+            }
+        }
+    }
+
     /**
      * Clears the static cache of on build finished.
      */
@@ -1618,7 +1752,7 @@ public final class IntrospectionHelper {
             Object create(final Project project, final Object parent, final Object ignore)
                     throws InvocationTargetException, IllegalAccessException {
                 if (!getMethod().getName().endsWith("Configured")) {
-                    getMethod().invoke(parent, realObject);
+                    invoke(parent, realObject);
                 }
                 return nestedObject;
             }
@@ -1632,7 +1766,7 @@ public final class IntrospectionHelper {
             void store(final Object parent, final Object child) throws InvocationTargetException,
                     IllegalAccessException, InstantiationException {
                 if (getMethod().getName().endsWith("Configured")) {
-                    getMethod().invoke(parent, realObject);
+                    invoke(parent, realObject);
                 }
             }
         };
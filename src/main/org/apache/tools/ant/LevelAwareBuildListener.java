@@ -0,0 +1,50 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+/**
+ * A build listener that ignores all messages above a certain level.
+ *
+ * <p>Listeners implementing this interface allow {@link Project} to
+ * skip creating and dispatching messages nobody is going to look at,
+ * see {@link Project#isLoggable Project#isLoggable}.  Listeners that
+ * don't implement it are assumed to be interested in all
+ * messages.</p>
+ *
+ * <p>The class declaring the listener's <code>messageLogged</code>
+ * method must implement this interface itself, a subclass that
+ * overrides <code>messageLogged</code> receives all messages unless
+ * it repeats the <code>implements</code> clause.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public interface LevelAwareBuildListener extends BuildListener {
+
+    /**
+     * The most verbose message level this listener is interested in,
+     * messages with a higher level than the returned one may never be
+     * passed to {@link #messageLogged messageLogged}.
+     *
+     * <p>The value is consulted whenever a message is logged so it
+     * may change at any time.</p>
+     *
+     * @return one of the <code>MSG_*</code> constants of {@link
+     * Project}.
+     */
+    int getMessageOutputLevel();
+}
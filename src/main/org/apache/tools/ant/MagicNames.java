@@ -195,6 +195,124 @@ public final class MagicNames {
      */
     public static final String REFID_CLASSPATH_LOADER_PREFIX = "ant.loader.";
 
+    /**
+     * Name of the magic property that enables sharing of class
+     * loaders between definitions using classpaths with identical
+     * content.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String CLASSLOADER_POOL = "ant.classloader.pool";
+
+    /**
+     * Reference used to store the pool of shared class loaders.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String REFID_CLASSLOADER_POOL = "ant.classLoaderPool";
+
+    /**
+     * Name of the magic property that holds the directory used to
+     * cache the parsed content of build files.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String PARSE_CACHE_DIR = "ant.parse.cache.dir";
+
+    /**
+     * Name of the magic property that holds the number of threads
+     * used to parse imported build files ahead of time.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String IMPORT_PREFETCH_THREADS = "ant.import.prefetch.threads";
+
+    /**
+     * Reference used to store the parser of imported build files.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String REFID_IMPORT_PREFETCHER = "ant.importPrefetcher";
+
+    /**
+     * Name of the magic property that makes &lt;ant&gt;,
+     * &lt;antcall&gt; and &lt;subant&gt; let the subproject read
+     * the properties and references of the calling project instead
+     * of copying them.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String INHERIT_COPY_ON_WRITE = "ant.inherit.copyonwrite";
+
+    /**
+     * Name of the magic property that makes Ant deliver build events
+     * to the listeners on a separate thread.  The value is either a
+     * boolean or the maximum number of events waiting to be delivered.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String ASYNC_LISTENERS = "ant.listeners.async";
+
+    /**
+     * Name of the magic property that controls what happens if the
+     * listeners can't keep up with asynchronously delivered events,
+     * either <code>block</code> or <code>discard</code>.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String ASYNC_LISTENERS_OVERFLOW = "ant.listeners.async.overflow";
+
+    /**
+     * Name of the Java system property that makes Ant add a listener
+     * emitting Java Flight Recorder events.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String FLIGHT_RECORDER_EVENTS = "ant.jfr.events";
+
+    /**
+     * Reference used to store the in-memory cache of parsed build
+     * files used by a project and handed down to its subprojects.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String REFID_IN_MEMORY_PARSE_CACHE = "ant.inMemoryParseCache";
+
+    /**
+     * Reference used by a project to store the in-memory cache it
+     * hands to the projects of its &lt;antcall&gt;s with
+     * reuseparse="true". Unlike {@link #REFID_IN_MEMORY_PARSE_CACHE}
+     * it doesn't make the project itself use the cache.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String REFID_ANTCALL_PARSE_CACHE = "ant.antCallParseCache";
+
+    /**
+     * Name of the magic property that makes &lt;java
+     * fork="true"&gt; run classes inside forked JVMs that are
+     * reused for later invocations with the same JVM settings.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String JAVA_WORKER_POOL = "ant.java.workerpool";
+
+    /**
+     * Reference used to store the pool of reusable forked JVMs.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String REFID_JAVA_WORKER_POOL = "ant.javaWorkerPool";
+
+    /**
+     * Name of the magic property that makes &lt;taskdef&gt;,
+     * &lt;typedef&gt; and antlibs only load the classes of
+     * definitions when they are used for the first time.
+     * Value: {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String LAZY_DEFINITIONS = "ant.definitions.lazy";
+
     /**
      * Reference used to store the property helper.
      * Value: {@value}
@@ -68,11 +68,16 @@ public class Main implements AntMain {
      */
     private static final Set<String> LAUNCH_COMMANDS = Collections
             .unmodifiableSet(new HashSet<>(Arrays.asList("-lib", "-cp", "-noclasspath",
-                    "--noclasspath", "-nouserlib", "-main")));
+                    "--noclasspath", "-nouserlib", "-main", "-daemon", "-client",
+                    "-stopdaemon")));
 
     /** The default build file name. {@value} */
     public static final String DEFAULT_BUILD_FILENAME = "build.xml";
 
+    /** The listener emitting Java Flight Recorder events. */
+    private static final String FLIGHT_RECORDER_LISTENER =
+        "org.apache.tools.ant.jfr.FlightRecorderListener";
+
     /** Our current message output status. Follows Project.MSG_XXX. */
     private int msgOutputLevel = Project.MSG_INFO;
 
@@ -775,6 +780,7 @@ public class Main implements AntMain {
                 }
 
                 setProperties(project);
+                enableAsyncEventDispatch(project);
 
                 project.setKeepGoingMode(keepGoingMode);
                 if (proxy) {
@@ -847,6 +853,32 @@ public class Main implements AntMain {
         }
     }
 
+    private void enableAsyncEventDispatch(final Project project) {
+        final String async = project.getProperty(MagicNames.ASYNC_LISTENERS);
+        if (async == null || "false".equalsIgnoreCase(async)
+            || "off".equalsIgnoreCase(async) || "no".equalsIgnoreCase(async)) {
+            return;
+        }
+        int capacity = 0;
+        if (!Project.toBoolean(async)) {
+            try {
+                capacity = Integer.parseInt(async.trim());
+            } catch (final NumberFormatException e) {
+                project.log("ignoring invalid value " + async + " for "
+                            + MagicNames.ASYNC_LISTENERS, Project.MSG_WARN);
+                return;
+            }
+        }
+        final String overflow = project.getProperty(MagicNames.ASYNC_LISTENERS_OVERFLOW);
+        project.enableAsyncEventDispatch(capacity, "discard".equals(overflow));
+        if (project.getBuildListeners().stream()
+            .anyMatch(l -> FLIGHT_RECORDER_LISTENER.equals(l.getClass().getName()))) {
+            project.log("Java Flight Recorder events for targets and tasks are not created"
+                        + " while " + MagicNames.ASYNC_LISTENERS + " is set",
+                        Project.MSG_WARN);
+        }
+    }
+
     private void setProperties(final Project project) {
 
         project.init();
@@ -903,6 +935,26 @@ public class Main implements AntMain {
 
             project.addBuildListener(listener);
         }
+
+        if (Boolean.getBoolean(MagicNames.FLIGHT_RECORDER_EVENTS)) {
+            addFlightRecorderListener(project);
+        }
+    }
+
+    /**
+     * Adds the listener emitting Java Flight Recorder events if the
+     * running Java VM supports them.
+     *
+     * @param project the project instance.
+     */
+    private void addFlightRecorderListener(final Project project) {
+        try {
+            project.addBuildListener(ClasspathUtils.newInstance(FLIGHT_RECORDER_LISTENER,
+                    Main.class.getClassLoader(), BuildListener.class));
+        } catch (final BuildException | LinkageError e) {
+            project.log("Java Flight Recorder events are not available: " + e,
+                        Project.MSG_WARN);
+        }
     }
 
     /**
@@ -1001,6 +1053,10 @@ public class Main implements AntMain {
         System.out.println("  -noclasspath           Run ant without using CLASSPATH");
         System.out.println("  -autoproxy             Java1.5+: use the OS proxy settings");
         System.out.println("  -main <class>          override Ant's normal entry point");
+        System.out.println("  -daemon                keep running and serve builds started with -client");
+        System.out.println("  -client                run the build inside a running Ant daemon if");
+        System.out.println("                         there is one");
+        System.out.println("  -stopdaemon            terminate the running Ant daemon");
         for (final ArgumentProcessor processor : ArgumentProcessorRegistry.getInstance().getProcessors()) {
             processor.printUsage(System.out);
         }
@@ -22,7 +22,7 @@ package org.apache.tools.ant;
  * Extends DefaultLogger to strip out empty targets.
  *
  */
-public class NoBannerLogger extends DefaultLogger {
+public class NoBannerLogger extends DefaultLogger implements LevelAwareBuildListener {
 
     // CheckStyle:VisibilityModifier OFF - bc
     /**
@@ -24,10 +24,14 @@ import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
@@ -35,6 +39,8 @@ import java.util.Set;
 import java.util.Stack;
 import java.util.Vector;
 import java.util.WeakHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.tools.ant.helper.DefaultExecutor;
@@ -184,6 +190,12 @@ public class Project implements ResourceFactory {
         messageLogged */
     private final ThreadLocal<Boolean> isLoggingMessage = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
+    /** Delivers events on a separate thread if not null. */
+    private volatile AsyncEventDispatcher asyncDispatcher;
+
+    /** Whether the resources used by tasks are measured. */
+    private volatile boolean taskResourceAccounting;
+
     /**
      * The Ant core classloader--may be <code>null</code> if using
      * parent classloader.
@@ -290,6 +302,20 @@ public class Project implements ResourceFactory {
         subProject.setDefaultInputStream(getDefaultInputStream());
         subProject.setKeepGoingMode(this.isKeepGoingMode());
         subProject.setExecutor(getExecutor().getSubProjectExecutor());
+        final Object loaderPool = getReference(MagicNames.REFID_CLASSLOADER_POOL);
+        if (loaderPool != null) {
+            subProject.addReference(MagicNames.REFID_CLASSLOADER_POOL, loaderPool);
+        }
+        final Object workerPool = getReference(MagicNames.REFID_JAVA_WORKER_POOL);
+        if (workerPool != null) {
+            subProject.addReference(MagicNames.REFID_JAVA_WORKER_POOL, workerPool);
+        }
+        final Object parseCache = getReference(MagicNames.REFID_IN_MEMORY_PARSE_CACHE);
+        if (parseCache != null) {
+            subProject.addReference(MagicNames.REFID_IN_MEMORY_PARSE_CACHE, parseCache);
+        }
+        subProject.asyncDispatcher = asyncDispatcher;
+        subProject.taskResourceAccounting = taskResourceAccounting;
     }
 
     /**
@@ -412,6 +438,11 @@ public class Project implements ResourceFactory {
      *                 Should not be <code>null</code>.
      */
     public void removeBuildListener(final BuildListener listener) {
+        final AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null) {
+            // don't let the listener see events after it has been removed
+            dispatcher.flush();
+        }
         synchronized (listenersLock) {
             // copy on write semantics
             for (int i = 0; i < listeners.length; i++) {
@@ -428,6 +459,113 @@ public class Project implements ResourceFactory {
         }
     }
 
+    /**
+     * Whether instances of a listener class may be skipped for
+     * messages above their level, see {@link #isLoggable}.
+     */
+    private static final ClassValue<Boolean> LEVEL_AWARE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            if (!LevelAwareBuildListener.class.isAssignableFrom(type)) {
+                return false;
+            }
+            try {
+                final Class<?> declaring =
+                    type.getMethod("messageLogged", BuildEvent.class).getDeclaringClass();
+                return Arrays.asList(declaring.getInterfaces())
+                    .contains(LevelAwareBuildListener.class);
+            } catch (final NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * Whether any of the build listeners may be interested in
+     * messages of the given level.
+     *
+     * <p>Messages are only passed to listeners if this method
+     * returns true, callers may use it to avoid building messages
+     * that would be discarded anyway.  Listeners that don't
+     * implement {@link LevelAwareBuildListener} are assumed to want
+     * all messages.  So are listeners whose
+     * <code>messageLogged</code> method is declared in a class that
+     * doesn't implement the interface itself, like a subclass of
+     * {@link DefaultLogger} that overrides the method to see all
+     * messages.</p>
+     *
+     * @param msgLevel the message level.
+     * @return true if at least one listener wants to see messages
+     * of the given level.
+     * @since Ant 1.10.16
+     */
+    public boolean isLoggable(final int msgLevel) {
+        for (BuildListener currListener : listeners) {
+            if (!LEVEL_AWARE.get(currListener.getClass())
+                || msgLevel <= ((LevelAwareBuildListener) currListener).getMessageOutputLevel()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes this project and all subprojects created afterwards
+     * measure the CPU time and heap allocations of each task.
+     *
+     * <p>The results are available via {@link BuildEvent#getCpuTime}
+     * and {@link BuildEvent#getAllocatedBytes} of "taskFinished"
+     * events.</p>
+     *
+     * @param accounting whether to measure tasks.
+     * @since Ant 1.10.16
+     */
+    public void setTaskResourceAccounting(final boolean accounting) {
+        taskResourceAccounting = accounting;
+    }
+
+    /**
+     * Whether the CPU time and heap allocations of tasks are measured.
+     *
+     * @return boolean
+     * @since Ant 1.10.16
+     */
+    public boolean isTaskResourceAccounting() {
+        return taskResourceAccounting;
+    }
+
+    /**
+     * Makes this project and all subprojects created afterwards
+     * deliver build events to their listeners on a dedicated thread,
+     * so slow listeners don't hold up the build.
+     *
+     * <p>Events fired by the same thread are delivered in the order
+     * they have been fired.  Events that are still queued get
+     * delivered before {@link #fireBuildFinished fireBuildFinished}
+     * and {@link #removeBuildListener removeBuildListener} return.
+     * Exceptions thrown by listeners are rethrown by those methods
+     * as well.</p>
+     *
+     * <p>As all listeners get invoked on the dispatcher thread,
+     * listeners that keep state per thread or measure time must use
+     * {@link BuildEvent#getThread} and {@link BuildEvent#getTimestamp}
+     * rather than the current thread and time.</p>
+     *
+     * @param capacity maximum number of events waiting to be
+     * delivered, a value less than one selects the default.
+     * @param discardOnOverflow whether verbose and debug messages
+     * should be dropped rather than wait for the listeners when the
+     * queue is full.
+     * @since Ant 1.10.16
+     */
+    public void enableAsyncEventDispatch(final int capacity, final boolean discardOnOverflow) {
+        if (asyncDispatcher == null) {
+            asyncDispatcher = new AsyncEventDispatcher(this,
+                capacity < 1 ? AsyncEventDispatcher.DEFAULT_CAPACITY : capacity,
+                discardOnOverflow);
+        }
+    }
+
     /**
      * Return a copy of the list of build listeners for the project.
      *
@@ -1999,6 +2137,27 @@ public class Project implements ResourceFactory {
         }
     }
 
+    /**
+     * Add a reference to the project whose value is only created once
+     * it is needed.
+     *
+     * <p>The supplier is invoked at most once, when the reference is
+     * looked up or all references get enumerated for the first time.
+     * It won't be invoked at all if a reference of the same name is
+     * added before that.  Nothing is added if a reference of the same
+     * name already exists.</p>
+     *
+     * @param referenceName The name of the reference. Must not be <code>null</code>.
+     * @param supplier creates the referenced object, may return null
+     * if the reference can't be created.
+     * @since Ant 1.10.16
+     */
+    public void addLazyReference(final String referenceName, final Supplier<?> supplier) {
+        synchronized (referencesLock) {
+            ((AntRefTable) references).addPending(referenceName, supplier);
+        }
+    }
+
     /**
      * Return a map of the references in the project (String to Object).
      * The returned hashtable is &quot;live&quot; and so must not be modified.
@@ -2091,10 +2250,7 @@ public class Project implements ResourceFactory {
      * to the build listeners for this project.
      */
     public void fireBuildStarted() {
-        final BuildEvent event = new BuildEvent(this);
-        for (BuildListener currListener : listeners) {
-            currListener.buildStarted(event);
-        }
+        fireEvent(new BuildEvent(this), BuildListener::buildStarted);
     }
 
     /**
@@ -2105,13 +2261,27 @@ public class Project implements ResourceFactory {
      *                  a successful build.
      */
     public void fireBuildFinished(final Throwable exception) {
+        final AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null && dispatcher.getDiscarded() > 0) {
+            log(dispatcher.getDiscarded() + " messages have been discarded"
+                + " as the build listeners couldn't keep up", MSG_WARN);
+        }
         final BuildEvent event = new BuildEvent(this);
         event.setException(exception);
-        for (BuildListener currListener : listeners) {
-            currListener.buildFinished(event);
+        try {
+            fireEvent(event, BuildListener::buildFinished);
+            if (dispatcher != null) {
+                if (dispatcher.getOwner() == this) {
+                    asyncDispatcher = null;
+                    dispatcher.close();
+                } else {
+                    dispatcher.flush();
+                }
+            }
+        } finally {
+            // Inform IH to clear the cache
+            IntrospectionHelper.clearCache();
         }
-        // Inform IH to clear the cache
-        IntrospectionHelper.clearCache();
     }
 
     /**
@@ -2121,12 +2291,11 @@ public class Project implements ResourceFactory {
      * @since Ant 1.6.2
      */
     public void fireSubBuildStarted() {
-        final BuildEvent event = new BuildEvent(this);
-        for (BuildListener currListener : listeners) {
-            if (currListener instanceof SubBuildListener) {
-                ((SubBuildListener) currListener).subBuildStarted(event);
+        fireEvent(new BuildEvent(this), (l, e) -> {
+            if (l instanceof SubBuildListener) {
+                ((SubBuildListener) l).subBuildStarted(e);
             }
-        }
+        });
     }
 
     /**
@@ -2141,11 +2310,11 @@ public class Project implements ResourceFactory {
     public void fireSubBuildFinished(final Throwable exception) {
         final BuildEvent event = new BuildEvent(this);
         event.setException(exception);
-        for (BuildListener currListener : listeners) {
-            if (currListener instanceof SubBuildListener) {
-                ((SubBuildListener) currListener).subBuildFinished(event);
+        fireEvent(event, (l, e) -> {
+            if (l instanceof SubBuildListener) {
+                ((SubBuildListener) l).subBuildFinished(e);
             }
-        }
+        });
     }
 
     /**
@@ -2156,11 +2325,7 @@ public class Project implements ResourceFactory {
      *               Must not be <code>null</code>.
      */
     protected void fireTargetStarted(final Target target) {
-        final BuildEvent event = new BuildEvent(target);
-        for (BuildListener currListener : listeners) {
-            currListener.targetStarted(event);
-        }
-
+        fireEvent(new BuildEvent(target), BuildListener::targetStarted);
     }
 
     /**
@@ -2176,10 +2341,7 @@ public class Project implements ResourceFactory {
     protected void fireTargetFinished(final Target target, final Throwable exception) {
         final BuildEvent event = new BuildEvent(target);
         event.setException(exception);
-        for (BuildListener currListener : listeners) {
-            currListener.targetFinished(event);
-        }
-
+        fireEvent(event, BuildListener::targetFinished);
     }
 
     /**
@@ -2192,9 +2354,9 @@ public class Project implements ResourceFactory {
     protected void fireTaskStarted(final Task task) {
         // register this as the current task on the current thread.
         registerThreadTask(Thread.currentThread(), task);
-        final BuildEvent event = new BuildEvent(task);
-        for (BuildListener currListener : listeners) {
-            currListener.taskStarted(event);
+        fireEvent(new BuildEvent(task), BuildListener::taskStarted);
+        if (taskResourceAccounting) {
+            TaskResourceMeter.start();
         }
     }
 
@@ -2214,10 +2376,26 @@ public class Project implements ResourceFactory {
         System.err.flush();
         final BuildEvent event = new BuildEvent(task);
         event.setException(exception);
-        for (BuildListener currListener : listeners) {
-            currListener.taskFinished(event);
+        if (taskResourceAccounting) {
+            TaskResourceMeter.finish(event);
         }
+        fireEvent(event, BuildListener::taskFinished);
+    }
 
+    /**
+     * Passes the event on to all listeners, either directly or via
+     * the asynchronous dispatcher.
+     */
+    private void fireEvent(final BuildEvent event,
+                           final BiConsumer<BuildListener, BuildEvent> action) {
+        final AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(listeners, event, action);
+            return;
+        }
+        for (BuildListener currListener : listeners) {
+            action.accept(currListener, event);
+        }
     }
 
     /**
@@ -2243,6 +2421,15 @@ public class Project implements ResourceFactory {
         } else {
             event.setMessage(message, priority);
         }
+        fireMessageLoggedEvent(event, BuildListener::messageLogged);
+    }
+
+    /**
+     * Passes a message event on to the listeners unless it has been
+     * logged by a listener.
+     */
+    private void fireMessageLoggedEvent(final BuildEvent event,
+                                        final BiConsumer<BuildListener, BuildEvent> action) {
         if (isLoggingMessage.get() != Boolean.FALSE) {
             /*
              * One of the Listeners has attempted to access
@@ -2261,14 +2448,37 @@ public class Project implements ResourceFactory {
         }
         try {
             isLoggingMessage.set(Boolean.TRUE);
-            for (BuildListener currListener : listeners) {
-                currListener.messageLogged(event);
-            }
+            fireEvent(event, action);
         } finally {
             isLoggingMessage.set(Boolean.FALSE);
         }
     }
 
+    /**
+     * Passes an event that has been recorded earlier - like the
+     * events of a sub-build that <code>&lt;subant&gt;</code> has run
+     * in parallel - on to the listeners of this project.
+     *
+     * <p>The event takes the same path as the events fired by this
+     * project: it is delivered asynchronously if this project does
+     * so and messages are dropped if no listener is interested in
+     * their priority. The event keeps the {@link BuildEvent#getThread
+     * thread} and {@link BuildEvent#getTimestamp time} of its
+     * creation.</p>
+     *
+     * @param event the recorded event.
+     * @param action the listener method to invoke.
+     * @since Ant 1.10.16
+     */
+    public void fireRecordedEvent(final BuildEvent event,
+                                  final BiConsumer<BuildListener, BuildEvent> action) {
+        if (event.getMessage() == null) {
+            fireEvent(event, action);
+        } else if (isLoggable(event.getPriority())) {
+            fireMessageLoggedEvent(event, action);
+        }
+    }
+
     /**
      * Send a &quot;message logged&quot; project level event
      * to the build listeners for this project.
@@ -2296,6 +2506,9 @@ public class Project implements ResourceFactory {
      */
     protected void fireMessageLogged(final Project project, final String message,
             final Throwable throwable, final int priority) {
+        if (!isLoggable(priority)) {
+            return;
+        }
         final BuildEvent event = new BuildEvent(project);
         event.setException(throwable);
         fireMessageLoggedEvent(event, message, priority);
@@ -2328,6 +2541,9 @@ public class Project implements ResourceFactory {
      */
     protected void fireMessageLogged(final Target target, final String message,
             final Throwable throwable, final int priority) {
+        if (!isLoggable(priority)) {
+            return;
+        }
         final BuildEvent event = new BuildEvent(target);
         event.setException(throwable);
         fireMessageLoggedEvent(event, message, priority);
@@ -2359,6 +2575,9 @@ public class Project implements ResourceFactory {
      */
     protected void fireMessageLogged(final Task task, final String message,
             final Throwable throwable, final int priority) {
+        if (!isLoggable(priority)) {
+            return;
+        }
         final BuildEvent event = new BuildEvent(task);
         event.setException(throwable);
         fireMessageLoggedEvent(event, message, priority);
@@ -2411,10 +2630,105 @@ public class Project implements ResourceFactory {
     private static class AntRefTable extends Hashtable<String, Object> {
         private static final long serialVersionUID = 1L;
 
+        /** references added via addLazyReference that haven't been created yet */
+        private final transient Map<String, Supplier<?>> pending = new LinkedHashMap<>();
+
         AntRefTable() {
             super();
         }
 
+        synchronized void addPending(final String key, final Supplier<?> supplier) {
+            if (!super.containsKey(key)) {
+                pending.put(key, supplier);
+            }
+        }
+
+        private synchronized void resolve(final Object key) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            // remove first, the supplier may look up other references
+            final Supplier<?> supplier = pending.remove(key);
+            if (supplier != null) {
+                final Object value = supplier.get();
+                if (value != null && !super.containsKey(key)) {
+                    super.put((String) key, value);
+                }
+            }
+        }
+
+        private synchronized void resolveAll() {
+            while (!pending.isEmpty()) {
+                final Iterator<String> keys = pending.keySet().iterator();
+                resolve(keys.next());
+            }
+        }
+
+        @Override
+        public synchronized Object put(final String key, final Object value) {
+            pending.remove(key);
+            return super.put(key, value);
+        }
+
+        @Override
+        public synchronized Object remove(final Object key) {
+            pending.remove(key);
+            return super.remove(key);
+        }
+
+        @Override
+        public synchronized boolean containsKey(final Object key) {
+            return super.containsKey(key) || pending.containsKey(key);
+        }
+
+        @Override
+        public synchronized int size() {
+            resolveAll();
+            return super.size();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            resolveAll();
+            return super.isEmpty();
+        }
+
+        @Override
+        public synchronized Set<String> keySet() {
+            resolveAll();
+            return super.keySet();
+        }
+
+        @Override
+        public synchronized Set<Map.Entry<String, Object>> entrySet() {
+            resolveAll();
+            return super.entrySet();
+        }
+
+        @Override
+        public synchronized Collection<Object> values() {
+            resolveAll();
+            return super.values();
+        }
+
+        @Override
+        public synchronized Enumeration<String> keys() {
+            resolveAll();
+            return super.keys();
+        }
+
+        @Override
+        public synchronized Enumeration<Object> elements() {
+            resolveAll();
+            return super.elements();
+        }
+
+        @Override
+        public synchronized void forEach(final BiConsumer<? super String, ? super Object> action) {
+            resolveAll();
+            super.forEach(action);
+        }
+
         /** Returns the unmodified original object.
          * This method should be called internally to
          * get the &quot;real&quot; object.
@@ -2439,6 +2753,7 @@ public class Project implements ResourceFactory {
          */
         @Override
         public Object get(final Object key) {
+            resolve(key);
             Object o = getReal(key);
             if (o instanceof UnknownElement) {
                 // Make sure that
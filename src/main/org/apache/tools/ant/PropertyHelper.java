@@ -17,6 +17,7 @@
  */
 package org.apache.tools.ant;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -26,11 +27,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.tools.ant.property.ExpansionTemplate;
 import org.apache.tools.ant.property.GetProperty;
 import org.apache.tools.ant.property.NullReturn;
 import org.apache.tools.ant.property.ParseProperties;
 import org.apache.tools.ant.property.PropertyExpander;
+import org.apache.tools.ant.util.ConcurrentHashtable;
 
 /* ISSUES:
  - ns param. It could be used to provide "namespaces" for properties, which
@@ -73,6 +77,19 @@ import org.apache.tools.ant.property.PropertyExpander;
  * and this class to expand the property names found into the
  * corresponding values.</p>
  *
+ * <p>As long as only the built-in expanders are in use, the result
+ * of splitting a string into literal text and property references
+ * is cached as an {@link
+ * org.apache.tools.ant.property.ExpansionTemplate ExpansionTemplate}
+ * so strings that get expanded repeatedly - attributes of tasks
+ * inside of macros or targets invoked via antcall for example - are
+ * only scanned once.</p>
+ *
+ * <p>The property tables are backed by concurrent maps, looking up a
+ * property doesn't acquire any lock and {@link #setNewProperty
+ * setNewProperty} atomically only sets properties that have not been
+ * set before, even if invoked from several threads at once.</p>
+ *
  * <p>When {@link #getProperty looking up a property value} this class
  * will first consult all {@link PropertyHelper.PropertyEvaluator
  * PropertyEvaluator} delegates and fall back to an internal map of
@@ -249,22 +266,41 @@ public class PropertyHelper implements GetProperty {
     private PropertyHelper next;
     private final Hashtable<Class<? extends Delegate>, List<Delegate>> delegates = new Hashtable<>();
 
+    /** Maximum number of cached expansion templates. */
+    private static final int MAX_TEMPLATES = 10000;
+
+    /** Strings already split into literal text and property references. */
+    private final Map<String, ExpansionTemplate> templates = new ConcurrentHashMap<>();
+
     /** Project properties map (usually String to String). */
-    private final Hashtable<String, Object> properties = new Hashtable<>();
+    private final ConcurrentHashtable<String, Object> properties = new ConcurrentHashtable<>();
 
     /**
      * Map of "user" properties (as created in the Ant task, for example).
      * Note that these key/value pairs are also always put into the
      * project properties, so only the project properties need to be queried.
      */
-    private final Hashtable<String, Object> userProperties = new Hashtable<>();
+    private final ConcurrentHashtable<String, Object> userProperties = new ConcurrentHashtable<>();
 
     /**
      * Map of inherited "user" properties - that are those "user"
      * properties that have been created by tasks and not been set
      * from the command line or a GUI tool.
      */
-    private final Hashtable<String, Object> inheritedProperties = new Hashtable<>();
+    private final ConcurrentHashtable<String, Object> inheritedProperties =
+        new ConcurrentHashtable<>();
+
+    /**
+     * The helper of the parent project whose properties are read
+     * through rather than copied.
+     */
+    private volatile PropertyHelper parent;
+
+    /** Whether all of the parent's properties or only user properties are visible. */
+    private volatile boolean inheritAll;
+
+    /** Whether the parent's inherited properties are visible as such. */
+    private volatile boolean inheritedVisible;
 
     /**
      * Default constructor.
@@ -343,6 +379,72 @@ public class PropertyHelper implements GetProperty {
         return project;
     }
 
+    /**
+     * Makes the properties of another PropertyHelper visible in this
+     * one without copying them.
+     *
+     * <p>The result is equivalent to copying the parent's user
+     * properties via {@link #copyUserProperties copyUserProperties}
+     * and - if <code>inheritAll</code> is true - all other properties
+     * except for <code>basedir</code> and <code>ant.file</code> as
+     * done by <code>&lt;ant&gt;</code>.  {@link
+     * #inheritInheritedProperties inheritInheritedProperties}
+     * completes the equivalent of {@link #copyInheritedProperties
+     * copyInheritedProperties}.  The parent's properties are
+     * looked up whenever they are not shadowed by a property that has
+     * been set on this instance, so changes made to the parent later
+     * are visible here as well.</p>
+     *
+     * <p>Properties held by delegates of the parent (like local
+     * properties) are not visible, just like they wouldn't be
+     * copied.</p>
+     *
+     * @param parent the PropertyHelper of the calling project.
+     * @param inheritAll whether plain properties should be visible as
+     * well.
+     * @since Ant 1.10.16
+     */
+    public void inheritFrom(PropertyHelper parent, boolean inheritAll) {
+        synchronized (this) {
+            // copying user properties would have replaced any value set so far
+            for (String name : properties.keySet()) {
+                if (!userProperties.containsKey(name)
+                    && parent.getLayeredUserProperty(name) != null
+                    && parent.getLayeredInheritedProperty(name) == null) {
+                    properties.remove(name);
+                }
+            }
+            this.inheritAll = inheritAll;
+            this.inheritedVisible = false;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Makes the inherited properties of the PropertyHelper passed to
+     * {@link #inheritFrom inheritFrom} visible as inherited
+     * properties here unless a user property of the same name has
+     * been set on this instance, like {@link #copyInheritedProperties
+     * copyInheritedProperties} would.
+     *
+     * @since Ant 1.10.16
+     */
+    public void inheritInheritedProperties() {
+        synchronized (this) {
+            PropertyHelper p = parent;
+            if (p == null) {
+                return;
+            }
+            for (String name : properties.keySet()) {
+                if (!userProperties.containsKey(name)
+                    && p.getLayeredInheritedProperty(name) != null) {
+                    properties.remove(name);
+                }
+            }
+            inheritedVisible = true;
+        }
+    }
+
     /**
      * Prior to Ant 1.8.0 there have been 2 ways to hook into property handling:
      *
@@ -390,7 +492,17 @@ public class PropertyHelper implements GetProperty {
      *
      * @return the project's property helper.
      */
-    public static synchronized PropertyHelper getPropertyHelper(Project project) {
+    public static PropertyHelper getPropertyHelper(Project project) {
+        if (project != null) {
+            PropertyHelper helper = project.getReference(MagicNames.REFID_PROPERTY_HELPER);
+            if (helper != null) {
+                return helper;
+            }
+        }
+        return createPropertyHelper(project);
+    }
+
+    private static synchronized PropertyHelper createPropertyHelper(Project project) {
         PropertyHelper helper = null;
         if (project != null) {
             helper = project.getReference(MagicNames.REFID_PROPERTY_HELPER);
@@ -585,8 +697,18 @@ public class PropertyHelper implements GetProperty {
      *         <code>null</code> if the original string is <code>null</code>.
      */
     public Object parseProperties(String value) throws BuildException {
-        return new ParseProperties(getProject(), getExpanders(), this)
-            .parseProperties(value);
+        if (value == null) {
+            return value;
+        }
+        Collection<PropertyExpander> expanders = getExpanders();
+        if (!hasBuiltinExpandersOnly(expanders)) {
+            return new ParseProperties(getProject(), expanders, this)
+                .parseProperties(value);
+        }
+        if (value.indexOf('$') < 0) {
+            return value;
+        }
+        return getTemplate(value, expanders).expand(getProject(), this);
     }
 
     /**
@@ -595,8 +717,45 @@ public class PropertyHelper implements GetProperty {
      * @return <code>true</code> if <code>value</code> contains property notation.
      */
     public boolean containsProperties(String value) {
-        return new ParseProperties(getProject(), getExpanders(), this)
-            .containsProperties(value);
+        if (value == null) {
+            return false;
+        }
+        Collection<PropertyExpander> expanders = getExpanders();
+        if (!hasBuiltinExpandersOnly(expanders)) {
+            return new ParseProperties(getProject(), expanders, this)
+                .containsProperties(value);
+        }
+        if (value.indexOf('$') < 0) {
+            return false;
+        }
+        return getTemplate(value, expanders).containsProperties();
+    }
+
+    /**
+     * Whether the strings can be split into references using the
+     * cached templates, i.e. no custom expander has been added.
+     */
+    private static boolean hasBuiltinExpandersOnly(Collection<PropertyExpander> expanders) {
+        for (PropertyExpander e : expanders) {
+            if (e != DEFAULT_EXPANDER && e != SKIP_DOUBLE_DOLLAR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ExpansionTemplate getTemplate(String value,
+                                          Collection<PropertyExpander> expanders) {
+        ExpansionTemplate template = templates.get(value);
+        if (template == null) {
+            // syntax errors are thrown here and thus never cached
+            template = new ParseProperties(getProject(), expanders, this).compile(value);
+            if (templates.size() >= MAX_TEMPLATES) {
+                templates.clear();
+            }
+            templates.put(value, template);
+        }
+        return template;
     }
 
     // -------------------- Default implementation  --------------------
@@ -638,7 +797,7 @@ public class PropertyHelper implements GetProperty {
         }
         synchronized (this) {
             // user (CLI) properties take precedence
-            if (userProperties.containsKey(name)) {
+            if (name != null && getLayeredUserProperty(name) != null) {
                 if (project != null && verbose) {
                     project.log("Override ignored for user property \""
                                 + name + "\"", Project.MSG_VERBOSE);
@@ -646,7 +805,7 @@ public class PropertyHelper implements GetProperty {
                 return false;
             }
             if (project != null && verbose) {
-                if (properties.containsKey(name)) {
+                if (getLayeredProperty(name) != null) {
                     project.log("Overriding previous definition of property \""
                                 + name + "\"", Project.MSG_VERBOSE);
                 }
@@ -698,20 +857,21 @@ public class PropertyHelper implements GetProperty {
                 return;
             }
         }
-        synchronized (this) {
-            if (project != null && properties.containsKey(name)) {
-                project.log("Override ignored for property \"" + name
-                            + "\"", Project.MSG_VERBOSE);
-                return;
-            }
-            if (project != null) {
-                project.log("Setting project property: " + name
-                            + " -> " + value, Project.MSG_DEBUG);
-            }
+        if (project == null) {
             if (name != null && value != null) {
                 properties.put(name, value);
             }
+            return;
         }
+        if (name != null && value != null
+            ? getLayeredProperty(name) != null || properties.putIfAbsent(name, value) != null
+            : getLayeredProperty(name) != null) {
+            project.log("Override ignored for property \"" + name
+                        + "\"", Project.MSG_VERBOSE);
+            return;
+        }
+        project.log("Setting project property: " + name
+                    + " -> " + value, Project.MSG_DEBUG);
     }
 
     /**
@@ -851,7 +1011,7 @@ public class PropertyHelper implements GetProperty {
             }
             return o instanceof NullReturn ? null : o;
         }
-        return properties.get(name);
+        return getLayeredProperty(name);
     }
 
     /**
@@ -860,7 +1020,8 @@ public class PropertyHelper implements GetProperty {
      * @return the names of all known properties.
      */
     public Set<String> getPropertyNames() {
-        final Set<String> names = new HashSet<>(getProperties().keySet());
+        final Set<String> names = new HashSet<>(parent == null
+            ? properties.keySet() : getProperties().keySet());
         getDelegates(PropertyEnumerator.class)
             .forEach(e -> names.addAll(e.getPropertyNames()));
         return Collections.unmodifiableSet(names);
@@ -899,7 +1060,51 @@ public class PropertyHelper implements GetProperty {
         if (name == null) {
             return null;
         }
-        return userProperties.get(name);
+        return getLayeredUserProperty(name);
+    }
+
+    /**
+     * Looks up a property in the own table, falling back to the
+     * parent's tables like they had been copied.
+     */
+    private Object getLayeredProperty(String name) {
+        Object value = properties.get(name);
+        PropertyHelper p = parent;
+        if (value != null || p == null) {
+            return value;
+        }
+        value = p.getLayeredUserProperty(name);
+        if (value == null && inheritAll && !MagicNames.PROJECT_BASEDIR.equals(name)
+            && !MagicNames.ANT_FILE.equals(name)) {
+            value = p.getLayeredProperty(name);
+        }
+        // copies have always been strings
+        return value == null ? null : value.toString();
+    }
+
+    private Object getLayeredUserProperty(String name) {
+        Object value = userProperties.get(name);
+        PropertyHelper p = parent;
+        if (value != null || p == null) {
+            return value;
+        }
+        value = p.getLayeredUserProperty(name);
+        if (value == null
+            || !inheritedVisible && p.getLayeredInheritedProperty(name) != null) {
+            return null;
+        }
+        return value.toString();
+    }
+
+    private Object getLayeredInheritedProperty(String name) {
+        Object value = inheritedProperties.get(name);
+        PropertyHelper p = parent;
+        if (value != null || p == null || !inheritedVisible
+            || userProperties.containsKey(name)) {
+            return value;
+        }
+        value = p.getLayeredInheritedProperty(name);
+        return value == null ? null : value.toString();
     }
 
     // -------------------- Access to property tables  --------------------
@@ -916,14 +1121,70 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing all properties (including user properties).
      */
     public Hashtable<String, Object> getProperties() {
-        //avoid concurrent modification:
-        synchronized (properties) {
+        PropertyHelper p = parent;
+        if (p == null) {
             return new Hashtable<>(properties);
         }
+        Hashtable<String, Object> result = new Hashtable<>();
+        if (inheritAll) {
+            p.getProperties().forEach((k, v) -> {
+                if (!MagicNames.PROJECT_BASEDIR.equals(k) && !MagicNames.ANT_FILE.equals(k)) {
+                    result.put(k, v.toString());
+                }
+            });
+        }
+        p.getUserProperties().forEach((k, v) -> result.put(k, v.toString()));
+        if (!inheritedVisible) {
+            p.getInheritedProperties().keySet().forEach(k -> {
+                if (!inheritAll || MagicNames.PROJECT_BASEDIR.equals(k)
+                    || MagicNames.ANT_FILE.equals(k)) {
+                    result.remove(k);
+                }
+            });
+        }
+        result.putAll(properties);
+        return result;
         // There is a better way to save the context. This shouldn't
         // delegate to next, it's for backward compatibility only.
     }
 
+    /**
+     * Returns a read-only view of the properties table that reflects
+     * later changes.
+     *
+     * <p>Unlike {@link #getProperties getProperties} this doesn't
+     * copy the table and is the preferred way to read all properties
+     * without modifying them.</p>
+     *
+     * <p>Does not contain properties held by implementations of
+     * delegates (like local properties).</p>
+     *
+     * @return an unmodifiable map containing all properties
+     * (including user properties).
+     * @since Ant 1.10.16
+     */
+    public Map<String, Object> getPropertiesView() {
+        if (parent == null) {
+            return properties.unmodifiableView();
+        }
+        return new AbstractMap<String, Object>() {
+            @Override
+            public Object get(Object key) {
+                return key instanceof String ? getLayeredProperty((String) key) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Set<Map.Entry<String, Object>> entrySet() {
+                return Collections.unmodifiableMap(getProperties()).entrySet();
+            }
+        };
+    }
+
     /**
      * Returns a copy of the user property hashtable
      *
@@ -933,10 +1194,17 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing just the user properties
      */
     public Hashtable<String, Object> getUserProperties() {
-        //avoid concurrent modification:
-        synchronized (userProperties) {
+        PropertyHelper p = parent;
+        if (p == null) {
             return new Hashtable<>(userProperties);
         }
+        Hashtable<String, Object> result = new Hashtable<>();
+        p.getUserProperties().forEach((k, v) -> result.put(k, v.toString()));
+        if (!inheritedVisible) {
+            result.keySet().removeAll(p.getInheritedProperties().keySet());
+        }
+        result.putAll(userProperties);
+        return result;
     }
 
     /**
@@ -948,10 +1216,19 @@ public class PropertyHelper implements GetProperty {
      * @return a hashtable containing just the inherited properties
      */
     public Hashtable<String, Object> getInheritedProperties() {
-        //avoid concurrent modification:
-        synchronized (inheritedProperties) {
+        PropertyHelper p = parent;
+        if (p == null || !inheritedVisible) {
             return new Hashtable<>(inheritedProperties);
         }
+        Hashtable<String, Object> result = new Hashtable<>();
+        p.getInheritedProperties().forEach((k, v) -> {
+            // user properties set here shadow inherited ones
+            if (!userProperties.containsKey(k)) {
+                result.put(k, v.toString());
+            }
+        });
+        result.putAll(inheritedProperties);
+        return result;
     }
 
     /**
@@ -996,13 +1273,12 @@ public class PropertyHelper implements GetProperty {
      * @since Ant 1.6
      */
     public void copyInheritedProperties(Project other) {
-        //avoid concurrent modification:
-        synchronized (inheritedProperties) {
-            for (Map.Entry<String, Object> entry : inheritedProperties.entrySet()) {
-                String arg = entry.getKey();
-                if (other.getUserProperty(arg) == null) {
-                    other.setInheritedProperty(arg, entry.getValue().toString());
-                }
+        Map<String, Object> inherited =
+            parent == null ? inheritedProperties : getInheritedProperties();
+        for (Map.Entry<String, Object> entry : inherited.entrySet()) {
+            String arg = entry.getKey();
+            if (other.getUserProperty(arg) == null) {
+                other.setInheritedProperty(arg, entry.getValue().toString());
             }
         }
     }
@@ -1023,13 +1299,13 @@ public class PropertyHelper implements GetProperty {
      * @since Ant 1.6
      */
     public void copyUserProperties(Project other) {
-        //avoid concurrent modification:
-        synchronized (userProperties) {
-            for (Map.Entry<String, Object> entry : userProperties.entrySet()) {
-                String arg = entry.getKey();
-                if (!inheritedProperties.containsKey(arg)) {
-                    other.setUserProperty(arg, entry.getValue().toString());
-                }
+        Map<String, Object> user = parent == null ? userProperties : getUserProperties();
+        Map<String, Object> inherited =
+            parent == null ? inheritedProperties : getInheritedProperties();
+        for (Map.Entry<String, Object> entry : user.entrySet()) {
+            String arg = entry.getKey();
+            if (!inherited.containsKey(arg)) {
+                other.setUserProperty(arg, entry.getValue().toString());
             }
         }
     }
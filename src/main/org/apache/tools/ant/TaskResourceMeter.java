@@ -0,0 +1,125 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Measures the CPU time and the heap allocations of the thread
+ * executing a task.
+ *
+ * <p>The values recorded for a task exclude the tasks it has
+ * executed itself on the same thread - like the nested tasks of
+ * <code>&lt;sequential&gt;</code> or the tasks of a project run by
+ * <code>&lt;antcall&gt;</code> - so summing up the values of all
+ * tasks doesn't count anything twice.  Work done by other threads -
+ * the nested tasks of <code>&lt;parallel&gt;</code> or forked
+ * processes - is not attributed to the task that has started them.</p>
+ *
+ * @since Ant 1.10.16
+ */
+final class TaskResourceMeter {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = isCpuTimeSupported();
+    private static final boolean ALLOCATIONS = isAllocationSupported();
+
+    /**
+     * Per thread stack of running tasks, each entry holds the CPU
+     * time and allocated bytes at the start of the task and the
+     * CPU time and allocated bytes of the nested tasks.
+     */
+    private static final ThreadLocal<Deque<long[]>> FRAMES =
+        ThreadLocal.withInitial(ArrayDeque::new);
+
+    private TaskResourceMeter() {
+    }
+
+    /**
+     * Starts measuring a task on the current thread.
+     */
+    static void start() {
+        FRAMES.get().push(new long[] {cpuTime(), allocatedBytes(), 0, 0});
+    }
+
+    /**
+     * Stops measuring the task most recently started on the current
+     * thread and records the result in the event.
+     *
+     * @param event the task finished event.
+     */
+    static void finish(BuildEvent event) {
+        Deque<long[]> frames = FRAMES.get();
+        long[] frame = frames.poll();
+        if (frame == null) {
+            return;
+        }
+        long cpu = CPU_TIME ? cpuTime() - frame[0] : -1;
+        long allocated = ALLOCATIONS ? allocatedBytes() - frame[1] : -1;
+        long[] parent = frames.peek();
+        if (parent != null) {
+            parent[2] += cpu;
+            parent[3] += allocated;
+        }
+        event.setResourceUsage(CPU_TIME ? cpu - frame[2] : -1,
+                               ALLOCATIONS ? allocated - frame[3] : -1);
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS ? ((com.sun.management.ThreadMXBean) THREADS)
+            .getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static boolean isCpuTimeSupported() {
+        try {
+            if (THREADS.isCurrentThreadCpuTimeSupported()) {
+                if (!THREADS.isThreadCpuTimeEnabled()) {
+                    THREADS.setThreadCpuTimeEnabled(true);
+                }
+                return true;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // fall through
+        }
+        return false;
+    }
+
+    private static boolean isAllocationSupported() {
+        try {
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) THREADS;
+                if (t.isThreadAllocatedMemorySupported()) {
+                    if (!t.isThreadAllocatedMemoryEnabled()) {
+                        t.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    return true;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // not a HotSpot based VM
+        }
+        return false;
+    }
+}
@@ -55,7 +55,7 @@ import org.w3c.dom.Text;
  *
  * @see Project#addBuildListener(BuildListener)
  */
-public class XmlLogger implements BuildLogger {
+public class XmlLogger implements BuildLogger, LevelAwareBuildListener {
 
     private int msgOutputLevel = Project.MSG_DEBUG;
     private PrintStream outStream;
@@ -152,7 +152,7 @@ public class XmlLogger implements BuildLogger {
     @Override
     public void buildStarted(BuildEvent event) {
         buildElement = new TimedElement();
-        buildElement.startTime = System.currentTimeMillis();
+        buildElement.startTime = event.getTimestamp();
         buildElement.element = doc.createElement(BUILD_TAG);
     }
 
@@ -165,7 +165,7 @@ public class XmlLogger implements BuildLogger {
      */
     @Override
     public void buildFinished(BuildEvent event) {
-        long totalTime = System.currentTimeMillis() - buildElement.startTime;
+        long totalTime = event.getTimestamp() - buildElement.startTime;
         buildElement.element.setAttribute(TIME_ATTR, DefaultLogger.formatTime(totalTime));
 
         if (event.getException() != null) {
@@ -206,23 +206,25 @@ public class XmlLogger implements BuildLogger {
     }
 
     /**
-     * Returns the stack of timed elements for the current thread.
-     * @return the stack of timed elements for the current thread
+     * Returns the stack of timed elements for the thread that has
+     * fired the event, which is not necessarily the current thread.
+     * @param event the event
+     * @return the stack of timed elements for the event's thread
      */
-    private Stack<TimedElement> getStack() {
+    private Stack<TimedElement> getStack(BuildEvent event) {
         /* For debugging purposes uncomment:
-        if (threadStacks.containsKey(Thread.currentThread())) {
-            org.w3c.dom.Comment s = doc.createComment("stack=" + threadStacks(Thread.currentThread()));
+        if (threadStacks.containsKey(event.getThread())) {
+            org.w3c.dom.Comment s = doc.createComment("stack=" + threadStacks(event.getThread()));
             buildElement.element.appendChild(s);
         }
         */
-        return threadStacks.computeIfAbsent(Thread.currentThread(), k -> new Stack<>());
+        return threadStacks.computeIfAbsent(event.getThread(), k -> new Stack<>());
     }
 
     /**
      * Fired when a target starts building, this pushes a timed element
-     * for the target onto the stack of elements for the current thread,
-     * remembering the current time and the name of the target.
+     * for the target onto the stack of elements for the event's thread,
+     * remembering the time of the event and the name of the target.
      *
      * @param event An event with any relevant extra information.
      *              Will not be <code>null</code>.
@@ -231,11 +233,11 @@ public class XmlLogger implements BuildLogger {
     public void targetStarted(BuildEvent event) {
         Target target = event.getTarget();
         TimedElement targetElement = new TimedElement();
-        targetElement.startTime = System.currentTimeMillis();
+        targetElement.startTime = event.getTimestamp();
         targetElement.element = doc.createElement(TARGET_TAG);
         targetElement.element.setAttribute(NAME_ATTR, target.getName());
         targets.put(target, targetElement);
-        getStack().push(targetElement);
+        getStack(event).push(targetElement);
     }
 
     /**
@@ -250,11 +252,11 @@ public class XmlLogger implements BuildLogger {
         Target target = event.getTarget();
         TimedElement targetElement = targets.get(target);
         if (targetElement != null) {
-            long totalTime = System.currentTimeMillis() - targetElement.startTime;
+            long totalTime = event.getTimestamp() - targetElement.startTime;
             targetElement.element.setAttribute(TIME_ATTR, DefaultLogger.formatTime(totalTime));
 
             TimedElement parentElement = null;
-            Stack<TimedElement> threadStack = getStack();
+            Stack<TimedElement> threadStack = getStack(event);
             if (!threadStack.empty()) {
                 TimedElement poppedStack = threadStack.pop();
                 if (poppedStack != targetElement) {
@@ -277,8 +279,8 @@ public class XmlLogger implements BuildLogger {
 
     /**
      * Fired when a task starts building, this pushes a timed element
-     * for the task onto the stack of elements for the current thread,
-     * remembering the current time and the name of the task.
+     * for the task onto the stack of elements for the event's thread,
+     * remembering the time of the event and the name of the task.
      *
      * @param event An event with any relevant extra information.
      *              Will not be <code>null</code>.
@@ -286,7 +288,7 @@ public class XmlLogger implements BuildLogger {
     @Override
     public void taskStarted(BuildEvent event) {
         TimedElement taskElement = new TimedElement();
-        taskElement.startTime = System.currentTimeMillis();
+        taskElement.startTime = event.getTimestamp();
         taskElement.element = doc.createElement(TASK_TAG);
 
         Task task = event.getTask();
@@ -297,7 +299,7 @@ public class XmlLogger implements BuildLogger {
         taskElement.element.setAttribute(NAME_ATTR, name);
         taskElement.element.setAttribute(LOCATION_ATTR, event.getTask().getLocation().toString());
         tasks.put(task, taskElement);
-        getStack().push(taskElement);
+        getStack(event).push(taskElement);
     }
 
     /**
@@ -314,7 +316,7 @@ public class XmlLogger implements BuildLogger {
         if (taskElement == null) {
             throw new RuntimeException("Unknown task " + task + " not in " + tasks); //NOSONAR
         }
-        long totalTime = System.currentTimeMillis() - taskElement.startTime;
+        long totalTime = event.getTimestamp() - taskElement.startTime;
         taskElement.element.setAttribute(TIME_ATTR, DefaultLogger.formatTime(totalTime));
         Target target = task.getOwningTarget();
         TimedElement targetElement = null;
@@ -326,7 +328,7 @@ public class XmlLogger implements BuildLogger {
         } else {
             synchronizedAppend(targetElement.element, taskElement.element);
         }
-        Stack<TimedElement> threadStack = getStack();
+        Stack<TimedElement> threadStack = getStack(event);
         if (!threadStack.empty()) {
             TimedElement poppedStack = threadStack.pop();
             if (poppedStack != taskElement) {
@@ -0,0 +1,255 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.UnknownElement;
+import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.JAXPUtils;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Parses build files that are about to be imported on a pool of
+ * threads.
+ *
+ * <p>Only the XML parsing happens in the background - the SAX events
+ * are recorded and replayed into {@link ProjectHelper2}'s handlers
+ * once the import actually gets executed, so imports are still
+ * processed one at a time and in declaration order. A prefetched
+ * result is only used if the file's content is unchanged by the time
+ * it gets imported, otherwise the file is parsed again.</p>
+ *
+ * <p>Prefetching is enabled by setting the magic property {@link
+ * MagicNames#IMPORT_PREFETCH_THREADS ant.import.prefetch.threads} to
+ * a positive number.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public final class ImportPrefetcher {
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Map<String, Future<Document>> documents = new ConcurrentHashMap<>();
+
+    private ImportPrefetcher() {
+    }
+
+    /**
+     * Starts parsing the given files in the background if
+     * prefetching has been enabled.
+     *
+     * <p>Files that don't exist or that have already been scheduled
+     * are ignored.</p>
+     *
+     * @param project the project the files are going to be imported into.
+     * @param files the files.
+     */
+    public static void prefetch(Project project, Collection<File> files) {
+        int threads = getThreads(project);
+        if (threads < 1 || files.isEmpty()) {
+            return;
+        }
+        ImportPrefetcher prefetcher = getPrefetcher(project);
+        ExecutorService pool = null;
+        try {
+            for (File f : files) {
+                File file = FILE_UTILS.normalize(f.getAbsolutePath());
+                String uri = FILE_UTILS.toURI(file.getAbsolutePath());
+                if (!file.isFile() || prefetcher.documents.containsKey(uri)) {
+                    continue;
+                }
+                if (pool == null) {
+                    pool = Executors.newFixedThreadPool(Math.min(threads, files.size()), r -> {
+                        Thread t = new Thread(r, "import-prefetch-" + THREAD_COUNT.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                // parser factories are not guaranteed to be thread safe
+                XMLReader parser = JAXPUtils.getNamespaceXMLReader();
+                project.log("prefetching " + file, Project.MSG_DEBUG);
+                prefetcher.documents.put(uri, pool.submit(() -> parse(parser, file, uri)));
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Starts parsing the files imported by top-level
+     * <code>&lt;import&gt;</code> or <code>&lt;include&gt;</code>
+     * tasks with a literal file attribute.
+     *
+     * @param project the project.
+     * @param implicitTarget the target holding the top-level tasks
+     * of the file that has just been parsed.
+     */
+    static void prefetchImports(Project project, Target implicitTarget) {
+        if (getThreads(project) < 1) {
+            return;
+        }
+        List<File> files = new ArrayList<>();
+        for (Task t : implicitTarget.getTasks()) {
+            if (!(t instanceof UnknownElement)) {
+                continue;
+            }
+            UnknownElement ue = (UnknownElement) t;
+            String name = ProjectHelper.genComponentName(ue.getNamespace(), ue.getTag());
+            if (!"import".equals(name) && !"include".equals(name)) {
+                continue;
+            }
+            Object file = ue.getWrapper().getAttributeMap().get("file");
+            if (file == null || file.toString().contains("$")
+                || ue.getLocation().getFileName() == null) {
+                continue;
+            }
+            File f = new File(file.toString());
+            if (!f.isAbsolute()) {
+                File importing = new File(ue.getLocation().getFileName()).getAbsoluteFile();
+                f = FILE_UTILS.resolveFile(importing.getParentFile(), file.toString());
+            }
+            files.add(f);
+        }
+        prefetch(project, files);
+    }
+
+    /**
+     * Returns and forgets the prefetched document for the given
+     * system id, waiting for its parser to finish if necessary.
+     *
+     * @param project the project.
+     * @param uri the system id of the file.
+     * @return null if the document hasn't been prefetched or could
+     * not be parsed.
+     */
+    static Document take(Project project, String uri) {
+        ImportPrefetcher prefetcher = project.getReference(MagicNames.REFID_IMPORT_PREFETCHER);
+        if (prefetcher == null) {
+            return null;
+        }
+        Future<Document> f = prefetcher.documents.remove(uri);
+        if (f == null) {
+            return null;
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static synchronized ImportPrefetcher getPrefetcher(Project project) {
+        ImportPrefetcher prefetcher = project.getReference(MagicNames.REFID_IMPORT_PREFETCHER);
+        if (prefetcher == null) {
+            prefetcher = new ImportPrefetcher();
+            project.addReference(MagicNames.REFID_IMPORT_PREFETCHER, prefetcher);
+        }
+        return prefetcher;
+    }
+
+    private static int getThreads(Project project) {
+        String threads = project.getProperty(MagicNames.IMPORT_PREFETCH_THREADS);
+        if (threads == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            project.log("ignoring invalid value " + threads + " for "
+                        + MagicNames.IMPORT_PREFETCH_THREADS, Project.MSG_WARN);
+            return 0;
+        }
+    }
+
+    private static Document parse(XMLReader parser, File file, String uri) {
+        try {
+            byte[] content = Files.readAllBytes(file.toPath());
+            ParseCache.Recorder recorder = new ParseCache.Recorder(new DefaultHandler() {
+                @Override
+                public InputSource resolveEntity(String publicId, String systemId)
+                    throws SAXException {
+                    // entities are resolved relative to the importing
+                    // context, leave it to the real parse
+                    throw new SAXException("external entity");
+                }
+            });
+            parser.setContentHandler(recorder);
+            parser.setEntityResolver(recorder);
+            parser.setErrorHandler(recorder);
+            parser.setDTDHandler(recorder);
+            InputSource source = new InputSource(new ByteArrayInputStream(content));
+            source.setSystemId(uri);
+            parser.parse(source);
+            return recorder.isCacheable() ? new Document(content, recorder.getEvents()) : null;
+        } catch (IOException | SAXException | RuntimeException e) {
+            // errors are reported by the real parse
+            return null;
+        }
+    }
+
+    /**
+     * The recorded SAX events of a build file together with the
+     * content they have been created from.
+     */
+    static final class Document {
+        private final byte[] content;
+        private final List<ParseCache.Event> events;
+
+        Document(byte[] content, List<ParseCache.Event> events) {
+            this.content = content;
+            this.events = events;
+        }
+
+        boolean hasContent(byte[] c) {
+            return Arrays.equals(content, c);
+        }
+
+        List<ParseCache.Event> getEvents() {
+            return events;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+
+/**
+ * Keeps the recorded SAX events of build files that have been parsed
+ * during the current build in memory.
+ *
+ * <p>When a project holds an instance of this class as reference,
+ * {@link ProjectHelper2} replays the events of a build file it has
+ * seen before instead of running the XML parser again - as long as
+ * the file's content is unchanged.  The replay still goes through
+ * the normal handlers, so the targets and tasks created are the same
+ * as if the file had been parsed.</p>
+ *
+ * <p>The cache is handed down to subprojects by {@link
+ * Project#initSubProject Project#initSubProject}.  It is enabled for
+ * the projects created by <code>&lt;antcall&gt;</code> with the
+ * <code>reuseparse</code> attribute, see {@link #enableForCall
+ * enableForCall}.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public final class InMemoryParseCache {
+
+    private final Map<String, ImportPrefetcher.Document> documents = new ConcurrentHashMap<>();
+
+    private InMemoryParseCache() {
+    }
+
+    /**
+     * Finds the cache used by the given project.
+     *
+     * @param project the project.
+     * @return null if the project doesn't use an in-memory cache.
+     */
+    public static InMemoryParseCache getCache(Project project) {
+        return project.getReference(MagicNames.REFID_IN_MEMORY_PARSE_CACHE);
+    }
+
+    /**
+     * Finds the cache used by the given project, creating one if
+     * there is none yet.
+     *
+     * @param project the project.
+     * @return the cache, never null.
+     */
+    public static synchronized InMemoryParseCache enable(Project project) {
+        InMemoryParseCache cache = getCache(project);
+        if (cache == null) {
+            cache = new InMemoryParseCache();
+            project.addReference(MagicNames.REFID_IN_MEMORY_PARSE_CACHE, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Makes the project of an <code>&lt;antcall&gt;</code> use the
+     * cache shared by all calls of the calling project that reuse
+     * parsed build files.
+     *
+     * <p>If the calling project uses a cache itself, that one is
+     * shared. Otherwise the cache is only stored for later calls and
+     * the calling project - as well as other builds it starts - keeps
+     * on parsing build files.</p>
+     *
+     * @param caller the project executing the call.
+     * @param callee the project created for the call.
+     */
+    public static synchronized void enableForCall(Project caller, Project callee) {
+        InMemoryParseCache cache = getCache(caller);
+        if (cache == null) {
+            cache = caller.getReference(MagicNames.REFID_ANTCALL_PARSE_CACHE);
+            if (cache == null) {
+                cache = new InMemoryParseCache();
+                caller.addReference(MagicNames.REFID_ANTCALL_PARSE_CACHE, cache);
+            }
+        }
+        callee.addReference(MagicNames.REFID_IN_MEMORY_PARSE_CACHE, cache);
+    }
+
+    /**
+     * Returns the recorded events for the build file if it has been
+     * parsed before with exactly the given content.
+     *
+     * @param uri the system id of the build file.
+     * @param content the current content of the file.
+     * @return null if the file hasn't been seen or has changed.
+     */
+    List<ParseCache.Event> get(String uri, byte[] content) {
+        ImportPrefetcher.Document document = documents.get(uri);
+        return document != null && document.hasContent(content) ? document.getEvents() : null;
+    }
+
+    /**
+     * Remembers the events of a build file.
+     *
+     * @param uri the system id of the build file.
+     * @param content the content the events have been created from.
+     * @param events the events.
+     */
+    void put(String uri, byte[] content, List<ParseCache.Event> events) {
+        documents.put(uri, new ImportPrefetcher.Document(content, events));
+    }
+}
@@ -0,0 +1,558 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * On-disk cache of the SAX events produced when parsing a build file.
+ *
+ * <p>Entries are keyed by a hash of the raw bytes of the build file.
+ * When a file with known content gets parsed again the recorded
+ * events are replayed to the handlers of {@link ProjectHelper2}
+ * instead of running the XML parser, so targets, tasks and
+ * RuntimeConfigurables are built exactly as if the file had been
+ * parsed.</p>
+ *
+ * <p>Files that cause the parser to resolve any external entity -
+ * including a DTD - are never cached as their meaning depends on
+ * more than their own content.</p>
+ *
+ * <p>The cache is enabled by setting the magic property {@link
+ * MagicNames#PARSE_CACHE_DIR ant.parse.cache.dir} to a
+ * directory.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class ParseCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".saxev";
+
+    private static final byte START_ELEMENT = 1;
+    private static final byte END_ELEMENT = 2;
+    private static final byte CHARACTERS = 3;
+    private static final byte START_PREFIX = 4;
+    private static final byte END_PREFIX = 5;
+    private static final byte END = 0;
+
+    private final File dir;
+
+    /**
+     * Creates a cache storing its entries in the given directory.
+     * @param dir the cache directory, will be created on demand.
+     */
+    public ParseCache(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Returns the cache configured for the project.
+     *
+     * @param project the project.
+     * @return the cache or null if caching has not been enabled.
+     */
+    public static ParseCache getCache(Project project) {
+        String dir = project.getProperty(MagicNames.PARSE_CACHE_DIR);
+        return dir == null ? null : new ParseCache(project.resolveFile(dir));
+    }
+
+    /**
+     * Reads all bytes from the stream.
+     *
+     * @param in the stream, will not be closed.
+     * @return the content.
+     * @throws IOException on error.
+     */
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Computes the cache key for a build file's content.
+     *
+     * @param content the raw bytes of the build file.
+     * @return the key
+     */
+    public String getKey(byte[] content) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(content);
+            StringBuilder sb = new StringBuilder("v" + FORMAT_VERSION + "-");
+            for (byte b : md.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replays the events stored for the given key.
+     *
+     * @param key the cache key.
+     * @param systemId the system id to report for all events.
+     * @param handler the handler to send events to.
+     * @return false if there is no usable entry for the key, in
+     * which case no events have been sent.
+     * @throws SAXException if the handler throws it.
+     */
+    public boolean replay(String key, String systemId, DefaultHandler handler)
+        throws SAXException {
+        File f = new File(dir, key + SUFFIX);
+        if (!f.isFile()) {
+            return false;
+        }
+        List<Event> events;
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(Files.newInputStream(f.toPath())))) {
+            events = read(in);
+        } catch (IOException | RuntimeException e) {
+            // corrupt or truncated entry - parse the file instead
+            return false;
+        }
+        replay(events, systemId, handler);
+        return true;
+    }
+
+    /**
+     * Sends recorded events to a handler.
+     *
+     * @param events the events.
+     * @param systemId the system id to report for all events.
+     * @param handler the handler to send events to.
+     * @throws SAXException if the handler throws it.
+     */
+    static void replay(List<Event> events, String systemId, DefaultHandler handler)
+        throws SAXException {
+        ReplayLocator locator = new ReplayLocator(systemId);
+        handler.setDocumentLocator(locator);
+        handler.startDocument();
+        for (Event e : events) {
+            locator.line = e.line;
+            locator.column = e.column;
+            e.sendTo(handler);
+        }
+        handler.endDocument();
+    }
+
+    /**
+     * Writes the recorded events to the cache unless the parsed
+     * document has used external entities.
+     *
+     * <p>Failures to write the cache are logged and otherwise
+     * ignored.</p>
+     *
+     * @param key the cache key.
+     * @param recorder the recorder that has seen the parser's events.
+     * @param project the project used for logging.
+     */
+    public void store(String key, Recorder recorder, Project project) {
+        if (!recorder.isCacheable()) {
+            project.log("not caching parser events as external entities have been used",
+                        Project.MSG_VERBOSE);
+            return;
+        }
+        store(key, recorder.getEvents(), project);
+    }
+
+    /**
+     * Writes events to the cache.
+     *
+     * @param key the cache key.
+     * @param events the events.
+     * @param project the project used for logging.
+     */
+    void store(String key, List<Event> events, Project project) {
+        File tmp = null;
+        try {
+            Files.createDirectories(dir.toPath());
+            tmp = File.createTempFile(key, ".tmp", dir);
+            try (OutputStream os = Files.newOutputStream(tmp.toPath());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                write(out, events);
+            }
+            File target = new File(dir, key + SUFFIX);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+        } catch (IOException e) {
+            project.log("failed to write parse cache entry: " + e.getMessage(),
+                        Project.MSG_VERBOSE);
+        } finally {
+            if (tmp != null && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    private static void write(DataOutputStream out, List<Event> events) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        out.writeInt(FORMAT_VERSION);
+        for (Event e : events) {
+            out.writeByte(e.type);
+            writeInt(out, e.line);
+            writeInt(out, e.column);
+            writeInt(out, e.strings.length);
+            for (String s : e.strings) {
+                writeString(out, s, strings);
+            }
+        }
+        out.writeByte(END);
+    }
+
+    private static void writeString(DataOutputStream out, String s,
+                                    Map<String, Integer> strings)
+        throws IOException {
+        if (s == null) {
+            writeInt(out, -2);
+            return;
+        }
+        Integer idx = strings.get(s);
+        if (idx != null) {
+            writeInt(out, idx);
+            return;
+        }
+        strings.put(s, strings.size());
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, -1);
+        writeInt(out, b.length);
+        out.write(b);
+    }
+
+    private static List<Event> read(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("unknown format");
+        }
+        List<String> strings = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        byte type;
+        while ((type = in.readByte()) != END) {
+            Event e = new Event(type, readInt(in), readInt(in));
+            int count = readInt(in);
+            e.strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                e.strings[i] = readString(in, strings);
+            }
+            events.add(e);
+        }
+        return events;
+    }
+
+    private static String readString(DataInputStream in, List<String> strings)
+        throws IOException {
+        int idx = readInt(in);
+        if (idx == -2) {
+            return null;
+        }
+        if (idx >= 0) {
+            return strings.get(idx);
+        }
+        byte[] b = new byte[readInt(in)];
+        in.readFully(b);
+        String s = new String(b, StandardCharsets.UTF_8);
+        strings.add(s);
+        return s;
+    }
+
+    /**
+     * Writes a number not smaller than -2 using as few bytes as
+     * possible, seven bits per byte.
+     */
+    private static void writeInt(DataOutputStream out, int value) throws IOException {
+        int v = value + 2;
+        while ((v & ~0x7f) != 0) {
+            out.writeByte((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readInt(DataInputStream in) throws IOException {
+        int v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            v |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return v - 2;
+    }
+
+    /**
+     * A single recorded SAX event.
+     *
+     * <p>Element events hold namespace URI, local name and qualified
+     * name followed by five strings per attribute (URI, local name,
+     * qualified name, type and value).</p>
+     */
+    static final class Event {
+        private final byte type;
+        private final int line;
+        private final int column;
+        private String[] strings;
+
+        private Event(byte type, int line, int column) {
+            this.type = type;
+            this.line = line;
+            this.column = column;
+        }
+
+        private void sendTo(ContentHandler handler) throws SAXException {
+            switch (type) {
+            case START_ELEMENT:
+                AttributesImpl attrs = new AttributesImpl();
+                for (int i = 3; i < strings.length; i += 5) {
+                    attrs.addAttribute(strings[i], strings[i + 1], strings[i + 2],
+                                       strings[i + 3], strings[i + 4]);
+                }
+                handler.startElement(strings[0], strings[1], strings[2], attrs);
+                break;
+            case END_ELEMENT:
+                handler.endElement(strings[0], strings[1], strings[2]);
+                break;
+            case CHARACTERS:
+                char[] c = strings[0].toCharArray();
+                handler.characters(c, 0, c.length);
+                break;
+            case START_PREFIX:
+                handler.startPrefixMapping(strings[0], strings[1]);
+                break;
+            case END_PREFIX:
+                handler.endPrefixMapping(strings[0]);
+                break;
+            default:
+                throw new SAXException("unknown event type " + type);
+            }
+        }
+    }
+
+    /**
+     * Locator reporting the positions recorded with the events.
+     */
+    private static final class ReplayLocator implements Locator {
+        private final String systemId;
+        private int line;
+        private int column;
+
+        private ReplayLocator(String systemId) {
+            this.systemId = systemId;
+        }
+
+        @Override
+        public String getPublicId() {
+            return null;
+        }
+
+        @Override
+        public String getSystemId() {
+            return systemId;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return line;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return column;
+        }
+    }
+
+    /**
+     * Forwards SAX events to a handler and records them.
+     */
+    public static final class Recorder extends DefaultHandler {
+        private final DefaultHandler handler;
+        private final List<Event> events = new ArrayList<>();
+        private Locator locator;
+        private boolean cacheable = true;
+
+        Recorder(DefaultHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Whether the recorded document only depends on its own
+         * content.
+         */
+        boolean isCacheable() {
+            return cacheable;
+        }
+
+        List<Event> getEvents() {
+            return events;
+        }
+
+        private void record(byte type, String... strings) {
+            Event e = locator == null ? new Event(type, -1, -1)
+                : new Event(type, locator.getLineNumber(), locator.getColumnNumber());
+            e.strings = strings;
+            events.add(e);
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId)
+            throws IOException, SAXException {
+            cacheable = false;
+            return handler.resolveEntity(publicId, systemId);
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+            handler.setDocumentLocator(locator);
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            handler.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            handler.endDocument();
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs)
+            throws SAXException {
+            String[] s = new String[3 + 5 * attrs.getLength()];
+            s[0] = uri;
+            s[1] = localName;
+            s[2] = qName;
+            for (int i = 0; i < attrs.getLength(); i++) {
+                s[3 + 5 * i] = attrs.getURI(i);
+                s[4 + 5 * i] = attrs.getLocalName(i);
+                s[5 + 5 * i] = attrs.getQName(i);
+                s[6 + 5 * i] = attrs.getType(i);
+                s[7 + 5 * i] = attrs.getValue(i);
+            }
+            record(START_ELEMENT, s);
+            handler.startElement(uri, localName, qName, attrs);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName)
+            throws SAXException {
+            record(END_ELEMENT, uri, localName, qName);
+            handler.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            record(CHARACTERS, new String(ch, start, length));
+            handler.characters(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length)
+            throws SAXException {
+            handler.ignorableWhitespace(ch, start, length);
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            record(START_PREFIX, prefix, uri);
+            handler.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            record(END_PREFIX, prefix);
+            handler.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            handler.processingInstruction(target, data);
+        }
+
+        @Override
+        public void skippedEntity(String name) throws SAXException {
+            cacheable = false;
+            handler.skippedEntity(name);
+        }
+
+        @Override
+        public void notationDecl(String name, String publicId, String systemId)
+            throws SAXException {
+            cacheable = false;
+            handler.notationDecl(name, publicId, systemId);
+        }
+
+        @Override
+        public void unparsedEntityDecl(String name, String publicId, String systemId,
+                                       String notationName) throws SAXException {
+            cacheable = false;
+            handler.unparsedEntityDecl(name, publicId, systemId, notationName);
+        }
+
+        @Override
+        public void warning(SAXParseException e) throws SAXException {
+            handler.warning(e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            handler.error(e);
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            handler.fatalError(e);
+        }
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.apache.tools.ant.helper;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -28,6 +29,7 @@ import java.net.URLConnection;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
@@ -45,6 +47,7 @@ import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.URLProvider;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.Instrumentation;
 import org.apache.tools.ant.util.JAXPUtils;
 import org.apache.tools.zip.ZipFile;
 import org.xml.sax.Attributes;
@@ -170,6 +173,7 @@ public class ProjectHelper2 extends ProjectHelper {
                 context.setCurrentTargets(new HashMap<>());
                 context.setImplicitTarget(newCurrent);
                 parse(project, source, new RootHandler(context, mainHandler));
+                ImportPrefetcher.prefetchImports(project, newCurrent);
                 newCurrent.execute();
             } finally {
                 context.setCurrentTarget(currentTarget);
@@ -180,6 +184,7 @@ public class ProjectHelper2 extends ProjectHelper {
             // top level file
             context.setCurrentTargets(new HashMap<>());
             parse(project, source, new RootHandler(context, mainHandler));
+            ImportPrefetcher.prefetchImports(project, context.getImplicitTarget());
             // Execute the top-level target
             context.getImplicitTarget().execute();
 
@@ -241,11 +246,6 @@ public class ProjectHelper2 extends ProjectHelper {
         ZipFile zf = null;
 
         try {
-            /**
-             * SAX 2 style parser used to parse the given file.
-             */
-            XMLReader parser = JAXPUtils.getNamespaceXMLReader();
-
             String uri = null;
             if (buildFile != null) {
                 uri = FILE_UTILS.toURI(buildFile.getAbsolutePath());
@@ -269,15 +269,75 @@ public class ProjectHelper2 extends ProjectHelper {
             if (uri != null) {
                 inputSource.setSystemId(uri);
             }
+            ParseCache cache = ParseCache.getCache(project);
+            InMemoryParseCache memory = InMemoryParseCache.getCache(project);
+            ImportPrefetcher.Document prefetched = ImportPrefetcher.take(project, uri);
+            String cacheKey = null;
+            byte[] content = null;
+            if (cache != null || memory != null || prefetched != null) {
+                content = ParseCache.readFully(inputStream);
+                List<ParseCache.Event> remembered = memory == null ? null
+                    : memory.get(uri, content);
+                if (memory != null) {
+                    Instrumentation.cacheLookup("parse.memory", remembered != null);
+                }
+                if (remembered != null) {
+                    project.log("reusing parsed buildfile " + buildFileName,
+                                Project.MSG_VERBOSE);
+                    ParseCache.replay(remembered, uri, handler);
+                    return;
+                }
+                if (cache != null) {
+                    cacheKey = cache.getKey(content);
+                    boolean replayed = cache.replay(cacheKey, uri, handler);
+                    Instrumentation.cacheLookup("parse.disk", replayed);
+                    if (replayed) {
+                        project.log("replayed cached parse of buildfile " + buildFileName,
+                                    Project.MSG_VERBOSE);
+                        return;
+                    }
+                }
+                if (prefetched != null && prefetched.hasContent(content)) {
+                    project.log("using prefetched parse of buildfile " + buildFileName,
+                                Project.MSG_VERBOSE);
+                    ParseCache.replay(prefetched.getEvents(), uri, handler);
+                    if (cache != null) {
+                        cache.store(cacheKey, prefetched.getEvents(), project);
+                    }
+                    if (memory != null) {
+                        memory.put(uri, content, prefetched.getEvents());
+                    }
+                    return;
+                }
+                inputSource = new InputSource(new ByteArrayInputStream(content));
+                inputSource.setSystemId(uri);
+            }
             project.log("parsing buildfile " + buildFileName + " with URI = "
                         + uri + (zf != null ? " from a zip file" : ""),
                         Project.MSG_VERBOSE);
 
-            parser.setContentHandler(handler);
-            parser.setEntityResolver(handler);
-            parser.setErrorHandler(handler);
-            parser.setDTDHandler(handler);
+            /**
+             * SAX 2 style parser used to parse the given file.
+             */
+            XMLReader parser = JAXPUtils.getNamespaceXMLReader();
+
+            DefaultHandler saxHandler = handler;
+            ParseCache.Recorder recorder = null;
+            if (cache != null || memory != null) {
+                recorder = new ParseCache.Recorder(handler);
+                saxHandler = recorder;
+            }
+            parser.setContentHandler(saxHandler);
+            parser.setEntityResolver(saxHandler);
+            parser.setErrorHandler(saxHandler);
+            parser.setDTDHandler(saxHandler);
             parser.parse(inputSource);
+            if (cache != null) {
+                cache.store(cacheKey, recorder, project);
+            }
+            if (memory != null && recorder.isCacheable()) {
+                memory.put(uri, content, recorder.getEvents());
+            }
         } catch (SAXParseException exc) {
             Location location = new Location(exc.getSystemId(), exc.getLineNumber(), exc
                                              .getColumnNumber());
@@ -0,0 +1,224 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.jfr;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.util.Instrumentation;
+
+/**
+ * Emits Java Flight Recorder events for targets, tasks, directory
+ * scans, archive entries and process launches.
+ *
+ * <p>Events are only created while a recording that has enabled them
+ * is running, so the listener may stay registered all the time.</p>
+ *
+ * <p>JFR measures the duration of an event on the thread that
+ * creates it, so target and task events are only created for build
+ * events that are delivered on the thread that has fired them.
+ * Build events passed on by a dispatcher thread or replayed after the
+ * fact - as <code>&lt;subant&gt;</code> does for parallel builds -
+ * are skipped.</p>
+ *
+ * <p>The listener is added automatically if the Java system property
+ * {@link org.apache.tools.ant.MagicNames#FLIGHT_RECORDER_EVENTS
+ * ant.jfr.events} is true.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class FlightRecorderListener implements BuildListener, Instrumentation.Recorder {
+
+    private final Map<Target, TargetEvent> targets = new ConcurrentHashMap<>();
+    private final Map<Task, TaskEvent> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Installs the listener as recorder for {@link Instrumentation}.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void buildStarted(BuildEvent event) {
+        Instrumentation.addRecorder(this);
+    }
+
+    /**
+     * Uninstalls the listener as recorder for {@link Instrumentation}.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void buildFinished(BuildEvent event) {
+        Instrumentation.removeRecorder(this);
+        targets.clear();
+        tasks.clear();
+    }
+
+    /**
+     * Starts a target event.
+     *
+     * @param event the target started event.
+     */
+    @Override
+    public void targetStarted(BuildEvent event) {
+        if (!isDeliveredByFiringThread(event)) {
+            return;
+        }
+        TargetEvent e = new TargetEvent();
+        if (e.isEnabled()) {
+            e.begin();
+            targets.put(event.getTarget(), e);
+        }
+    }
+
+    /**
+     * Commits the target event.
+     *
+     * @param event the target finished event.
+     */
+    @Override
+    public void targetFinished(BuildEvent event) {
+        TargetEvent e = targets.remove(event.getTarget());
+        if (e != null && isDeliveredByFiringThread(event)) {
+            e.end();
+            if (e.shouldCommit()) {
+                Target target = event.getTarget();
+                e.project = target.getProject() == null ? null
+                    : target.getProject().getName();
+                e.target = target.getName();
+                e.commit();
+            }
+        }
+    }
+
+    /**
+     * Starts a task event.
+     *
+     * @param event the task started event.
+     */
+    @Override
+    public void taskStarted(BuildEvent event) {
+        if (!isDeliveredByFiringThread(event)) {
+            return;
+        }
+        TaskEvent e = new TaskEvent();
+        if (e.isEnabled()) {
+            e.begin();
+            tasks.put(event.getTask(), e);
+        }
+    }
+
+    /**
+     * Commits the task event.
+     *
+     * @param event the task finished event.
+     */
+    @Override
+    public void taskFinished(BuildEvent event) {
+        TaskEvent e = tasks.remove(event.getTask());
+        if (e != null && isDeliveredByFiringThread(event)) {
+            e.end();
+            if (e.shouldCommit()) {
+                Task task = event.getTask();
+                e.project = task.getProject() == null ? null
+                    : task.getProject().getName();
+                e.target = task.getOwningTarget() == null ? null
+                    : task.getOwningTarget().getName();
+                e.task = task.getTaskName();
+                if (task.getLocation().getFileName() != null) {
+                    e.location = task.getLocation().getFileName() + ":"
+                        + task.getLocation().getLineNumber();
+                }
+                e.commit();
+            }
+        }
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void messageLogged(BuildEvent event) {
+    }
+
+    /**
+     * Whether the event is delivered on the thread that has fired
+     * it, only then does the time JFR measures match the time of the
+     * build event.
+     */
+    private static boolean isDeliveredByFiringThread(BuildEvent event) {
+        return event.getThread() == Thread.currentThread();
+    }
+
+    @Override
+    public Instrumentation.Span directoryScan(File basedir) {
+        DirectoryScanEvent e = new DirectoryScanEvent();
+        if (!e.isEnabled()) {
+            return Instrumentation.Span.NONE;
+        }
+        e.begin();
+        return () -> {
+            e.end();
+            if (e.shouldCommit()) {
+                e.basedir = basedir == null ? null : basedir.getPath();
+                e.commit();
+            }
+        };
+    }
+
+    @Override
+    public Instrumentation.Span archiveEntry(File archive, String entry) {
+        ArchiveEntryEvent e = new ArchiveEntryEvent();
+        if (!e.isEnabled()) {
+            return Instrumentation.Span.NONE;
+        }
+        e.begin();
+        return () -> {
+            e.end();
+            if (e.shouldCommit()) {
+                e.archive = archive == null ? null : archive.getPath();
+                e.entry = entry;
+                e.commit();
+            }
+        };
+    }
+
+    @Override
+    public Instrumentation.Span processLaunch(String[] command, File dir) {
+        ProcessLaunchEvent e = new ProcessLaunchEvent();
+        if (!e.isEnabled()) {
+            return Instrumentation.Span.NONE;
+        }
+        e.begin();
+        return () -> {
+            e.end();
+            if (e.shouldCommit()) {
+                e.command = String.join(" ", command);
+                e.directory = dir == null ? null : dir.getPath();
+                e.commit();
+            }
+        };
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.launch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Client side of Ant's daemon mode.
+ *
+ * <p>Sends the command line arguments and working directory of a
+ * build to an Ant daemon started via <code>ant -daemon</code> and
+ * copies the log output the daemon sends back to the given streams.
+ * This class is used by the {@link Launcher} before the classpath of
+ * Ant is assembled and must not use any class outside of this
+ * package.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public final class DaemonClient {
+
+    /** Frame holding output written to System.out. */
+    public static final int OUTPUT = 1;
+    /** Frame holding output written to System.err. */
+    public static final int ERROR = 2;
+    /** Frame holding the exit code of the build. */
+    public static final int EXIT = 3;
+
+    /** Argument asking the daemon to terminate. {@value} */
+    public static final String STOP = "-stopdaemon";
+
+    /** Key of the port in the daemon's connection file. {@value} */
+    public static final String PORT_KEY = "port";
+    /** Key of the secret in the daemon's connection file. {@value} */
+    public static final String TOKEN_KEY = "token";
+
+    /** Upper bound for the length of strings sent over the connection. */
+    private static final int MAX_STRING_LENGTH = 1024 * 1024;
+
+    private DaemonClient() {
+    }
+
+    /**
+     * The file a daemon using the given Ant installation writes its
+     * port and secret to.
+     *
+     * @param antHome the Ant installation.
+     * @return a file inside the per-user Ant directory.
+     */
+    public static File getConnectionFile(File antHome) {
+        String name = "daemon-"
+            + Integer.toHexString(antHome.getAbsolutePath().hashCode()) + ".properties";
+        return new File(new File(System.getProperty(Launcher.USER_HOMEDIR),
+                                 Launcher.ANT_PRIVATEDIR), name);
+    }
+
+    /**
+     * Runs a build inside the daemon described by the given file.
+     *
+     * @param connectionFile the file the daemon has written.
+     * @param dir the working directory of the build.
+     * @param args the command line arguments.
+     * @param out receives the standard output of the build.
+     * @param err receives the standard error output of the build.
+     * @return the exit code of the build or null if no daemon is
+     * listening.
+     * @throws IOException if the connection to the daemon fails
+     * after the build has been handed over.
+     */
+    public static Integer run(File connectionFile, File dir, List<String> args,
+                              OutputStream out, OutputStream err) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(connectionFile.toPath())) {
+            p.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(),
+                                Integer.parseInt(p.getProperty(PORT_KEY, "")));
+        } catch (IOException | NumberFormatException e) {
+            // a daemon that has been killed leaves its file behind
+            return null;
+        }
+        try (Socket s = socket) {
+            DataOutputStream requests =
+                new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            writeString(requests, p.getProperty(TOKEN_KEY, ""));
+            writeString(requests, dir.getAbsolutePath());
+            requests.writeInt(args.size());
+            for (String arg : args) {
+                writeString(requests, arg);
+            }
+            requests.flush();
+
+            DataInputStream replies =
+                new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            byte[] buffer = new byte[0];
+            try {
+                while (true) {
+                    int type = replies.readByte();
+                    if (type == EXIT) {
+                        return replies.readInt();
+                    }
+                    int length = replies.readInt();
+                    if (buffer.length < length) {
+                        buffer = new byte[length];
+                    }
+                    replies.readFully(buffer, 0, length);
+                    OutputStream target = type == ERROR ? err : out;
+                    target.write(buffer, 0, length);
+                    target.flush();
+                }
+            } catch (EOFException e) {
+                throw new IOException("Lost the connection to the Ant daemon", e);
+            }
+        }
+    }
+
+    /**
+     * Writes a string of arbitrary length, unlike writeUTF.
+     *
+     * @param out the stream to write to.
+     * @param s the string.
+     * @throws IOException if writing fails.
+     */
+    public static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param in the stream to read from.
+     * @return the string.
+     * @throws IOException if reading fails or the string is
+     * unreasonably long.
+     */
+    public static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -18,10 +18,14 @@
 package org.apache.tools.ant.launch;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -44,6 +48,13 @@ public class Launcher {
      */
     public static final String ANTLIBDIR_PROPERTY = "ant.library.dir";
 
+    /**
+     * The class data sharing archive property.
+     * {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String CDS_ARCHIVE_PROPERTY = "ant.cds.archive";
+
     /**
      * The directory name of the per-user ant directory.
      * {@value}
@@ -71,6 +82,13 @@ public class Launcher {
      */
     public static final String MAIN_CLASS = "org.apache.tools.ant.Main";
 
+    /**
+     * The startup class that is run by the -daemon option.
+     * {@value}
+     * @since Ant 1.10.16
+     */
+    public static final String DAEMON_CLASS = "org.apache.tools.ant.Daemon";
+
     /**
      * System property with user home directory.
      * {@value}
@@ -200,6 +218,8 @@ public class Launcher {
         String[] newArgs;
         boolean  noUserLib = false;
         boolean  noClassPath = false;
+        boolean  client = false;
+        boolean  stopDaemon = false;
 
         for (int i = 0; i < args.length; ++i) {
             if ("-lib".equals(args[i])) {
@@ -230,11 +250,39 @@ public class Launcher {
                         "The -main argument must be followed by a library location");
                 }
                 mainClassname = args[++i];
+            } else if ("-daemon".equals(args[i])) {
+                mainClassname = DAEMON_CLASS;
+            } else if ("-client".equals(args[i])) {
+                client = true;
+            } else if (DaemonClient.STOP.equals(args[i])) {
+                stopDaemon = true;
             } else {
                 argList.add(args[i]);
             }
         }
 
+        if (stopDaemon) {
+            if (runInDaemon(antHome, Collections.singletonList(DaemonClient.STOP)) == null) {
+                System.out.println("No Ant daemon is running.");
+            }
+            return 0;
+        }
+        if (client) {
+            if (!libPaths.isEmpty() || cpString != null || noUserLib || noClassPath
+                || !MAIN_CLASS.equals(mainClassname)) {
+                throw new LaunchException(
+                    "The -client argument cannot be combined with arguments that change"
+                        + " Ant's classpath or entry point");
+            }
+            final Integer exitCode = runInDaemon(antHome, argList);
+            if (exitCode != null) {
+                return exitCode;
+            }
+            if (launchDiag) {
+                System.out.println("No Ant daemon is running, running the build locally");
+            }
+        }
+
         logPath("Launcher JAR", sourceJar);
         logPath("Launcher JAR directory", sourceJar.getParentFile());
         logPath("java.home", new File(System.getProperty("java.home")));
@@ -258,6 +306,11 @@ public class Launcher {
         final URL[] jars = getJarArray(
             libURLs, userURLs, systemURLs, toolsJAR);
 
+        final String cdsArchive = System.getProperty(CDS_ARCHIVE_PROPERTY);
+        if (cdsArchive != null) {
+            checkCdsArchive(new File(cdsArchive), jars, launchDiag);
+        }
+
         // now update the class.path property
         final StringBuilder baseClassPath
             = new StringBuilder(System.getProperty(JAVA_CLASS_PATH));
@@ -307,6 +360,75 @@ public class Launcher {
         return exitCode;
     }
 
+    /**
+     * Hands the build over to a running daemon.
+     * @param antHome the Ant installation the daemon must use.
+     * @param args the command line arguments.
+     * @return the exit code of the build or null if no daemon is running.
+     * @throws LaunchException if the connection to the daemon fails.
+     */
+    private Integer runInDaemon(final File antHome, final List<String> args)
+        throws LaunchException {
+        try {
+            return DaemonClient.run(DaemonClient.getConnectionFile(antHome),
+                                    new File(System.getProperty("user.dir")), args,
+                                    System.out, System.err);
+        } catch (final IOException e) {
+            throw new LaunchException(e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the class data sharing archive if it has been recorded
+     * for different jars or a different JVM, so the start script
+     * records a new one the next time Ant is run.
+     *
+     * <p>The jars and JVM the archive belongs to are stored in a
+     * file next to the archive.  If that file cannot be read the
+     * archive is considered outdated.</p>
+     *
+     * @param archive the archive.
+     * @param jars the jars Ant is going to use.
+     * @param launchDiag whether to print diagnostics.
+     */
+    static void checkCdsArchive(final File archive, final URL[] jars,
+                                final boolean launchDiag) {
+        final StringBuilder fingerprint = new StringBuilder()
+            .append(System.getProperty("java.home")).append('\n')
+            .append(System.getProperty("java.vm.version")).append('\n');
+        for (URL jar : jars) {
+            final File f = new File(Locator.fromURI(jar.toString()));
+            fingerprint.append(f.getAbsolutePath()).append(' ').append(f.length())
+                .append(' ').append(f.lastModified()).append('\n');
+        }
+        final File stamp = new File(archive.getPath() + ".stamp");
+        if (stamp.isFile()) {
+            try {
+                if (fingerprint.toString().equals(new String(Files.readAllBytes(stamp.toPath()),
+                                                             StandardCharsets.UTF_8))) {
+                    return;
+                }
+            } catch (final IOException e) {
+                if (launchDiag) {
+                    System.out.println("cannot read " + stamp + ": " + e);
+                }
+            }
+        }
+        try {
+            if (Files.deleteIfExists(archive.toPath()) && launchDiag) {
+                System.out.println("deleted outdated class data sharing archive " + archive);
+            }
+            // it may not be writable if it cannot be read
+            Files.deleteIfExists(stamp.toPath());
+            Files.write(stamp.toPath(), fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            if (launchDiag) {
+                System.out.println("cannot check class data sharing archive " + archive
+                                   + ": " + e);
+            }
+        }
+    }
+
     /**
      * Get the list of -lib entries and -cp entry into
      * a URL array.
@@ -18,6 +18,7 @@
 package org.apache.tools.ant.listener;
 
 import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.LevelAwareBuildListener;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.SubBuildListener;
 
@@ -30,7 +31,7 @@ import org.apache.tools.ant.SubBuildListener;
  */
 
 public class BigProjectLogger extends SimpleBigProjectLogger
-    implements SubBuildListener {
+    implements SubBuildListener, LevelAwareBuildListener {
 
     private volatile boolean subBuildStartedRaised = false;
     private final Object subBuildLock = new Object();
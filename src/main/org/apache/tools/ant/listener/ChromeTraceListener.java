@@ -0,0 +1,379 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.util.DateUtils;
+
+/**
+ * Writes a timeline of all targets and tasks in the <a
+ * href="https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU">Trace
+ * Event Format</a> understood by Chrome's <code>about:tracing</code>,
+ * Perfetto and other flame graph viewers.
+ *
+ * <p>Each thread gets a lane of its own, so the tasks of
+ * <code>&lt;parallel&gt;</code> or of parallel
+ * <code>&lt;subant&gt;</code> runs show up side by side while targets
+ * of nested projects run by <code>&lt;ant&gt;</code> or
+ * <code>&lt;antcall&gt;</code> appear nested inside the task that
+ * has started them.  Events are written as soon as the target or
+ * task has finished, so only the unfinished ones are kept in
+ * memory.</p>
+ *
+ * <p>Lanes and times are taken from the threads and times recorded
+ * in the build events rather than from the moment the listener is
+ * invoked, so the timeline stays accurate if events are delivered
+ * asynchronously or - like those of parallel <code>&lt;subant&gt;</code>
+ * runs - passed on after the sub-build has finished.</p>
+ *
+ * <p>At the end of the build the critical path through the targets
+ * of the main project - the chain of dependencies with the longest
+ * total duration - is logged and added to the file.</p>
+ *
+ * <p>The file name is taken from the property
+ * <code>ChromeTraceListener.file</code>, it defaults to
+ * <code>trace.json</code>.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class ChromeTraceListener implements BuildListener {
+
+    /** Name of the property holding the file name. */
+    public static final String FILE_PROPERTY = "ChromeTraceListener.file";
+
+    private static final String DEFAULT_FILE = "trace.json";
+
+    private Writer out;
+    private Project buildProject;
+    private long buildStart;
+    private boolean firstEvent = true;
+    private int lastThreadId;
+
+    private final Map<Object, Long> startTimes = new IdentityHashMap<>();
+    private final Map<Thread, Integer> threadIds = new WeakHashMap<>();
+
+    /** Finished targets of the main project by name. */
+    private final Map<String, TargetTiming> targetTimings = new LinkedHashMap<>();
+
+    private static final class TargetTiming {
+        private final String name;
+        private final List<String> dependencies;
+        private final long duration;
+
+        private TargetTiming(Target target, long duration) {
+            this.name = target.getName();
+            this.dependencies = Collections.list(target.getDependencies());
+            this.duration = duration;
+        }
+    }
+
+    /**
+     * Remembers the start of the build.
+     *
+     * @param event the build started event.
+     */
+    @Override
+    public synchronized void buildStarted(BuildEvent event) {
+        buildProject = event.getProject();
+        buildStart = event.getNanoTime();
+    }
+
+    /**
+     * Writes the event for the whole build and the critical path
+     * and closes the file.
+     *
+     * @param event the build finished event.
+     */
+    @Override
+    public synchronized void buildFinished(BuildEvent event) {
+        final long end = event.getNanoTime();
+        List<TargetTiming> path = getCriticalPath();
+        long pathDuration = path.stream().mapToLong(t -> t.duration).sum();
+        try {
+            Map<String, String> args = new LinkedHashMap<>();
+            if (event.getException() != null) {
+                args.put("error", event.getException().toString());
+            }
+            writeEvent(event, "build", name(event.getProject()), buildStart, end, args);
+            out.write("\n],\n\"otherData\": {\"criticalPath\": [");
+            for (int i = 0; i < path.size(); i++) {
+                TargetTiming t = path.get(i);
+                out.write(i == 0 ? "\n" : ",\n");
+                out.write("{\"name\": " + quote(t.name) + ", \"dur\": " + micros(t.duration) + "}");
+            }
+            out.write("\n], \"criticalPathDur\": " + micros(pathDuration)
+                      + ", \"buildDur\": " + micros(end - buildStart) + "}\n}\n");
+            out.close();
+        } catch (IOException ex) {
+            throw new BuildException("Unable to write trace file", ex);
+        } finally {
+            out = null;
+        }
+        if (!path.isEmpty() && event.getProject() != null) {
+            StringBuilder sb = new StringBuilder("Critical path (")
+                .append(DateUtils.formatElapsedTime(pathDuration / 1000000))
+                .append(" of ").append(DateUtils.formatElapsedTime((end - buildStart) / 1000000))
+                .append("):");
+            for (TargetTiming t : path) {
+                sb.append(System.lineSeparator()).append("    ").append(t.name).append(" (")
+                    .append(DateUtils.formatElapsedTime(t.duration / 1000000)).append(')');
+            }
+            event.getProject().log(sb.toString(), Project.MSG_INFO);
+        }
+        startTimes.clear();
+        targetTimings.clear();
+        buildProject = null;
+    }
+
+    /**
+     * Remembers when the target has started.
+     *
+     * @param event the target started event.
+     */
+    @Override
+    public synchronized void targetStarted(BuildEvent event) {
+        startTimes.put(event.getTarget(), event.getNanoTime());
+    }
+
+    /**
+     * Writes the event for the target.
+     *
+     * @param event the target finished event.
+     */
+    @Override
+    public synchronized void targetFinished(BuildEvent event) {
+        Long start = startTimes.remove(event.getTarget());
+        if (start == null) {
+            return;
+        }
+        long end = event.getNanoTime();
+        Target target = event.getTarget();
+        if (event.getProject() == buildProject && !target.getName().isEmpty()) {
+            targetTimings.put(target.getName(), new TargetTiming(target, end - start));
+        }
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("project", name(event.getProject()));
+        if (target.getLocation() != null && target.getLocation().getFileName() != null) {
+            args.put("location", target.getLocation().toString());
+        }
+        if (event.getException() != null) {
+            args.put("error", event.getException().toString());
+        }
+        writeEvent(event, "target", target.getName(), start, end, args);
+    }
+
+    /**
+     * Remembers when the task has started.
+     *
+     * @param event the task started event.
+     */
+    @Override
+    public synchronized void taskStarted(BuildEvent event) {
+        startTimes.put(event.getTask(), event.getNanoTime());
+    }
+
+    /**
+     * Writes the event for the task.
+     *
+     * @param event the task finished event.
+     */
+    @Override
+    public synchronized void taskFinished(BuildEvent event) {
+        Long start = startTimes.remove(event.getTask());
+        if (start == null) {
+            return;
+        }
+        Task task = event.getTask();
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("location", task.getLocation().toString());
+        if (event.getException() != null) {
+            args.put("error", event.getException().toString());
+        }
+        writeEvent(event, "task", String.valueOf(task.getTaskName()), start,
+                   event.getNanoTime(), args);
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void messageLogged(BuildEvent event) {
+    }
+
+    /**
+     * The chain of dependencies whose targets have taken the longest
+     * time, in execution order.
+     */
+    private List<TargetTiming> getCriticalPath() {
+        Map<String, Long> memo = new HashMap<>();
+        TargetTiming last = null;
+        long longest = -1;
+        for (TargetTiming t : targetTimings.values()) {
+            long length = pathLength(t, memo);
+            if (length > longest) {
+                longest = length;
+                last = t;
+            }
+        }
+        List<TargetTiming> path = new ArrayList<>();
+        while (last != null) {
+            path.add(0, last);
+            TargetTiming next = null;
+            long nextLength = -1;
+            for (String dep : last.dependencies) {
+                TargetTiming d = targetTimings.get(dep);
+                if (d != null && memo.get(dep) > nextLength) {
+                    nextLength = memo.get(dep);
+                    next = d;
+                }
+            }
+            last = next;
+        }
+        return path;
+    }
+
+    private long pathLength(TargetTiming t, Map<String, Long> memo) {
+        Long known = memo.get(t.name);
+        if (known != null) {
+            return known;
+        }
+        // guard against cycles that were introduced after the build started
+        memo.put(t.name, 0L);
+        long longestDep = 0;
+        for (String dep : t.dependencies) {
+            TargetTiming d = targetTimings.get(dep);
+            if (d != null) {
+                longestDep = Math.max(longestDep, pathLength(d, memo));
+            }
+        }
+        long length = t.duration + longestDep;
+        memo.put(t.name, length);
+        return length;
+    }
+
+    private void writeEvent(BuildEvent event, String category, String name, long start,
+                            long end, Map<String, String> args) {
+        try {
+            if (out == null) {
+                open(event.getProject());
+            }
+            Thread thread = event.getThread();
+            Integer tid = threadIds.get(thread);
+            if (tid == null) {
+                tid = ++lastThreadId;
+                threadIds.put(thread, tid);
+                writeSeparator();
+                out.write("{\"ph\": \"M\", \"name\": \"thread_name\", \"pid\": 1, \"tid\": " + tid
+                          + ", \"args\": {\"name\": " + quote(thread.getName()) + "}}");
+            }
+            writeSeparator();
+            out.write("{\"ph\": \"X\", \"cat\": " + quote(category) + ", \"name\": " + quote(name)
+                      + ", \"pid\": 1, \"tid\": " + tid + ", \"ts\": " + micros(start - buildStart)
+                      + ", \"dur\": " + micros(end - start) + ", \"args\": {");
+            boolean first = true;
+            for (Map.Entry<String, String> arg : args.entrySet()) {
+                if (!first) {
+                    out.write(", ");
+                }
+                first = false;
+                out.write(quote(arg.getKey()) + ": " + quote(arg.getValue()));
+            }
+            out.write("}}");
+        } catch (IOException ex) {
+            throw new BuildException("Unable to write trace file", ex);
+        }
+    }
+
+    private void open(Project project) throws IOException {
+        String file = project == null ? null : project.getProperty(FILE_PROPERTY);
+        out = new BufferedWriter(new OutputStreamWriter(
+            Files.newOutputStream(Paths.get(file == null ? DEFAULT_FILE : file)),
+            StandardCharsets.UTF_8));
+        out.write("{\"displayTimeUnit\": \"ms\",\n\"traceEvents\": [");
+        firstEvent = true;
+        lastThreadId = 0;
+        threadIds.clear();
+    }
+
+    private void writeSeparator() throws IOException {
+        out.write(firstEvent ? "\n" : ",\n");
+        firstEvent = false;
+    }
+
+    private static String name(Project project) {
+        return project == null || project.getName() == null ? "" : project.getName();
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.util.Instrumentation;
+
+/**
+ * Collects metrics about the build and writes them to a file once
+ * the build has finished.
+ *
+ * <p>The metrics include histograms of the durations of targets and
+ * tasks - the latter grouped by task name - the number of bytes
+ * copied and archived, the number of directory scans and of the files
+ * they have found, the number of processes launched and the hit
+ * ratios of Ant's caches.</p>
+ *
+ * <p>The file is written in the text format understood by
+ * Prometheus' textfile collector unless the property {@link
+ * #FORMAT_PROPERTY MetricsListener.format} is set to
+ * <code>json</code> or the file name ends with <code>.json</code>.
+ * It is replaced atomically where the file system supports it.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class MetricsListener implements BuildListener, Instrumentation.Recorder {
+
+    /**
+     * Name of the property holding the name of the file to write.
+     * Value: {@value}
+     */
+    public static final String FILE_PROPERTY = "MetricsListener.file";
+
+    /**
+     * Name of the property holding the format of the file, either
+     * <code>prometheus</code> or <code>json</code>.
+     * Value: {@value}
+     */
+    public static final String FORMAT_PROPERTY = "MetricsListener.format";
+
+    private static final String DEFAULT_FILE = "build-metrics.prom";
+
+    /** Upper bounds of the histogram buckets in seconds. */
+    private static final double[] BUCKETS = {
+        0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600
+    };
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private Project buildProject;
+    private long buildStart;
+
+    private final Map<Object, Long> startTimes = new IdentityHashMap<>();
+    private final Map<String, Histogram> targetDurations = new TreeMap<>();
+    private final Map<String, Histogram> taskDurations = new TreeMap<>();
+
+    private final LongAdder bytesCopied = new LongAdder();
+    private final LongAdder bytesArchived = new LongAdder();
+    private final LongAdder archiveEntries = new LongAdder();
+    private final LongAdder directoryScans = new LongAdder();
+    private final LongAdder filesScanned = new LongAdder();
+    private final LongAdder processesLaunched = new LongAdder();
+    private final Map<String, long[]> cacheLookups = new TreeMap<>();
+
+    /** Cumulative histogram of durations. */
+    private static final class Histogram {
+        private final long[] counts = new long[BUCKETS.length];
+        private long count;
+        private double sum;
+
+        private void observe(double seconds) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    counts[i]++;
+                }
+            }
+            count++;
+            sum += seconds;
+        }
+    }
+
+    /**
+     * Starts collecting metrics.
+     *
+     * @param event the build started event.
+     */
+    @Override
+    public synchronized void buildStarted(BuildEvent event) {
+        buildProject = event.getProject();
+        buildStart = event.getNanoTime();
+        Instrumentation.addRecorder(this);
+    }
+
+    /**
+     * Writes the metrics.
+     *
+     * @param event the build finished event.
+     */
+    @Override
+    public synchronized void buildFinished(BuildEvent event) {
+        Instrumentation.removeRecorder(this);
+        double duration = (event.getNanoTime() - buildStart) / NANOS_PER_SECOND;
+        Project project = event.getProject();
+        String name = project == null ? null : project.getProperty(FILE_PROPERTY);
+        File file = name == null ? new File(DEFAULT_FILE)
+            : project.resolveFile(name);
+        String format = project == null ? null : project.getProperty(FORMAT_PROPERTY);
+        boolean json = format == null ? file.getName().endsWith(".json")
+            : "json".equalsIgnoreCase(format);
+        try {
+            write(file.toPath(), json, duration, event.getException() == null);
+            if (project != null) {
+                project.log("Wrote build metrics to " + file, Project.MSG_VERBOSE);
+            }
+        } catch (IOException ex) {
+            throw new BuildException("Unable to write metrics file " + file, ex);
+        } finally {
+            startTimes.clear();
+            targetDurations.clear();
+            taskDurations.clear();
+            synchronized (cacheLookups) {
+                cacheLookups.clear();
+            }
+            bytesCopied.reset();
+            bytesArchived.reset();
+            archiveEntries.reset();
+            directoryScans.reset();
+            filesScanned.reset();
+            processesLaunched.reset();
+            buildProject = null;
+        }
+    }
+
+    /**
+     * Remembers when the target has started.
+     *
+     * @param event the target started event.
+     */
+    @Override
+    public synchronized void targetStarted(BuildEvent event) {
+        startTimes.put(event.getTarget(), event.getNanoTime());
+    }
+
+    /**
+     * Records the duration of the target.
+     *
+     * @param event the target finished event.
+     */
+    @Override
+    public synchronized void targetFinished(BuildEvent event) {
+        Long start = startTimes.remove(event.getTarget());
+        Target target = event.getTarget();
+        if (start == null || target.getName().isEmpty()) {
+            return;
+        }
+        String name = target.getName();
+        Project p = event.getProject();
+        if (p != buildProject && p != null && p.getName() != null) {
+            name = p.getName() + "." + name;
+        }
+        targetDurations.computeIfAbsent(name, k -> new Histogram())
+            .observe((event.getNanoTime() - start) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Remembers when the task has started.
+     *
+     * @param event the task started event.
+     */
+    @Override
+    public synchronized void taskStarted(BuildEvent event) {
+        startTimes.put(event.getTask(), event.getNanoTime());
+    }
+
+    /**
+     * Records the duration of the task.
+     *
+     * @param event the task finished event.
+     */
+    @Override
+    public synchronized void taskFinished(BuildEvent event) {
+        Long start = startTimes.remove(event.getTask());
+        if (start == null) {
+            return;
+        }
+        taskDurations.computeIfAbsent(String.valueOf(event.getTask().getTaskName()),
+                                      k -> new Histogram())
+            .observe((event.getNanoTime() - start) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void messageLogged(BuildEvent event) {
+    }
+
+    @Override
+    public void filesScanned(File basedir, int files) {
+        directoryScans.increment();
+        filesScanned.add(files);
+    }
+
+    @Override
+    public void bytesArchived(File archive, long bytes) {
+        archiveEntries.increment();
+        bytesArchived.add(bytes);
+    }
+
+    @Override
+    public void bytesCopied(long bytes) {
+        bytesCopied.add(bytes);
+    }
+
+    @Override
+    public Instrumentation.Span processLaunch(String[] command, File dir) {
+        processesLaunched.increment();
+        return Instrumentation.Span.NONE;
+    }
+
+    @Override
+    public void cacheLookup(String cache, boolean hit) {
+        synchronized (cacheLookups) {
+            cacheLookups.computeIfAbsent(cache, k -> new long[2])[hit ? 0 : 1]++;
+        }
+    }
+
+    private void write(Path file, boolean json, double duration, boolean success)
+        throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                if (json) {
+                    writeJson(out, duration, success);
+                } else {
+                    writePrometheus(out, duration, success);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writePrometheus(Writer out, double duration, boolean success)
+        throws IOException {
+        String project = "project=" + labelValue(projectName());
+        metric(out, "ant_build_duration_seconds", "gauge", "Duration of the build.");
+        out.write("ant_build_duration_seconds{" + project + "} " + duration + "\n");
+        metric(out, "ant_build_success", "gauge", "Whether the build has been successful.");
+        out.write("ant_build_success{" + project + "} " + (success ? 1 : 0) + "\n");
+        metric(out, "ant_build_finished_timestamp_seconds", "gauge",
+               "Time the build has finished.");
+        out.write("ant_build_finished_timestamp_seconds{" + project + "} "
+                  + System.currentTimeMillis() / 1000 + "\n");
+
+        writeHistograms(out, "ant_target_duration_seconds", "Duration of targets.",
+                        project + ",target=", targetDurations);
+        writeHistograms(out, "ant_task_duration_seconds", "Duration of tasks by task name.",
+                        project + ",task=", taskDurations);
+
+        counter(out, "ant_bytes_copied_total", "Bytes copied.", project, bytesCopied);
+        counter(out, "ant_archive_entries_total", "Entries written to archives.",
+                project, archiveEntries);
+        counter(out, "ant_bytes_archived_total", "Uncompressed bytes written to archives.",
+                project, bytesArchived);
+        counter(out, "ant_directory_scans_total", "Directory scans.", project, directoryScans);
+        counter(out, "ant_files_scanned_total", "Files included by directory scans.",
+                project, filesScanned);
+        counter(out, "ant_processes_launched_total", "Processes launched.",
+                project, processesLaunched);
+
+        Map<String, long[]> lookups = getCacheLookups();
+        if (!lookups.isEmpty()) {
+            metric(out, "ant_cache_lookups_total", "counter", "Cache lookups.");
+            for (Map.Entry<String, long[]> e : lookups.entrySet()) {
+                String labels = project + ",cache=" + labelValue(e.getKey());
+                out.write("ant_cache_lookups_total{" + labels + ",result=\"hit\"} "
+                          + e.getValue()[0] + "\n");
+                out.write("ant_cache_lookups_total{" + labels + ",result=\"miss\"} "
+                          + e.getValue()[1] + "\n");
+            }
+            metric(out, "ant_cache_hit_ratio", "gauge", "Ratio of cache lookups that were hits.");
+            for (Map.Entry<String, long[]> e : lookups.entrySet()) {
+                out.write("ant_cache_hit_ratio{" + project + ",cache=" + labelValue(e.getKey())
+                          + "} " + hitRatio(e.getValue()) + "\n");
+            }
+        }
+    }
+
+    private static void writeHistograms(Writer out, String name, String help, String labelPrefix,
+                                        Map<String, Histogram> histograms)
+        throws IOException {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        metric(out, name, "histogram", help);
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            String labels = labelPrefix + labelValue(e.getKey());
+            Histogram h = e.getValue();
+            for (int i = 0; i < BUCKETS.length; i++) {
+                out.write(name + "_bucket{" + labels + ",le=\"" + BUCKETS[i] + "\"} "
+                          + h.counts[i] + "\n");
+            }
+            out.write(name + "_bucket{" + labels + ",le=\"+Inf\"} " + h.count + "\n");
+            out.write(name + "_sum{" + labels + "} " + h.sum + "\n");
+            out.write(name + "_count{" + labels + "} " + h.count + "\n");
+        }
+    }
+
+    private static void metric(Writer out, String name, String type, String help)
+        throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static void counter(Writer out, String name, String help, String labels,
+                                LongAdder value)
+        throws IOException {
+        metric(out, name, "counter", help);
+        out.write(name + "{" + labels + "} " + value.sum() + "\n");
+    }
+
+    private void writeJson(Writer out, double duration, boolean success) throws IOException {
+        out.write("{\n  \"project\": " + quote(projectName()) + ",\n");
+        out.write("  \"success\": " + success + ",\n");
+        out.write("  \"durationSeconds\": " + duration + ",\n");
+        out.write("  \"finishedAt\": " + System.currentTimeMillis() + ",\n");
+        writeJsonHistograms(out, "targets", targetDurations);
+        writeJsonHistograms(out, "tasks", taskDurations);
+        out.write("  \"counters\": {\n");
+        out.write("    \"bytesCopied\": " + bytesCopied.sum() + ",\n");
+        out.write("    \"archiveEntries\": " + archiveEntries.sum() + ",\n");
+        out.write("    \"bytesArchived\": " + bytesArchived.sum() + ",\n");
+        out.write("    \"directoryScans\": " + directoryScans.sum() + ",\n");
+        out.write("    \"filesScanned\": " + filesScanned.sum() + ",\n");
+        out.write("    \"processesLaunched\": " + processesLaunched.sum() + "\n");
+        out.write("  },\n  \"caches\": {");
+        String sep = "\n";
+        for (Map.Entry<String, long[]> e : getCacheLookups().entrySet()) {
+            out.write(sep + "    " + quote(e.getKey()) + ": {\"hits\": " + e.getValue()[0]
+                      + ", \"misses\": " + e.getValue()[1] + ", \"hitRatio\": "
+                      + hitRatio(e.getValue()) + "}");
+            sep = ",\n";
+        }
+        out.write("\n  }\n}\n");
+    }
+
+    private static void writeJsonHistograms(Writer out, String name,
+                                            Map<String, Histogram> histograms)
+        throws IOException {
+        out.write("  " + quote(name) + ": {");
+        String sep = "\n";
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            Histogram h = e.getValue();
+            out.write(sep + "    " + quote(e.getKey()) + ": {\"count\": " + h.count
+                      + ", \"sumSeconds\": " + h.sum + ", \"buckets\": {");
+            for (int i = 0; i < BUCKETS.length; i++) {
+                out.write("\"" + BUCKETS[i] + "\": " + h.counts[i] + ", ");
+            }
+            out.write("\"+Inf\": " + h.count + "}}");
+            sep = ",\n";
+        }
+        out.write("\n  },\n");
+    }
+
+    private Map<String, long[]> getCacheLookups() {
+        synchronized (cacheLookups) {
+            Map<String, long[]> copy = new TreeMap<>();
+            cacheLookups.forEach((k, v) -> copy.put(k, v.clone()));
+            return copy;
+        }
+    }
+
+    private String projectName() {
+        return buildProject == null || buildProject.getName() == null ? ""
+            : buildProject.getName();
+    }
+
+    private static double hitRatio(long[] lookups) {
+        long total = lookups[0] + lookups[1];
+        return total == 0 ? 0 : (double) lookups[0] / total;
+    }
+
+    private static String labelValue(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+
+/**
+ * Sums up the CPU time and heap allocations of all tasks per task
+ * name and per target and logs the tasks and targets that have used
+ * the most when the build has finished.
+ *
+ * <p>Adding this listener enables {@link
+ * Project#setTaskResourceAccounting task resource accounting}.  The
+ * values of a task don't include the tasks it has executed itself on
+ * the same thread or work done by other threads or processes.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class ResourceUsageListener implements BuildListener {
+
+    /** Number of task names and targets that are reported. */
+    private static final int TOP = 20;
+
+    private static final String[] UNITS = {"B", "KiB", "MiB", "GiB", "TiB"};
+
+    private Project buildProject;
+    private final Map<String, Usage> byTask = new HashMap<>();
+    private final Map<String, Usage> byTarget = new HashMap<>();
+
+    /** Accumulated usage of a task name or target. */
+    private static final class Usage {
+        private final String name;
+        private int count;
+        private long cpuTime;
+        private long allocatedBytes;
+
+        private Usage(String name) {
+            this.name = name;
+        }
+
+        private void add(long cpu, long allocated) {
+            count++;
+            cpuTime += Math.max(cpu, 0);
+            allocatedBytes += Math.max(allocated, 0);
+        }
+    }
+
+    /**
+     * Enables task resource accounting.
+     *
+     * @param event the build started event.
+     */
+    @Override
+    public synchronized void buildStarted(BuildEvent event) {
+        buildProject = event.getProject();
+        if (buildProject != null) {
+            buildProject.setTaskResourceAccounting(true);
+        }
+    }
+
+    /**
+     * Logs the tasks and targets that have used the most resources.
+     *
+     * @param event the build finished event.
+     */
+    @Override
+    public void buildFinished(BuildEvent event) {
+        String report;
+        synchronized (this) {
+            if (byTask.isEmpty()) {
+                return;
+            }
+            StringBuilder sb = new StringBuilder("Resource usage by task:");
+            appendTable(sb, byTask, "task");
+            sb.append(System.lineSeparator()).append("Resource usage by target:");
+            appendTable(sb, byTarget, "target");
+            report = sb.toString();
+            byTask.clear();
+            byTarget.clear();
+        }
+        if (event.getProject() != null) {
+            event.getProject().log(report, Project.MSG_INFO);
+        }
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void targetStarted(BuildEvent event) {
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void targetFinished(BuildEvent event) {
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void taskStarted(BuildEvent event) {
+    }
+
+    /**
+     * Adds the resources used by the task to its name and target.
+     *
+     * @param event the task finished event.
+     */
+    @Override
+    public synchronized void taskFinished(BuildEvent event) {
+        long cpu = event.getCpuTime();
+        long allocated = event.getAllocatedBytes();
+        if (cpu < 0 && allocated < 0) {
+            return;
+        }
+        String taskName = String.valueOf(event.getTask().getTaskName());
+        byTask.computeIfAbsent(taskName, Usage::new).add(cpu, allocated);
+        Target target = event.getTask().getOwningTarget();
+        if (target != null && !target.getName().isEmpty()) {
+            String targetName = target.getName();
+            Project p = event.getProject();
+            if (p != buildProject && p != null && p.getName() != null) {
+                targetName = p.getName() + "." + targetName;
+            }
+            byTarget.computeIfAbsent(targetName, Usage::new).add(cpu, allocated);
+        }
+    }
+
+    /**
+     * Ignored.
+     *
+     * @param event ignored.
+     */
+    @Override
+    public void messageLogged(BuildEvent event) {
+    }
+
+    private static void appendTable(StringBuilder sb, Map<String, Usage> usages, String what) {
+        List<Usage> sorted = new ArrayList<>(usages.values());
+        sorted.sort((a, b) -> Long.compare(b.cpuTime, a.cpuTime));
+        String nl = System.lineSeparator();
+        sb.append(nl).append(String.format(Locale.ENGLISH, "%12s %12s %8s  %s",
+                                           "cpu", "allocated", "count", what));
+        for (Usage u : sorted.subList(0, Math.min(TOP, sorted.size()))) {
+            sb.append(nl).append(String.format(Locale.ENGLISH, "%10.3f s %12s %8d  %s",
+                                               u.cpuTime / 1e9, formatBytes(u.allocatedBytes),
+                                               u.count, u.name));
+        }
+        if (sorted.size() > TOP) {
+            sb.append(nl).append("... and ").append(sorted.size() - TOP).append(" more");
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        double value = bytes;
+        int unit = 0;
+        while (value >= 1024 && unit < UNITS.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return unit == 0 ? bytes + " B"
+            : String.format(Locale.ENGLISH, "%.1f %s", value, UNITS[unit]);
+    }
+}
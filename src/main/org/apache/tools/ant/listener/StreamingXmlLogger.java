@@ -0,0 +1,530 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildLogger;
+import org.apache.tools.ant.LevelAwareBuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.UnknownElement;
+import org.apache.tools.ant.util.DOMElementWriter;
+import org.apache.tools.ant.util.DateUtils;
+import org.apache.tools.ant.util.StringUtils;
+
+/**
+ * Writes an XML description of the build like {@link
+ * org.apache.tools.ant.XmlLogger XmlLogger} but writes each element as
+ * soon as it has started instead of keeping the whole build in memory
+ * until it has finished.
+ *
+ * <p>As the duration and the error of a build, target or task are
+ * not known when its start tag gets written, they are written as
+ * attributes of a trailing <code>finished</code> element instead of
+ * attributes of the element itself.</p>
+ *
+ * <p>Elements started by the thread that started the build are
+ * written immediately.  Elements started by other threads - like the
+ * nested tasks of <code>&lt;parallel&gt;</code> - are collected per
+ * thread and written as a whole once the outermost of them has
+ * finished, so they don't end up interleaved.  Threads and times are
+ * taken from the events, so this also works for events delivered
+ * asynchronously or passed on later by <code>&lt;subant&gt;</code>.  Only unfinished
+ * elements are kept in memory.</p>
+ *
+ * <p>Like XmlLogger the file name can be set with the property
+ * <code>XmlLogger.file</code> when used as a listener, a style sheet
+ * is only referenced if the property
+ * <code>ant.XmlLogger.stylesheet.uri</code> has been set.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class StreamingXmlLogger implements BuildLogger, LevelAwareBuildListener {
+
+    private static final String BUILD_TAG = "build";
+    private static final String TARGET_TAG = "target";
+    private static final String TASK_TAG = "task";
+    private static final String MESSAGE_TAG = "message";
+    private static final String FINISHED_TAG = "finished";
+    private static final String STACKTRACE_TAG = "stacktrace";
+    private static final String INDENT = "\t";
+
+    private final DOMElementWriter encoder = new DOMElementWriter();
+
+    private int msgOutputLevel = Project.MSG_DEBUG;
+    private PrintStream outStream;
+
+    /** Where elements are written to. */
+    private Writer out;
+
+    /** Collects output until the file name is known. */
+    private StringWriter pending;
+
+    private Thread buildThread;
+    private long buildStart;
+    private final Context buildContext = new Context();
+    private final Map<Thread, Context> contexts = new HashMap<>();
+
+    /** Threads of the currently running tasks. */
+    private final Map<Task, Context> runningTasks = new HashMap<>();
+
+    /** An element that has been started but not finished. */
+    private static final class Open {
+        private final Object owner;
+        private final String tag;
+        private final long startTime;
+
+        private Open(Object owner, String tag, long startTime) {
+            this.owner = owner;
+            this.tag = tag;
+            this.startTime = startTime;
+        }
+    }
+
+    /** The unfinished elements of a thread. */
+    private static final class Context {
+        private final Deque<Open> stack = new ArrayDeque<>();
+        /** null if output goes straight to the file. */
+        private StringBuilder buffer;
+        private int baseDepth = 1;
+    }
+
+    /**
+     * Writes the start of the document.
+     *
+     * @param event the build started event.
+     */
+    @Override
+    public synchronized void buildStarted(BuildEvent event) {
+        buildThread = event.getThread();
+        buildStart = event.getTimestamp();
+        contexts.put(buildThread, buildContext);
+        if (outStream != null) {
+            open(event);
+        } else {
+            // properties like XmlLogger.file are not yet available
+            pending = new StringWriter();
+            out = pending;
+        }
+    }
+
+    /**
+     * Writes the end of the document and closes the file.
+     *
+     * @param event the build finished event.
+     */
+    @Override
+    public synchronized void buildFinished(BuildEvent event) {
+        if (out == null) {
+            return;
+        }
+        if (pending != null) {
+            open(event);
+        }
+        try {
+            // anything that is still open lost its finished event
+            for (Context ctx : contexts.values()) {
+                if (ctx != buildContext) {
+                    while (!ctx.stack.isEmpty()) {
+                        close(ctx, ctx.stack.peek(), null, event.getTimestamp());
+                    }
+                }
+            }
+            while (!buildContext.stack.isEmpty()) {
+                close(buildContext, buildContext.stack.peek(), null, event.getTimestamp());
+            }
+            Throwable t = event.getException();
+            if (t != null) {
+                writeStackTrace(buildContext, 1, t);
+            }
+            writeFinished(buildContext, 1, buildStart, event.getTimestamp(), t);
+            out.write("</" + BUILD_TAG + ">\n");
+            out.close();
+        } catch (IOException exc) {
+            throw new BuildException("Unable to write log file", exc);
+        } finally {
+            out = null;
+            contexts.clear();
+            runningTasks.clear();
+        }
+    }
+
+    /**
+     * Writes the start tag of the target.
+     *
+     * @param event the target started event.
+     */
+    @Override
+    public synchronized void targetStarted(BuildEvent event) {
+        if (pending != null) {
+            open(event);
+        }
+        start(event, event.getTarget(), TARGET_TAG, " name=\""
+              + encoder.encodeAttributeValue(event.getTarget().getName()) + "\"");
+    }
+
+    /**
+     * Writes the end of the target.
+     *
+     * @param event the target finished event.
+     */
+    @Override
+    public synchronized void targetFinished(BuildEvent event) {
+        finish(event, event.getTarget());
+    }
+
+    /**
+     * Writes the start tag of the task.
+     *
+     * @param event the task started event.
+     */
+    @Override
+    public synchronized void taskStarted(BuildEvent event) {
+        if (pending != null) {
+            open(event);
+        }
+        Task task = event.getTask();
+        String name = task.getTaskName();
+        Context ctx = start(event, task, TASK_TAG, " name=\""
+            + encoder.encodeAttributeValue(name == null ? "" : name)
+            + "\" location=\""
+            + encoder.encodeAttributeValue(task.getLocation().toString()) + "\"");
+        if (ctx != null) {
+            runningTasks.put(task, ctx);
+        }
+    }
+
+    /**
+     * Writes the end of the task.
+     *
+     * @param event the task finished event.
+     */
+    @Override
+    public synchronized void taskFinished(BuildEvent event) {
+        runningTasks.remove(event.getTask());
+        finish(event, event.getTask());
+    }
+
+    /**
+     * Writes the message inside of the element of the task or target
+     * that has logged it.
+     *
+     * @param event the message logged event.
+     */
+    @Override
+    public synchronized void messageLogged(BuildEvent event) {
+        int priority = event.getPriority();
+        if (priority > msgOutputLevel || out == null) {
+            return;
+        }
+        String name;
+        switch (priority) {
+            case Project.MSG_ERR:
+                name = "error";
+                break;
+            case Project.MSG_WARN:
+                name = "warn";
+                break;
+            case Project.MSG_INFO:
+                name = "info";
+                break;
+            default:
+                name = "debug";
+                break;
+        }
+        Context ctx = getTaskContext(event.getTask());
+        if (ctx == null) {
+            ctx = contexts.get(event.getThread());
+            if (ctx == null || ctx.stack.isEmpty()) {
+                // threads like stream pumpers that don't run tasks
+                ctx = buildContext;
+            }
+        }
+        int depth = depth(ctx);
+        Throwable ex = event.getException();
+        if (Project.MSG_DEBUG <= msgOutputLevel && ex != null) {
+            writeStackTrace(ctx, depth, ex);
+        }
+        StringBuilder sb = new StringBuilder();
+        indent(sb, depth);
+        sb.append('<').append(MESSAGE_TAG).append(" priority=\"").append(name)
+            .append("\"><![CDATA[")
+            .append(encoder.encodedata(String.valueOf(event.getMessage())))
+            .append("]]></").append(MESSAGE_TAG).append(">\n");
+        write(ctx, sb);
+    }
+
+    /**
+     * Set the logging level when using this as a Logger
+     *
+     * @param level the logging level -
+     *        see {@link org.apache.tools.ant.Project#MSG_ERR Project}
+     *        class for level definitions
+     */
+    @Override
+    public void setMessageOutputLevel(int level) {
+        msgOutputLevel = level;
+    }
+
+    @Override
+    public int getMessageOutputLevel() {
+        return msgOutputLevel;
+    }
+
+    /**
+     * Set the output stream to which logging output is sent when operating
+     * as a logger.
+     *
+     * @param output the output PrintStream.
+     */
+    @Override
+    public void setOutputPrintStream(PrintStream output) {
+        this.outStream = new PrintStream(output, true);
+    }
+
+    /**
+     * Ignore emacs mode, as it has no meaning in XML format
+     *
+     * @param emacsMode true if logger should produce emacs compatible
+     *        output
+     */
+    @Override
+    public void setEmacsMode(boolean emacsMode) {
+    }
+
+    /**
+     * Ignore error print stream. All output will be written to
+     * either the XML log file or the PrintStream provided to
+     * setOutputPrintStream
+     *
+     * @param err the stream we are going to ignore.
+     */
+    @Override
+    public void setErrorPrintStream(PrintStream err) {
+    }
+
+    /**
+     * Opens the file, writes the prolog and whatever has been
+     * collected so far.
+     */
+    private void open(BuildEvent event) {
+        String xslUri = getProperty(event, "ant.XmlLogger.stylesheet.uri", "");
+        try {
+            OutputStream stream = outStream;
+            if (stream == null) {
+                stream = Files.newOutputStream(Paths.get(getProperty(event, "XmlLogger.file",
+                                                                     "log.xml")));
+            }
+            out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            if (!xslUri.isEmpty()) {
+                out.write("<?xml-stylesheet type=\"text/xsl\" href=\""
+                    + encoder.encodeAttributeValue(xslUri) + "\"?>\n\n");
+            }
+            out.write("<" + BUILD_TAG + ">\n");
+            if (pending != null) {
+                out.write(pending.toString());
+                pending = null;
+            }
+        } catch (IOException exc) {
+            throw new BuildException("Unable to write log file", exc);
+        }
+    }
+
+    private Context start(BuildEvent event, Object owner, String tag, String attributes) {
+        if (out == null) {
+            return null;
+        }
+        Context ctx = contexts.get(event.getThread());
+        if (ctx == null) {
+            ctx = new Context();
+            contexts.put(event.getThread(), ctx);
+        }
+        if (ctx != buildContext && ctx.stack.isEmpty()) {
+            ctx.buffer = new StringBuilder();
+            ctx.baseDepth = depth(buildContext);
+        }
+        StringBuilder sb = new StringBuilder();
+        indent(sb, depth(ctx));
+        sb.append('<').append(tag).append(attributes).append(">\n");
+        write(ctx, sb);
+        ctx.stack.push(new Open(owner, tag, event.getTimestamp()));
+        return ctx;
+    }
+
+    private void finish(BuildEvent event, Object owner) {
+        if (out == null) {
+            return;
+        }
+        Context ctx = contexts.get(event.getThread());
+        if (ctx == null || !contains(ctx, owner)) {
+            // finished on a different thread than it has been started
+            ctx = null;
+            for (Context c : contexts.values()) {
+                if (contains(c, owner)) {
+                    ctx = c;
+                    break;
+                }
+            }
+            if (ctx == null) {
+                return;
+            }
+        }
+        // children whose finished event got lost
+        while (ctx.stack.peek().owner != owner) {
+            close(ctx, ctx.stack.peek(), null, event.getTimestamp());
+        }
+        close(ctx, ctx.stack.peek(), event.getException(), event.getTimestamp());
+        if (ctx.stack.isEmpty()) {
+            if (ctx == buildContext) {
+                flush();
+            } else {
+                ctx.buffer = null;
+                contexts.values().remove(ctx);
+            }
+        }
+    }
+
+    private void close(Context ctx, Open open, Throwable t, long endTime) {
+        int depth = depth(ctx);
+        if (t != null) {
+            writeStackTrace(ctx, depth, t);
+        }
+        writeFinished(ctx, depth, open.startTime, endTime, t);
+        ctx.stack.pop();
+        StringBuilder sb = new StringBuilder();
+        indent(sb, depth(ctx));
+        sb.append("</").append(open.tag).append(">\n");
+        write(ctx, sb);
+        if (ctx != buildContext && ctx.stack.isEmpty() && ctx.buffer != null) {
+            // the outermost element of another thread has finished
+            StringBuilder buffer = ctx.buffer;
+            ctx.buffer = null;
+            write(buildContext, buffer);
+        }
+    }
+
+    private void writeFinished(Context ctx, int depth, long startTime, long endTime,
+                               Throwable t) {
+        StringBuilder sb = new StringBuilder();
+        indent(sb, depth);
+        sb.append('<').append(FINISHED_TAG).append(" time=\"")
+            .append(DateUtils.formatElapsedTime(endTime - startTime))
+            .append('"');
+        if (t != null) {
+            sb.append(" error=\"").append(encoder.encodeAttributeValue(t.toString()))
+                .append('"');
+        }
+        sb.append("/>\n");
+        write(ctx, sb);
+    }
+
+    private void writeStackTrace(Context ctx, int depth, Throwable t) {
+        StringBuilder sb = new StringBuilder();
+        indent(sb, depth);
+        sb.append('<').append(STACKTRACE_TAG).append("><![CDATA[")
+            .append(encoder.encodedata(StringUtils.getStackTrace(t)))
+            .append("]]></").append(STACKTRACE_TAG).append(">\n");
+        write(ctx, sb);
+    }
+
+    private void write(Context ctx, CharSequence s) {
+        if (ctx.buffer != null) {
+            ctx.buffer.append(s);
+            return;
+        }
+        try {
+            out.append(s);
+        } catch (IOException exc) {
+            throw new BuildException("Unable to write log file", exc);
+        }
+    }
+
+    private void flush() {
+        try {
+            out.flush();
+        } catch (IOException exc) {
+            throw new BuildException("Unable to write log file", exc);
+        }
+    }
+
+    private Context getTaskContext(Task task) {
+        if (task == null) {
+            return null;
+        }
+        Context ctx = runningTasks.get(task);
+        if (ctx == null) {
+            // the task may be hidden by its UnknownElement
+            for (Iterator<Map.Entry<Task, Context>> it = runningTasks.entrySet().iterator();
+                 ctx == null && it.hasNext();) {
+                Map.Entry<Task, Context> e = it.next();
+                if (e.getKey() instanceof UnknownElement
+                    && ((UnknownElement) e.getKey()).getTask() == task) {
+                    ctx = e.getValue();
+                }
+            }
+        }
+        return ctx;
+    }
+
+    private static boolean contains(Context ctx, Object owner) {
+        for (Open o : ctx.stack) {
+            if (o.owner == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int depth(Context ctx) {
+        return ctx.baseDepth + ctx.stack.size();
+    }
+
+    private static void indent(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append(INDENT);
+        }
+    }
+
+    private static String getProperty(BuildEvent event, String propertyName, String defaultValue) {
+        if (event != null && event.getProject() != null) {
+            String value = event.getProject().getProperty(propertyName);
+            if (value != null) {
+                return value;
+            }
+        }
+        return defaultValue;
+    }
+}
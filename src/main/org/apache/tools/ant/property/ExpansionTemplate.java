@@ -0,0 +1,96 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.property;
+
+import java.util.List;
+
+import org.apache.tools.ant.Project;
+
+/**
+ * A string that has been split into literal text and property
+ * references once so it can be expanded repeatedly without scanning
+ * it again.
+ *
+ * <p>Instances are created by {@link ParseProperties#compile} and
+ * expand to the same result {@link ParseProperties#parseProperties}
+ * would return for the original string given the same property
+ * values.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public final class ExpansionTemplate {
+
+    private final int length;
+    /** literal text preceding each reference, plus the trailing text */
+    private final String[] literals;
+    private final String[] names;
+    /** the text of each reference as it appears inside value */
+    private final String[] references;
+
+    ExpansionTemplate(String value, List<String> literals, List<String> names,
+                      List<String> references) {
+        this.length = value.length();
+        this.literals = literals.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.references = references.toArray(new String[0]);
+    }
+
+    /**
+     * Whether the original string contains any property references.
+     * @return true if at least one reference has been found.
+     */
+    public boolean containsProperties() {
+        return names.length > 0;
+    }
+
+    /**
+     * Expands the template.
+     *
+     * @param project the project used to log references to unset
+     * properties, may be null.
+     * @param getProperty property resolver.
+     * @return the looked up value if the whole string consists of a
+     * single property reference that has been set, the expanded
+     * String otherwise.
+     */
+    public Object expand(Project project, GetProperty getProperty) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+        if (names.length == 1 && literals[0].isEmpty() && literals[1].isEmpty()) {
+            return lookup(project, getProperty, 0);
+        }
+        StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = 0; i < names.length; i++) {
+            sb.append(literals[i]).append(lookup(project, getProperty, i));
+        }
+        return sb.append(literals[names.length]).toString();
+    }
+
+    private Object lookup(Project project, GetProperty getProperty, int i) {
+        Object result = getProperty.getProperty(names[i]);
+        if (result != null) {
+            return result;
+        }
+        if (project != null) {
+            project.log("Property \"" + names[i] + "\" has not been set",
+                        Project.MSG_VERBOSE);
+        }
+        return references[i];
+    }
+}
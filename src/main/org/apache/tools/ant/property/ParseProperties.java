@@ -18,7 +18,9 @@
 package org.apache.tools.ant.property;
 
 import java.text.ParsePosition;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.tools.ant.Project;
@@ -120,6 +122,45 @@ public class ParseProperties implements ParseNextProperty {
         return sb.toString();
     }
 
+    /**
+     * Splits a String into literal text and property references
+     * using the configured {@link PropertyExpander
+     * PropertyExpanders} without looking up any property.
+     *
+     * <p>The result only stays valid as long as the expanders
+     * wouldn't find different references in <code>value</code>, so
+     * it should only be cached for expanders whose parsing doesn't
+     * depend on anything but the string itself.</p>
+     *
+     * @param value The string to be scanned for property references,
+     *              must not be <code>null</code>.
+     * @return the template.
+     * @since Ant 1.10.16
+     */
+    public ExpansionTemplate compile(String value) {
+        final int len = value.length();
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        ParsePosition pos = new ParsePosition(0);
+        while (pos.getIndex() < len) {
+            final int start = pos.getIndex();
+            String propertyName = parsePropertyName(value, pos);
+            if (propertyName == null) {
+                literal.append(value.charAt(pos.getIndex()));
+                pos.setIndex(pos.getIndex() + 1);
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                names.add(propertyName);
+                references.add(value.substring(start, pos.getIndex()));
+            }
+        }
+        literals.add(literal.toString());
+        return new ExpansionTemplate(value, literals, names, references);
+    }
+
     /**
      * Learn whether a String contains replaceable properties.
      *
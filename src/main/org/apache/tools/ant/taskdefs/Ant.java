@@ -32,12 +32,14 @@ import java.util.Set;
 import java.util.Vector;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
 import org.apache.tools.ant.DefaultLogger;
 import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Main;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectComponent;
 import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.PropertyHelper;
 import org.apache.tools.ant.Target;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.PropertySet;
@@ -117,6 +119,18 @@ public class Ant extends Task {
      */
     private boolean useNativeBasedir = false;
 
+    /**
+     * Whether the new project reads properties and references of
+     * this project rather than copying them.
+     */
+    private boolean copyOnWrite = false;
+
+    /**
+     * Receives the events of the new project instead of the
+     * listeners of this project if set.
+     */
+    private BuildListener listenerOverride = null;
+
     /**
      * simple constructor
      */
@@ -167,6 +181,11 @@ public class Ant extends Task {
      */
     @Override
     public void init() {
+        if (JavaWorkerPool.isEnabled(getProject())) {
+            // let the sub-build inherit the pool rather than start one
+            // of its own
+            JavaWorkerPool.getPool(getProject());
+        }
         newProject = getProject().createSubProject();
         newProject.setJavaVersionProperty();
     }
@@ -195,7 +214,11 @@ public class Ant extends Task {
     private void initializeProject() {
         newProject.setInputHandler(getProject().getInputHandler());
 
-        getProject().getBuildListeners().forEach(bl -> newProject.addBuildListener(bl));
+        if (listenerOverride != null) {
+            newProject.addBuildListener(listenerOverride);
+        } else {
+            getProject().getBuildListeners().forEach(bl -> newProject.addBuildListener(bl));
+        }
 
         if (output != null) {
             File outfile;
@@ -215,9 +238,15 @@ public class Ant extends Task {
                 log("Ant: Can't set output to " + output);
             }
         }
+        copyOnWrite = !useNativeBasedir
+            && Project.toBoolean(getProject().getProperty(MagicNames.INHERIT_COPY_ON_WRITE));
+
         // set user-defined properties
         if (useNativeBasedir) {
             addAlmostAll(getProject().getUserProperties(), PropertyType.USER);
+        } else if (copyOnWrite) {
+            PropertyHelper.getPropertyHelper(newProject)
+                .inheritFrom(PropertyHelper.getPropertyHelper(getProject()), inheritAll);
         } else {
             getProject().copyUserProperties(newProject);
         }
@@ -227,7 +256,7 @@ public class Ant extends Task {
            // because they are not being inherited.
            newProject.initProperties();
 
-        } else {
+        } else if (!copyOnWrite) {
             // set all properties from calling project
             addAlmostAll(getProject().getProperties(), PropertyType.PLAIN);
         }
@@ -459,6 +488,17 @@ public class Ant extends Task {
         }
     }
 
+    /**
+     * Makes the new project send its events to the given listener
+     * instead of the listeners of the current project.
+     * @param listener the listener, null to use the current project's
+     * listeners.
+     * @since Ant 1.10.16
+     */
+    void setBuildListenerOverride(BuildListener listener) {
+        listenerOverride = listener;
+    }
+
     /**
      * Get the default build file name to use when launching the task.
      * <p>
@@ -497,6 +537,8 @@ public class Ant extends Task {
         if (useNativeBasedir) {
             addAlmostAll(getProject().getInheritedProperties(),
                          PropertyType.INHERITED);
+        } else if (copyOnWrite) {
+            PropertyHelper.getPropertyHelper(newProject).inheritInheritedProperties();
         } else {
             getProject().copyInheritedProperties(newProject);
         }
@@ -536,13 +578,18 @@ public class Ant extends Task {
         // Now add all references that are not defined in the
         // subproject, if inheritRefs is true
         if (inheritRefs) {
-            Map<String, Object> newReferences = newProject.getReferences();
+            Project child = newProject;
+            Map<String, Object> newReferences = child.getReferences();
             for (String key : thisReferences.keySet()) {
                 if (newReferences.containsKey(key)) {
                     continue;
                 }
-                copyReference(key, key);
-                newProject.inheritIDReferences(getProject());
+                if (copyOnWrite) {
+                    child.addLazyReference(key, () -> cloneReference(key, child));
+                } else {
+                    copyReference(key, key);
+                }
+                child.inheritIDReferences(getProject());
             }
         }
     }
@@ -564,6 +611,26 @@ public class Ant extends Task {
                 Project.MSG_WARN);
             return;
         }
+        newProject.addReference(newKey, cloneReference(oldKey, orig, newProject));
+    }
+
+    /**
+     * Creates the copy of a reference for a project whose references
+     * are only copied once they are needed.
+     * @param key the reference id in the current project.
+     * @param target the project to bind the copy to.
+     * @return the copy or null if the reference no longer exists.
+     */
+    private Object cloneReference(String key, Project target) {
+        Object orig = getProject().getReference(key);
+        return orig == null ? null : cloneReference(key, orig, target);
+    }
+
+    /**
+     * Try to clone the referenced object and reconfigure it for the
+     * given project, use the object itself if it can't be cloned.
+     */
+    private Object cloneReference(String oldKey, Object orig, Project target) {
 
         Class<?> c = orig.getClass();
         Object copy = orig;
@@ -578,13 +645,13 @@ public class Ant extends Task {
         }
 
         if (copy instanceof ProjectComponent) {
-            ((ProjectComponent) copy).setProject(newProject);
+            ((ProjectComponent) copy).setProject(target);
         } else {
             try {
                 Method setProjectM =
                     c.getMethod("setProject", Project.class);
                 if (setProjectM != null) {
-                    setProjectM.invoke(copy, newProject);
+                    setProjectM.invoke(copy, target);
                 }
             } catch (NoSuchMethodException e) {
                 // ignore this if the class being referenced does not have
@@ -596,7 +663,7 @@ public class Ant extends Task {
                     e2, getLocation());
             }
         }
-        newProject.addReference(newKey, copy);
+        return copy;
     }
 
     /**
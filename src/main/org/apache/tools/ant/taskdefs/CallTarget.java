@@ -23,6 +23,7 @@ import java.io.IOException;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.MagicNames;
 import org.apache.tools.ant.Task;
+import org.apache.tools.ant.helper.InMemoryParseCache;
 import org.apache.tools.ant.types.PropertySet;
 
 /**
@@ -59,6 +60,8 @@ public class CallTarget extends Task {
 
     private boolean targetSet = false;
 
+    private boolean reuseParse = false;
+
     /**
      * If true, pass all properties to the new Ant project.
      * Defaults to true.
@@ -77,6 +80,18 @@ public class CallTarget extends Task {
         this.inheritRefs = inheritRefs;
     }
 
+    /**
+     * If true, the build file is only parsed by the first antcall
+     * and the result is reused by later calls as long as the file
+     * doesn't change.
+     * Defaults to false.
+     * @param reuseParse <code>boolean</code> flag.
+     * @since Ant 1.10.16
+     */
+    public void setReuseParse(boolean reuseParse) {
+        this.reuseParse = reuseParse;
+    }
+
     /**
      * Initialize this task by creating new instance of the ant task and
      * configuring it by calling its own init method.
@@ -103,6 +118,9 @@ public class CallTarget extends Task {
         callee.setAntfile(getProject().getProperty(MagicNames.ANT_FILE));
         callee.setInheritAll(inheritAll);
         callee.setInheritRefs(inheritRefs);
+        if (reuseParse) {
+            InMemoryParseCache.enableForCall(getProject(), callee.getNewProject());
+        }
         callee.execute();
     }
 
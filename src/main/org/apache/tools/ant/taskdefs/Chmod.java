@@ -20,6 +20,11 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Set;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -27,10 +32,17 @@ import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.Commandline;
 import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.PatternSet;
+import org.apache.tools.ant.util.PermissionUtils;
 
 /**
  * Chmod equivalent for unix-like environments.
  *
+ * <p>If the permissions are given as an octal number or as symbolic
+ * mode that names the affected users, the task changes the
+ * permissions via NIO using multiple threads and only runs the chmod
+ * command for files where this isn't possible - like files that have
+ * the setuid, setgid or sticky bit set.</p>
+ *
  * @since Ant 1.1
  *
  * @ant.task category="filesystem"
@@ -42,6 +54,13 @@ public class Chmod extends ExecuteOn {
     private FileSet defaultSet = new FileSet();
     private boolean defaultSetDefined = false;
     private boolean havePerm = false;
+    private String perm;
+
+    /** file type bits of the unix:mode attribute */
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFDIR = 0040000;
+    /** setuid, setgid and sticky bits - NIO would clear them */
+    private static final int SPECIAL_BITS = 07000;
 
     /**
      * Chmod task for setting file and directory permissions.
@@ -90,6 +109,7 @@ public class Chmod extends ExecuteOn {
     public void setPerm(String perm) {
         createArg().setValue(perm);
         havePerm = true;
+        this.perm = perm;
     }
 
     /**
@@ -191,6 +211,10 @@ public class Chmod extends ExecuteOn {
             }
         } else if (isValidOs()) {
             // we are chmoding the given directory
+            if (useInProcess()
+                && runInProcess(new File[] {defaultSet.getDir(getProject())})[0]) {
+                return;
+            }
             Execute execute = prepareExec();
             Commandline cloned = (Commandline) cmdl.clone();
             cloned.createArgument().setValue(defaultSet.getDir(getProject())
@@ -207,6 +231,49 @@ public class Chmod extends ExecuteOn {
         }
     }
 
+    /**
+     * Whether the permissions can be changed without running chmod.
+     * @return true if perm is the only argument and its format is
+     * supported.
+     * @since Ant 1.10.16
+     */
+    @Override
+    protected boolean canRunInProcess() {
+        return cmdl.getArguments().length == 1
+            && PermissionUtils.applyMode(perm, EnumSet.noneOf(PosixFilePermission.class),
+                                         false) != null;
+    }
+
+    /**
+     * Changes the permissions of the given file via NIO.
+     * @param file the file
+     * @return false if the file system doesn't support POSIX
+     * permissions or the file has any special mode bits set.
+     * @throws IOException if the permissions cannot be changed.
+     * @since Ant 1.10.16
+     */
+    @Override
+    protected boolean runInProcess(File file) throws IOException {
+        Path path = file.toPath();
+        int mode;
+        try {
+            mode = (Integer) Files.getAttribute(path, "unix:mode");
+        } catch (IllegalArgumentException e) {
+            // no unix view
+            return false;
+        }
+        if ((mode & SPECIAL_BITS) != 0) {
+            return false;
+        }
+        Set<PosixFilePermission> current = PermissionUtils.permissionsFromMode(mode);
+        Set<PosixFilePermission> permissions =
+            PermissionUtils.applyMode(perm, current, (mode & S_IFMT) == S_IFDIR);
+        if (!permissions.equals(current)) {
+            Files.setPosixFilePermissions(path, permissions);
+        }
+        return true;
+    }
+
     /**
      * Set the executable.
      * This is not allowed for Chmod.
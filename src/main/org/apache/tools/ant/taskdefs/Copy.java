@@ -628,7 +628,7 @@ public class Copy extends Task {
                         > destFile.lastModified())) {
                     fileCopyMap.put(file.getAbsolutePath(),
                                     new String[] {destFile.getAbsolutePath()});
-                } else {
+                } else if (getProject().isLoggable(Project.MSG_VERBOSE)) {
                     log(file + " omitted as " + destFile
                         + " is up to date.", Project.MSG_VERBOSE);
                 }
@@ -870,7 +870,9 @@ public class Copy extends Task {
                         continue;
                     }
                     try {
-                        log("Copying " + fromFile + " to " + toFile, verbosity);
+                        if (getProject().isLoggable(verbosity)) {
+                            log("Copying " + fromFile + " to " + toFile, verbosity);
+                        }
 
                         final FilterSetCollection executionFilters =
                             new FilterSetCollection();
@@ -948,8 +950,10 @@ public class Copy extends Task {
                 final Resource fromResource = e.getKey();
                 for (final String toFile : e.getValue()) {
                     try {
-                        log("Copying " + fromResource + " to " + toFile,
-                            verbosity);
+                        if (getProject().isLoggable(verbosity)) {
+                            log("Copying " + fromResource + " to " + toFile,
+                                verbosity);
+                        }
 
                         final FilterSetCollection executionFilters = new FilterSetCollection();
                         if (filtering) {
@@ -565,7 +565,7 @@ public abstract class Definer extends DefBase {
             try {
                 name = ProjectHelper.genComponentName(getURI(), name);
 
-                if (onError != OnError.IGNORE) {
+                if (onError != OnError.IGNORE && !isLazy()) {
                     cl = Class.forName(classname, true, al);
                 }
 
@@ -618,6 +618,18 @@ public abstract class Definer extends DefBase {
         }
     }
 
+    /**
+     * Whether the classes of definitions are only loaded when the
+     * definition is used for the first time.
+     *
+     * <p>Problems with the class - like it not being found - are
+     * reported when the definition is used then, rather than as
+     * specified by the onerror attribute.</p>
+     */
+    private boolean isLazy() {
+        return Project.toBoolean(getProject().getProperty(MagicNames.LAZY_DEFINITIONS));
+    }
+
     /**
      * handle too many definitions by raising an exception.
      * @throws BuildException always.
@@ -628,10 +628,6 @@ public class ExecTask extends Task {
         if (redirectorElement != null) {
             redirectorElement.configure(redirector);
         }
-        Execute exe = new Execute(createHandler(), createWatchdog());
-        exe.setAntRun(getProject());
-        exe.setWorkingDirectory(dir);
-        exe.setVMLauncher(vmLauncher);
         String[] environment = env.getVariables();
         if (environment != null) {
             for (String variable : environment) {
@@ -639,8 +635,24 @@ public class ExecTask extends Task {
                         Project.MSG_VERBOSE);
             }
         }
+        return createExecute(createHandler());
+    }
+
+    /**
+     * Creates an Execute instance configured like the one returned
+     * by {@link #prepareExec} that uses the given stream handler.
+     *
+     * @param handler the stream handler.
+     * @return an instance of the Execute class.
+     * @since Ant 1.10.16
+     */
+    Execute createExecute(ExecuteStreamHandler handler) {
+        Execute exe = new Execute(handler, createWatchdog());
+        exe.setAntRun(getProject());
+        exe.setWorkingDirectory(dir);
+        exe.setVMLauncher(vmLauncher);
         exe.setNewenvironment(newEnvironment);
-        exe.setEnvironment(environment);
+        exe.setEnvironment(env.getVariables());
         return exe;
     }
 
@@ -658,29 +670,50 @@ public class ExecTask extends Task {
 
         if (!spawn) {
             returnCode = exe.execute();
+            processResult(exe, returnCode);
+        } else {
+            exe.spawn();
+        }
+    }
 
-            //test for and handle a forced process death
-            if (exe.killedProcess()) {
-                String msg = "Timeout: killed the sub-process";
-                if (failOnError) {
-                    throw new BuildException(msg);
-                }
-                log(msg, Project.MSG_WARN);
+    /**
+     * Handles the outcome of a process that has been run by the given
+     * Execute instance and completes the redirector.
+     *
+     * @param exe the Execute instance that has run the process.
+     * @param returnCode the exit code of the process.
+     * @throws IOException if the redirector cannot be completed.
+     * @since Ant 1.10.16
+     */
+    void processResult(Execute exe, int returnCode) throws IOException {
+        //test for and handle a forced process death
+        if (exe.killedProcess()) {
+            String msg = "Timeout: killed the sub-process";
+            if (failOnError) {
+                throw new BuildException(msg);
             }
-            maybeSetResultPropertyValue(returnCode);
-            redirector.complete();
-            if (Execute.isFailure(returnCode)) {
-                if (failOnError) {
-                    throw new BuildException(getTaskType() + " returned: "
-                        + returnCode, getLocation());
-                }
-                log("Result: " + returnCode, Project.MSG_INFO);
+            log(msg, Project.MSG_WARN);
+        }
+        maybeSetResultPropertyValue(returnCode);
+        redirector.complete();
+        if (Execute.isFailure(returnCode)) {
+            if (failOnError) {
+                throw new BuildException(getTaskType() + " returned: "
+                    + returnCode, getLocation());
             }
-        } else {
-            exe.spawn();
+            log("Result: " + returnCode, Project.MSG_INFO);
         }
     }
 
+    /**
+     * Whether the process is going to be spawned.
+     * @return true if spawn has been set.
+     * @since Ant 1.10.16
+     */
+    boolean isSpawn() {
+        return spawn;
+    }
+
     /**
      * Run the command using the given Execute instance. This may be
      * overridden by subclasses.
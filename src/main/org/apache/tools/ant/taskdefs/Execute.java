@@ -37,6 +37,7 @@ import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.taskdefs.launcher.CommandLauncher;
 import org.apache.tools.ant.types.Commandline;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.Instrumentation;
 
 /**
  * Runs an external program.
@@ -421,7 +422,42 @@ public class Execute {
         CommandLauncher vmLauncher = CommandLauncher.getVMLauncher(project);
         CommandLauncher launcher = (useVM && vmLauncher != null)
             ? vmLauncher : CommandLauncher.getShellLauncher(project);
-        return launcher.exec(project, command, env, dir);
+        Instrumentation.Span span = Instrumentation.processLaunch(command, dir);
+        try {
+            return launcher.exec(project, command, env, dir);
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Launches the process with its streams connected to files by
+     * the operating system if the launcher supports it.
+     */
+    private Process launchRedirected(FileRedirectingStreamHandler handler)
+        throws IOException {
+        final CommandLauncher launcher = useVMLauncher
+            ? CommandLauncher.getVMLauncher(project) : null;
+        if (launcher != null) {
+            final String[] command = getCommandline();
+            final Instrumentation.Span span =
+                Instrumentation.processLaunch(command, workingDirectory);
+            try {
+                final Process process = launcher.exec(project, command, getEnvironment(),
+                                                      workingDirectory,
+                                                      handler.getInputRedirect(),
+                                                      handler.getOutputRedirect(),
+                                                      handler.getErrorRedirect());
+                if (process != null) {
+                    handler.setRedirected();
+                    return process;
+                }
+            } finally {
+                span.end();
+            }
+        }
+        return launch(project, getCommandline(), getEnvironment(), workingDirectory,
+                      useVMLauncher);
     }
 
     /**
@@ -435,9 +471,10 @@ public class Execute {
         if (workingDirectory != null && !workingDirectory.exists()) {
             throw new BuildException("%s doesn't exist.", workingDirectory);
         }
-        final Process process = launch(project, getCommandline(),
-                                       getEnvironment(), workingDirectory,
-                                       useVMLauncher);
+        final Process process = streamHandler instanceof FileRedirectingStreamHandler
+            ? launchRedirected((FileRedirectingStreamHandler) streamHandler)
+            : launch(project, getCommandline(), getEnvironment(), workingDirectory,
+                     useVMLauncher);
         try {
             streamHandler.setProcessInputStream(process.getOutputStream());
             streamHandler.setProcessOutputStream(process.getInputStream());
@@ -18,13 +18,23 @@
 
 package org.apache.tools.ant.taskdefs;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
@@ -48,6 +58,12 @@ import org.apache.tools.ant.util.SourceFileScanner;
 /**
  * Executes a given command, supplying a set of files as arguments.
  *
+ * <p>If <code>threads</code> is bigger than one, the commands for
+ * the individual files (or batches of files) run concurrently.  The
+ * output of each command is collected in memory and passed on in the
+ * order the commands have been created once the command has
+ * finished.</p>
+ *
  * @since Ant 1.2
  *
  * @ant.task category="control" name="apply"
@@ -82,6 +98,10 @@ public class ExecuteOn extends ExecTask {
     private boolean verbose = false;
     private boolean ignoreMissing = true;
     private boolean force = false;
+    private int threads = 1;
+    private ConcurrentRun concurrentRun = null;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
     /**
      * Has &lt;srcfile&gt; been specified before &lt;targetfile&gt;
@@ -244,6 +264,20 @@ public class ExecuteOn extends ExecTask {
         force = b;
     }
 
+    /**
+     * Maximum number of commands to run at the same time.
+     * The default value is 1.
+     *
+     * <p>Has no effect on commands that read input or if
+     * <code>spawn</code> is true.</p>
+     *
+     * @param threads the number of threads to use.
+     * @since Ant 1.10.16
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
     /**
      * Create a placeholder indicating where on the command line
      * the name of the source file should be inserted.
@@ -333,8 +367,9 @@ public class ExecuteOn extends ExecTask {
      */
     @Override
     protected ExecuteStreamHandler createHandler() throws BuildException {
-        //if we have a RedirectorElement, return a decoy
-        return (redirectorElement == null) ? super.createHandler() : new PumpStreamHandler();
+        //if we have a RedirectorElement or run concurrently, return a decoy
+        return (redirectorElement == null && !isConcurrent())
+            ? super.createHandler() : new PumpStreamHandler();
     }
 
     /**
@@ -356,6 +391,9 @@ public class ExecuteOn extends ExecTask {
         int totalFiles = 0;
         int totalDirs = 0;
         boolean haveExecuted = false;
+        if (isConcurrent()) {
+            concurrentRun = new ConcurrentRun();
+        }
         try {
             Vector<String> fileNames = new Vector<>();
             Vector<File> baseDirs = new Vector<>();
@@ -393,21 +431,8 @@ public class ExecuteOn extends ExecTask {
                 }
                 if (!parallel) {
                     for (String srcFile : fileNames) {
-                        String[] command = getCommandline(srcFile, base);
-                        log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-                        exe.setCommandline(command);
-
-                        if (redirectorElement != null) {
-                            setupRedirector();
-                            redirectorElement.configure(redirector, srcFile);
-                        }
-                        if (redirectorElement != null || haveExecuted) {
-                            // need to reset the stream handler to restart
-                            // reading of pipes;
-                            // go ahead and do it always w/ nested redirectors
-                            exe.setStreamHandler(redirector.createHandler());
-                        }
-                        runExecute(exe);
+                        runCommand(exe, getCommandline(srcFile, base), srcFile,
+                                   haveExecuted);
                         haveExecuted = true;
                     }
                     fileNames.clear();
@@ -449,21 +474,8 @@ public class ExecuteOn extends ExecTask {
                     fileNames.add(name);
 
                     if (!parallel) {
-                        String[] command = getCommandline(name, base);
-                        log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-                        exe.setCommandline(command);
-
-                        if (redirectorElement != null) {
-                            setupRedirector();
-                            redirectorElement.configure(redirector, name);
-                        }
-                        if (redirectorElement != null || haveExecuted) {
-                            // need to reset the stream handler to restart
-                            // reading of pipes;
-                            // go ahead and do it always w/ nested redirectors
-                            exe.setStreamHandler(redirector.createHandler());
-                        }
-                        runExecute(exe);
+                        runCommand(exe, getCommandline(name, base), name,
+                                   haveExecuted);
                         haveExecuted = true;
                         fileNames.clear();
                         baseDirs.clear();
@@ -474,6 +486,9 @@ public class ExecuteOn extends ExecTask {
                 runParallel(exe, fileNames, baseDirs);
                 haveExecuted = true;
             }
+            if (concurrentRun != null) {
+                concurrentRun.await();
+            }
             if (haveExecuted) {
                 log("Applied " + cmdl.getExecutable() + " to " + totalFiles + " file"
                     + (totalFiles != 1 ? "s" : "") + " and " + totalDirs + " director"
@@ -483,6 +498,10 @@ public class ExecuteOn extends ExecTask {
         } catch (IOException e) {
             throw new BuildException("Execute failed: " + e, e, getLocation());
         } finally {
+            if (concurrentRun != null) {
+                concurrentRun.shutdown();
+                concurrentRun = null;
+            }
             // close the output file if required
             logFlush();
             redirector.setAppendProperties(false);
@@ -687,19 +706,31 @@ public class ExecuteOn extends ExecTask {
     protected void runParallel(Execute exe, Vector<String> fileNames,
                                Vector<File> baseDirs)
         throws IOException, BuildException {
+        if (!fileNames.isEmpty() && useInProcess()) {
+            File[] files = new File[fileNames.size()];
+            for (int i = 0; i < files.length; i++) {
+                files[i] = new File(baseDirs.get(i), fileNames.get(i));
+            }
+            boolean[] handled = runInProcess(files);
+            Vector<String> remainingNames = new Vector<>();
+            Vector<File> remainingDirs = new Vector<>();
+            for (int i = 0; i < handled.length; i++) {
+                if (!handled[i]) {
+                    remainingNames.add(fileNames.get(i));
+                    remainingDirs.add(baseDirs.get(i));
+                }
+            }
+            if (remainingNames.isEmpty()) {
+                return;
+            }
+            fileNames = remainingNames;
+            baseDirs = remainingDirs;
+        }
         String[] s = fileNames.toArray(new String[0]);
         File[] b = baseDirs.toArray(new File[0]);
 
         if (maxParallel <= 0 || s.length == 0 /* this is skipEmpty == false */) {
-            String[] command = getCommandline(s, b);
-            log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-            exe.setCommandline(command);
-            if (redirectorElement != null) {
-                setupRedirector();
-                redirectorElement.configure(redirector, null);
-                exe.setStreamHandler(redirector.createHandler());
-            }
-            runExecute(exe);
+            runCommand(exe, getCommandline(s, b), null, false);
         } else {
             int stillToDo = fileNames.size();
             int currentOffset = 0;
@@ -709,20 +740,7 @@ public class ExecuteOn extends ExecTask {
                 System.arraycopy(s, currentOffset, cs, 0, currentAmount);
                 File[] cb = new File[currentAmount];
                 System.arraycopy(b, currentOffset, cb, 0, currentAmount);
-                String[] command = getCommandline(cs, cb);
-                log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
-                exe.setCommandline(command);
-                if (redirectorElement != null) {
-                    setupRedirector();
-                    redirectorElement.configure(redirector, null);
-                }
-                if (redirectorElement != null || currentOffset > 0) {
-                    // need to reset the stream handler to restart
-                    // reading of pipes;
-                    // go ahead and do it always w/ nested redirectors
-                    exe.setStreamHandler(redirector.createHandler());
-                }
-                runExecute(exe);
+                runCommand(exe, getCommandline(cs, cb), null, currentOffset > 0);
 
                 stillToDo -= currentAmount;
                 currentOffset += currentAmount;
@@ -730,6 +748,139 @@ public class ExecuteOn extends ExecTask {
         }
     }
 
+    /**
+     * Runs a single command or hands it to the concurrent run if
+     * there is one and the command doesn't need any input.
+     *
+     * @param exe the Executable to use.
+     * @param command the command line.
+     * @param srcFile the source file used to configure a nested
+     * redirector, may be null.
+     * @param haveExecuted whether <code>exe</code> has already been
+     * used to run a command.
+     */
+    private void runCommand(Execute exe, String[] command, String srcFile,
+                            boolean haveExecuted) throws IOException {
+        log(Commandline.describeCommand(command), Project.MSG_VERBOSE);
+        if (redirectorElement != null) {
+            setupRedirector();
+            redirectorElement.configure(redirector, srcFile);
+        }
+        if (concurrentRun != null) {
+            if (!redirector.hasInput()) {
+                concurrentRun.submit(command, srcFile);
+                return;
+            }
+            // input can only be read by one process, wait for the
+            // running commands and run this one on its own
+            concurrentRun.await();
+            if (redirectorElement != null) {
+                setupRedirector();
+                redirectorElement.configure(redirector, srcFile);
+            }
+        }
+        exe.setCommandline(command);
+        if (redirectorElement != null || haveExecuted || concurrentRun != null) {
+            // need to reset the stream handler to restart
+            // reading of pipes;
+            // go ahead and do it always w/ nested redirectors
+            exe.setStreamHandler(redirector.createHandler());
+        }
+        runExecute(exe);
+    }
+
+    private boolean isConcurrent() {
+        return threads > 1 && !isSpawn();
+    }
+
+    /**
+     * Whether the effect of the command could be achieved without
+     * starting a process.
+     *
+     * <p>This implementation returns false, subclasses that return
+     * true must override {@link #runInProcess(File)} as well.  Only
+     * used for tasks running in parallel mode without mapper and
+     * source file prefixes or suffixes.</p>
+     *
+     * @return true if {@link #runInProcess(File)} may be used.
+     * @since Ant 1.10.16
+     */
+    protected boolean canRunInProcess() {
+        return false;
+    }
+
+    /**
+     * Achieves the effect the command would have on the given file
+     * without starting a process.
+     *
+     * <p>Gets invoked concurrently for different files.  This
+     * implementation returns false.</p>
+     *
+     * @param file the file.
+     * @return false if the command needs to be run for the file.
+     * @throws IOException if the file cannot be processed.
+     * @since Ant 1.10.16
+     */
+    protected boolean runInProcess(File file) throws IOException {
+        return false;
+    }
+
+    /**
+     * Whether files may be handled by {@link #runInProcess(File)}.
+     * @return true if files may be handled by {@link #runInProcess(File)}.
+     */
+    boolean useInProcess() {
+        return !relative && mapper == null && srcFilePos == null
+            && targetFilePos == null && !isSpawn() && canRunInProcess();
+    }
+
+    /**
+     * Handles the given files in-process using multiple threads.
+     *
+     * @param files the files.
+     * @return for each file whether it has been handled, the command
+     * needs to be run for the files that haven't.
+     */
+    boolean[] runInProcess(File[] files) {
+        final boolean[] handled = new boolean[files.length];
+        final IOException[] failures = new IOException[files.length];
+        IntStream.range(0, files.length).parallel().forEach(i -> {
+            try {
+                handled[i] = runInProcess(files[i]);
+            } catch (IOException e) {
+                failures[i] = e;
+            } catch (UnsupportedOperationException e) {
+                handled[i] = false;
+            }
+        });
+        int count = 0;
+        IOException firstFailure = null;
+        for (int i = 0; i < files.length; i++) {
+            if (failures[i] != null) {
+                log(failures[i].toString(), Project.MSG_WARN);
+                if (firstFailure == null) {
+                    firstFailure = failures[i];
+                }
+                handled[i] = true;
+            } else if (handled[i]) {
+                count++;
+            }
+        }
+        log("Handled " + count + " of " + files.length + " files without running "
+            + cmdl.getExecutable(), Project.MSG_VERBOSE);
+        if (firstFailure != null) {
+            if (failOnError) {
+                throw new BuildException(getTaskType() + " failed: " + firstFailure,
+                                         firstFailure, getLocation());
+            }
+            maybeSetResultPropertyValue(1);
+            log("Result: 1", Project.MSG_INFO);
+        } else if (count == files.length) {
+            maybeSetResultPropertyValue(0);
+        }
+        return handled;
+    }
+
     /**
      * Inserts target file names (which are already absolute paths)
      * into the list of arguments, taking prefix and postfix into
@@ -750,6 +901,154 @@ public class ExecuteOn extends ExecTask {
         }
     }
 
+    /**
+     * Commands running on a pool of threads.
+     *
+     * <p>Once a command has failed and <code>failonerror</code> is
+     * set, no further commands are started.  The output and result of
+     * each command that has run is passed on in the order the
+     * commands have been submitted as soon as the command and all
+     * commands submitted before it have finished, the first failure
+     * is thrown once all commands have been passed on.</p>
+     *
+     * <p>At most twice as many commands as there are threads are kept
+     * waiting to be passed on, submitting further commands blocks
+     * until the oldest command has finished.</p>
+     */
+    private final class ConcurrentRun {
+        private final ExecutorService pool;
+        private final AtomicBoolean abort = new AtomicBoolean();
+        private final Deque<Invocation> pending = new ArrayDeque<>();
+        private BuildException firstFailure;
+        private int skipped;
+
+        private ConcurrentRun() {
+            log("Running commands using " + threads + " threads", Project.MSG_VERBOSE);
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "apply-" + THREAD_COUNT.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        private void submit(String[] command, String srcFile) throws IOException {
+            Invocation invocation = new Invocation(command, srcFile);
+            invocation.future = pool.submit(() -> invocation.run(abort));
+            pending.add(invocation);
+            while (!pending.isEmpty()
+                   && (pending.peek().future.isDone() || pending.size() > 2 * threads)) {
+                passOn(pending.remove());
+            }
+        }
+
+        /**
+         * Waits for all submitted commands to finish and passes on
+         * their output and results.
+         */
+        private void await() throws IOException {
+            while (!pending.isEmpty()) {
+                passOn(pending.remove());
+            }
+            if (skipped > 0) {
+                log(skipped + " commands have not been run after a failure",
+                    Project.MSG_VERBOSE);
+                skipped = 0;
+            }
+            if (firstFailure != null) {
+                BuildException e = firstFailure;
+                firstFailure = null;
+                throw e;
+            }
+        }
+
+        /**
+         * Waits for the command to finish and passes on its output
+         * and result, remembering the first failure.
+         */
+        private void passOn(Invocation invocation) throws IOException {
+            try {
+                invocation.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BuildException("interrupted while waiting for commands",
+                                         e, getLocation());
+            } catch (ExecutionException e) {
+                invocation.failure = e.getCause();
+            }
+            if (invocation.skipped) {
+                skipped++;
+                return;
+            }
+            try {
+                complete(invocation);
+            } catch (BuildException e) {
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+
+        private void complete(Invocation invocation) throws IOException {
+            if (redirectorElement != null) {
+                setupRedirector();
+                redirectorElement.configure(redirector, invocation.srcFile);
+            }
+            redirector.createStreams();
+            invocation.out.writeTo(redirector.getOutputStream());
+            invocation.err.writeTo(redirector.getErrorStream());
+            if (invocation.failure != null) {
+                redirector.complete();
+                if (invocation.failure instanceof BuildException) {
+                    throw (BuildException) invocation.failure;
+                }
+                throw new BuildException("Execute failed: " + invocation.failure,
+                                         invocation.failure, getLocation());
+            }
+            processResult(invocation.exe, invocation.returnCode);
+        }
+
+        private void shutdown() {
+            abort.set(true);
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A single command of a concurrent run.
+     */
+    private final class Invocation {
+        private final String srcFile;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        private final Execute exe;
+        private Future<?> future;
+        private int returnCode = -1;
+        private Throwable failure;
+        private boolean skipped;
+
+        private Invocation(String[] command, String srcFile) {
+            this.srcFile = srcFile;
+            exe = createExecute(new PumpStreamHandler(out, err));
+            exe.setCommandline(command);
+        }
+
+        private void run(AtomicBoolean abort) {
+            if (abort.get()) {
+                skipped = true;
+                return;
+            }
+            try {
+                returnCode = exe.execute();
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+            if (failure != null || (failOnError
+                    && (exe.killedProcess() || Execute.isFailure(returnCode)))) {
+                abort.set(true);
+            }
+        }
+    }
+
     /**
      * Enumerated attribute with the values "file", "dir" and "both"
      * for the type attribute.
@@ -0,0 +1,128 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.tools.ant.util.NullOutputStream;
+
+/**
+ * Stream handler created by {@link Redirector} if the output and
+ * error output of a process go to files without any processing.
+ *
+ * <p>If {@link Execute} manages to launch the process with its
+ * streams connected to the files by the operating system, no threads
+ * are needed to copy the output.  Otherwise the handler behaves like
+ * the {@link PumpStreamHandler} Redirector would have created.</p>
+ *
+ * @since Ant 1.10.16
+ */
+class FileRedirectingStreamHandler implements ExecuteStreamHandler {
+
+    private final Redirector redirector;
+    private final boolean nonBlockingRead;
+    private boolean redirected;
+    private ExecuteStreamHandler delegate;
+
+    FileRedirectingStreamHandler(Redirector redirector, boolean nonBlockingRead) {
+        this.redirector = redirector;
+        this.nonBlockingRead = nonBlockingRead;
+    }
+
+    /**
+     * @return the redirect for input, null if the input has to be
+     * written to the process.
+     */
+    ProcessBuilder.Redirect getInputRedirect() {
+        return redirector.getInputRedirect();
+    }
+
+    /**
+     * @return the redirect for output.
+     */
+    ProcessBuilder.Redirect getOutputRedirect() {
+        return redirector.getOutputRedirect();
+    }
+
+    /**
+     * @return the redirect for error output, null if it is to be
+     * merged into output.
+     */
+    ProcessBuilder.Redirect getErrorRedirect() {
+        return redirector.getErrorRedirect();
+    }
+
+    /**
+     * Tells the handler the process has been launched with the
+     * redirects, so output and error output don't need to be copied.
+     */
+    void setRedirected() {
+        redirected = true;
+    }
+
+    @Override
+    public void setProcessInputStream(OutputStream os) throws IOException {
+        getDelegate().setProcessInputStream(os);
+    }
+
+    @Override
+    public void setProcessErrorStream(InputStream is) throws IOException {
+        if (!redirected) {
+            getDelegate().setProcessErrorStream(is);
+        }
+    }
+
+    @Override
+    public void setProcessOutputStream(InputStream is) throws IOException {
+        if (!redirected) {
+            getDelegate().setProcessOutputStream(is);
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        getDelegate().start();
+    }
+
+    @Override
+    public void stop() {
+        getDelegate().stop();
+    }
+
+    private ExecuteStreamHandler getDelegate() {
+        if (delegate == null) {
+            if (redirected) {
+                redirector.createStreamsForRedirectedProcess();
+                InputStream input = getInputRedirect() == null
+                    ? redirector.getInputStream() : null;
+                delegate = new PumpStreamHandler(NullOutputStream.INSTANCE,
+                                                 NullOutputStream.INSTANCE,
+                                                 input, nonBlockingRead);
+            } else {
+                redirector.createStreams();
+                delegate = new PumpStreamHandler(redirector.getOutputStream(),
+                                                 redirector.getErrorStream(),
+                                                 redirector.getInputStream(),
+                                                 nonBlockingRead);
+            }
+        }
+        return delegate;
+    }
+}
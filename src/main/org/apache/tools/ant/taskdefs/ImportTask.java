@@ -21,7 +21,9 @@ package org.apache.tools.ant.taskdefs;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Objects;
 import java.util.Vector;
+import java.util.stream.Collectors;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.MagicNames;
@@ -29,6 +31,7 @@ import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectHelper;
 import org.apache.tools.ant.ProjectHelperRepository;
 import org.apache.tools.ant.Task;
+import org.apache.tools.ant.helper.ImportPrefetcher;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
 import org.apache.tools.ant.types.resources.FileProvider;
@@ -161,6 +164,11 @@ public class ImportTask extends Task {
         if (fromFileAttribute != null) {
             resources.add(fromFileAttribute);
         }
+        if (resourcesToImport.size() > 1) {
+            ImportPrefetcher.prefetch(getProject(), resourcesToImport.stream()
+                .map(r -> r.as(FileProvider.class)).filter(Objects::nonNull)
+                .map(FileProvider::getFile).collect(Collectors.toList()));
+        }
         for (Resource r : resourcesToImport) {
             importResource(helper, r);
         }
@@ -38,6 +38,7 @@ import org.apache.tools.ant.types.PropertySet;
 import org.apache.tools.ant.types.RedirectorElement;
 import org.apache.tools.ant.types.Reference;
 import org.apache.tools.ant.util.KeepAliveInputStream;
+import org.apache.tools.ant.util.LoaderUtils;
 import org.apache.tools.ant.util.SecurityManagerUtil;
 import org.apache.tools.ant.util.StringUtils;
 
@@ -226,6 +227,9 @@ public class Java extends Task {
                     spawn(commandLine.getCommandline());
                     return 0;
                 }
+                if (canUseWorkerPool(commandLine)) {
+                    return forkInWorker(commandLine);
+                }
                 return fork(commandLine.getCommandline());
             }
             try {
@@ -920,6 +924,72 @@ public class Java extends Task {
         }
     }
 
+    /**
+     * Whether the class can be run inside a JVM of the {@link
+     * JavaWorkerPool}.
+     */
+    private boolean canUseWorkerPool(CommandlineJava commandLine) {
+        return JavaWorkerPool.isEnabled(getProject())
+            && commandLine.getClassname() != null && commandLine.getJar() == null
+            && commandLine.getSourceFile() == null && !redirector.hasInput()
+            && !Os.isFamily("openvms")
+            && LoaderUtils.getClassSource(JavaWorker.class) != null;
+    }
+
+    /**
+     * Executes the given classname with the given arguments in a
+     * forked VM taken from the {@link JavaWorkerPool}.
+     * @param commandLine the command line.
+     * @return the exit code of the invoked class.
+     */
+    private int forkInWorker(CommandlineJava commandLine) throws BuildException {
+        CommandlineJava workerCommand;
+        try {
+            workerCommand = (CommandlineJava) commandLine.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new BuildException(e);
+        }
+        workerCommand.setClassname(JavaWorker.class.getName());
+        workerCommand.clearJavaArgs();
+        workerCommand.createClasspath(getProject())
+            .setLocation(LoaderUtils.getClassSource(JavaWorker.class));
+        Execute exe = new Execute();
+        setupExecutable(exe, workerCommand.getCommandline());
+
+        JavaWorkerPool pool = JavaWorkerPool.getPool(getProject());
+        try {
+            JavaWorkerPool.Worker worker = pool.acquire(getProject(),
+                exe.getCommandline(), exe.getEnvironment(), exe.getWorkingDirectory());
+            try {
+                ExecuteWatchdog watchdog = createWatchdog();
+                int rc;
+                try {
+                    redirector.createStreams();
+                    if (watchdog != null) {
+                        watchdog.start(worker.getProcess());
+                    }
+                    rc = worker.run(commandLine.getClassname(),
+                                    commandLine.getJavaCommand().getArguments(),
+                                    redirector.getOutputStream(),
+                                    redirector.getErrorStream());
+                } finally {
+                    if (watchdog != null) {
+                        watchdog.stop();
+                    }
+                    redirector.complete();
+                }
+                if (watchdog != null && watchdog.killedProcess()) {
+                    throw new BuildException(TIMEOUT_MESSAGE);
+                }
+                return rc;
+            } finally {
+                pool.release(worker);
+            }
+        } catch (IOException e) {
+            throw new BuildException(e, getLocation());
+        }
+    }
+
     /**
      * Executes the given classname with the given arguments in a separate VM.
      * @param command String[] of command-line arguments.
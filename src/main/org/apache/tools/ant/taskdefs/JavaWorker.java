@@ -0,0 +1,186 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Main class of the JVMs kept alive by {@link JavaWorkerPool}.
+ *
+ * <p>Reads the name of a class and its arguments from standard
+ * input, runs the class' main method and reports the output of the
+ * class and its exit code on standard output, then waits for the
+ * next class.  Standard input of the invoked class is empty.  A class
+ * that invokes <code>System.exit</code> terminates the worker.</p>
+ *
+ * <p>This class must not use any other Ant class as the worker JVM
+ * doesn't necessarily see the rest of Ant.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public final class JavaWorker {
+
+    /** Frame holding output written to System.out. */
+    static final int OUTPUT = 1;
+    /** Frame holding output written to System.err. */
+    static final int ERROR = 2;
+    /** Frame holding the exit code of an invocation. */
+    static final int EXIT = 3;
+
+    private final DataInputStream requests;
+    private final DataOutputStream replies;
+
+    private JavaWorker(DataInputStream requests, DataOutputStream replies) {
+        this.requests = requests;
+        this.replies = replies;
+    }
+
+    /**
+     * Serves requests until standard input is closed.
+     * @param args ignored.
+     * @throws IOException if the communication with Ant fails.
+     */
+    public static void main(String[] args) throws IOException {
+        JavaWorker worker = new JavaWorker(
+            new DataInputStream(new BufferedInputStream(System.in)),
+            new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out))));
+        PrintStream out = worker.createStream(OUTPUT);
+        PrintStream err = worker.createStream(ERROR);
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        System.setOut(out);
+        System.setErr(err);
+        // output written right before System.exit must not get lost
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            out.flush();
+            err.flush();
+        }));
+        worker.serve();
+    }
+
+    private void serve() throws IOException {
+        while (true) {
+            String classname;
+            try {
+                classname = readString(requests);
+            } catch (EOFException e) {
+                return;
+            }
+            String[] args = new String[requests.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readString(requests);
+            }
+            int exitCode = invoke(classname, args);
+            System.out.flush();
+            System.err.flush();
+            synchronized (replies) {
+                replies.writeByte(EXIT);
+                replies.writeInt(exitCode);
+                replies.flush();
+            }
+        }
+    }
+
+    /**
+     * Runs the main method of the given class and waits for all
+     * non-daemon threads it has started, like a JVM would.
+     * @return the exit code a fresh JVM would have used.
+     */
+    private static int invoke(String classname, String[] args) {
+        Set<Thread> before = new HashSet<>(Thread.getAllStackTraces().keySet());
+        int exitCode = 0;
+        try {
+            Class<?> c = Class.forName(classname, true, ClassLoader.getSystemClassLoader());
+            Method main = c.getMethod("main", String[].class);
+            if (!Modifier.isStatic(main.getModifiers())) {
+                throw new NoSuchMethodException(classname + ".main is not static");
+            }
+            main.setAccessible(true);
+            main.invoke(null, (Object) args);
+        } catch (InvocationTargetException e) {
+            System.err.print("Exception in thread \"main\" ");
+            e.getCause().printStackTrace();
+            exitCode = 1;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Error: Could not find or load main class " + classname);
+            System.err.println("Caused by: " + e);
+            exitCode = 1;
+        }
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (!before.contains(t) && !t.isDaemon() && t != Thread.currentThread()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return exitCode;
+    }
+
+    private PrintStream createStream(int type) {
+        return new PrintStream(new BufferedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (replies) {
+                    replies.writeByte(type);
+                    replies.writeInt(len);
+                    replies.write(b, off, len);
+                    replies.flush();
+                }
+            }
+        }), true);
+    }
+
+    /**
+     * Writes a string of arbitrary length, unlike writeUTF.
+     */
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
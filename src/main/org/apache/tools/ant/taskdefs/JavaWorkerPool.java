@@ -0,0 +1,353 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+
+/**
+ * Pool of forked JVMs that run the main methods of the classes
+ * invoked by <code>&lt;java fork="true"&gt;</code> one after the
+ * other, so the cost of starting a JVM is only paid once per
+ * distinct command line.
+ *
+ * <p>Workers are keyed by the full command line used to start them -
+ * JVM, JVM arguments, system properties and classpath - as well as
+ * their working directory and environment.  A worker is only used by
+ * a single task at a time; tasks running in parallel start additional
+ * workers.  Workers whose invoked class called
+ * <code>System.exit</code> or that have been killed by a timeout are
+ * not reused.  Classes loaded by one invocation, and their static
+ * state, remain visible to later invocations in the same worker.</p>
+ *
+ * <p>The pool is stored as a reference inside the project that
+ * created it and handed down to subprojects by {@link
+ * Project#initSubProject Project#initSubProject}.  <code>&lt;ant&gt;</code>
+ * creates the pool in the calling project before it creates the
+ * subproject, so sibling sub-builds share the workers of their
+ * parent.  All workers are terminated once the build - or sub-build
+ * - of the project owning the pool has finished.</p>
+ *
+ * <p>Pooling is enabled by setting the magic property {@link
+ * MagicNames#JAVA_WORKER_POOL ant.java.workerpool}.</p>
+ *
+ * @since Ant 1.10.16
+ */
+final class JavaWorkerPool implements SubBuildListener {
+
+    private static final AtomicInteger WORKER_COUNT = new AtomicInteger();
+    private static final AtomicInteger LIVE_WORKERS = new AtomicInteger();
+
+    private final Project owner;
+    private final Map<Key, Deque<Worker>> idle = new HashMap<>();
+    private final List<Worker> all = new ArrayList<>();
+
+    private JavaWorkerPool(Project owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Finds the pool used by the given project, creating one if
+     * there is none yet.
+     */
+    static synchronized JavaWorkerPool getPool(Project project) {
+        JavaWorkerPool pool = project.getReference(MagicNames.REFID_JAVA_WORKER_POOL);
+        if (pool == null) {
+            pool = new JavaWorkerPool(project);
+            project.addReference(MagicNames.REFID_JAVA_WORKER_POOL, pool);
+            project.addBuildListener(pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Whether the pool has been enabled for the project.
+     */
+    static boolean isEnabled(Project project) {
+        return Project.toBoolean(project.getProperty(MagicNames.JAVA_WORKER_POOL));
+    }
+
+    /**
+     * Takes an idle worker started by the given command or starts a
+     * new one.
+     *
+     * @param project the project used for logging.
+     * @param command command line starting {@link JavaWorker}.
+     * @param env the environment of the worker, may be null.
+     * @param dir the working directory of the worker.
+     * @return a worker reserved for the caller until it is {@link
+     * #release released}.
+     * @throws IOException if the worker cannot be started.
+     */
+    Worker acquire(Project project, String[] command, String[] env, File dir)
+        throws IOException {
+        Key key = new Key(command, env, dir);
+        synchronized (this) {
+            Deque<Worker> workers = idle.get(key);
+            Worker w = workers == null ? null : workers.poll();
+            if (w != null) {
+                project.log("Reusing forked JVM " + w.name, Project.MSG_VERBOSE);
+                return w;
+            }
+        }
+        Worker w = new Worker(key, Execute.launch(project, command, env, dir, true));
+        project.log("Started forked JVM " + w.name + " for later reuse",
+                    Project.MSG_VERBOSE);
+        synchronized (this) {
+            all.add(w);
+        }
+        LIVE_WORKERS.incrementAndGet();
+        return w;
+    }
+
+    /**
+     * Number of workers of all pools that have been started and not
+     * been terminated yet.
+     */
+    static int getLiveWorkerCount() {
+        return LIVE_WORKERS.get();
+    }
+
+    /**
+     * Makes a worker available to other tasks again, or discards it
+     * if it is no longer usable.
+     */
+    synchronized void release(Worker w) {
+        if (w.isAlive()) {
+            idle.computeIfAbsent(w.key, k -> new ArrayDeque<>()).push(w);
+        } else {
+            w.destroy();
+            if (all.remove(w)) {
+                LIVE_WORKERS.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Terminates all workers.
+     */
+    synchronized void shutdown() {
+        all.forEach(Worker::destroy);
+        LIVE_WORKERS.addAndGet(-all.size());
+        all.clear();
+        idle.clear();
+    }
+
+    @Override
+    public void buildFinished(BuildEvent event) {
+        if (event.getProject() == owner) {
+            shutdown();
+        }
+    }
+
+    @Override
+    public void subBuildFinished(BuildEvent event) {
+        if (event.getProject() == owner) {
+            shutdown();
+        }
+    }
+
+    @Override
+    public void subBuildStarted(BuildEvent event) {
+    }
+
+    @Override
+    public void buildStarted(BuildEvent event) {
+    }
+
+    @Override
+    public void targetStarted(BuildEvent event) {
+    }
+
+    @Override
+    public void targetFinished(BuildEvent event) {
+    }
+
+    @Override
+    public void taskStarted(BuildEvent event) {
+    }
+
+    @Override
+    public void taskFinished(BuildEvent event) {
+    }
+
+    @Override
+    public void messageLogged(BuildEvent event) {
+    }
+
+    /**
+     * A forked JVM running {@link JavaWorker}.
+     */
+    final class Worker {
+        private final Key key;
+        private final Process process;
+        private final String name = "java-worker-" + WORKER_COUNT.incrementAndGet();
+        private final DataOutputStream requests;
+        private final DataInputStream replies;
+        private boolean alive = true;
+
+        private Worker(Key key, Process process) {
+            this.key = key;
+            this.process = process;
+            requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            replies = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            // messages of the JVM itself, like the ones caused by
+            // JAVA_TOOL_OPTIONS
+            Thread t = new Thread(() -> {
+                try (BufferedReader r = new BufferedReader(
+                         new InputStreamReader(process.getErrorStream()))) {
+                    String line;
+                    while ((line = r.readLine()) != null) {
+                        owner.log(name + ": " + line, Project.MSG_VERBOSE);
+                    }
+                } catch (IOException e) {
+                    // worker has gone
+                }
+            }, name);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        /**
+         * The process of the worker, needed to kill it on timeouts.
+         */
+        Process getProcess() {
+            return process;
+        }
+
+        /**
+         * Runs the main method of a class inside the worker.
+         *
+         * @param classname the class to run.
+         * @param args its arguments.
+         * @param out receives the standard output of the class.
+         * @param err receives the standard error output of the class.
+         * @return the exit code.
+         * @throws IOException if the communication with the worker
+         * fails.
+         */
+        int run(String classname, String[] args, OutputStream out, OutputStream err)
+            throws IOException {
+            try {
+                JavaWorker.writeString(requests, classname);
+                requests.writeInt(args.length);
+                for (String arg : args) {
+                    JavaWorker.writeString(requests, arg);
+                }
+                requests.flush();
+                byte[] buffer = new byte[0];
+                while (true) {
+                    int type = replies.readByte();
+                    if (type == JavaWorker.EXIT) {
+                        return replies.readInt();
+                    }
+                    int length = replies.readInt();
+                    if (buffer.length < length) {
+                        buffer = new byte[length];
+                    }
+                    replies.readFully(buffer, 0, length);
+                    (type == JavaWorker.ERROR ? err : out).write(buffer, 0, length);
+                }
+            } catch (EOFException e) {
+                // System.exit, crash or killed by a timeout
+                return exited();
+            } catch (IOException e) {
+                if (process.isAlive()) {
+                    alive = false;
+                    throw e;
+                }
+                return exited();
+            }
+        }
+
+        private int exited() throws IOException {
+            alive = false;
+            try {
+                return process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for " + name, e);
+            }
+        }
+
+        private boolean isAlive() {
+            return alive && process.isAlive();
+        }
+
+        private void destroy() {
+            try {
+                requests.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            process.destroy();
+        }
+    }
+
+    private static final class Key {
+        private final List<String> command;
+        private final List<String> env;
+        private final File dir;
+
+        private Key(String[] command, String[] env, File dir) {
+            this.command = Arrays.asList(command);
+            this.env = env == null ? null : Arrays.asList(env);
+            this.dir = dir;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return command.equals(other.command) && Objects.equals(env, other.env)
+                && Objects.equals(dir, other.dir);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(command, env, dir);
+        }
+    }
+}
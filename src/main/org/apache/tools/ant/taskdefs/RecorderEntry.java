@@ -25,6 +25,7 @@ import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.BuildLogger;
 import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.LevelAwareBuildListener;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.SubBuildListener;
 import org.apache.tools.ant.util.FileUtils;
@@ -35,7 +36,8 @@ import org.apache.tools.ant.util.FileUtils;
  *
  * @since Ant 1.4
  */
-public class RecorderEntry implements BuildLogger, SubBuildListener {
+public class RecorderEntry implements BuildLogger, SubBuildListener,
+    LevelAwareBuildListener {
 
     //////////////////////////////////////////////////////////////////////
     // ATTRIBUTES
@@ -688,47 +688,51 @@ public class Redirector {
         }
 
         synchronized (inMutex) {
-            // if input files are specified, inputString and inputStream are
-            // ignored;
-            // classes that work with redirector attributes can enforce
-            // whatever warnings are needed
-            if (input != null && input.length > 0) {
-                managingTask
-                        .log("Redirecting input from file"
-                                + ((input.length == 1) ? "" : "s"),
-                                Project.MSG_VERBOSE);
-                try {
-                    inputStream = new ConcatFileInputStream(input);
-                } catch (final IOException eyeOhEx) {
-                    throw new BuildException(eyeOhEx);
-                }
-                ((ConcatFileInputStream) inputStream).setManagingComponent(managingTask);
-            } else if (inputString != null) {
-                final StringBuilder buf = new StringBuilder("Using input ");
-                if (logInputString) {
-                    buf.append('"').append(inputString).append('"');
-                } else {
-                    buf.append("string");
-                }
-                managingTask.log(buf.toString(), Project.MSG_VERBOSE);
-                inputStream = new ByteArrayInputStream(inputString.getBytes());
+            inStreams();
+        }
+    }
+
+    private void inStreams() {
+        // if input files are specified, inputString and inputStream are
+        // ignored;
+        // classes that work with redirector attributes can enforce
+        // whatever warnings are needed
+        if (input != null && input.length > 0) {
+            managingTask
+                    .log("Redirecting input from file"
+                            + ((input.length == 1) ? "" : "s"),
+                            Project.MSG_VERBOSE);
+            try {
+                inputStream = new ConcatFileInputStream(input);
+            } catch (final IOException eyeOhEx) {
+                throw new BuildException(eyeOhEx);
+            }
+            ((ConcatFileInputStream) inputStream).setManagingComponent(managingTask);
+        } else if (inputString != null) {
+            final StringBuilder buf = new StringBuilder("Using input ");
+            if (logInputString) {
+                buf.append('"').append(inputString).append('"');
+            } else {
+                buf.append("string");
             }
+            managingTask.log(buf.toString(), Project.MSG_VERBOSE);
+            inputStream = new ByteArrayInputStream(inputString.getBytes());
+        }
 
-            if (inputStream != null && inputFilterChains != null
-                    && inputFilterChains.size() > 0) {
-                final ChainReaderHelper helper = new ChainReaderHelper();
-                helper.setProject(managingTask.getProject());
-                try {
-                    helper.setPrimaryReader(new InputStreamReader(inputStream,
-                            inputEncoding));
-                } catch (final IOException eyeOhEx) {
-                    throw new BuildException("error setting up input stream",
-                            eyeOhEx);
-                }
-                helper.setFilterChains(inputFilterChains);
-                inputStream = new ReaderInputStream(
-                        helper.getAssembledReader(), inputEncoding);
+        if (inputStream != null && inputFilterChains != null
+                && inputFilterChains.size() > 0) {
+            final ChainReaderHelper helper = new ChainReaderHelper();
+            helper.setProject(managingTask.getProject());
+            try {
+                helper.setPrimaryReader(new InputStreamReader(inputStream,
+                        inputEncoding));
+            } catch (final IOException eyeOhEx) {
+                throw new BuildException("error setting up input stream",
+                        eyeOhEx);
             }
+            helper.setFilterChains(inputFilterChains);
+            inputStream = new ReaderInputStream(
+                    helper.getAssembledReader(), inputEncoding);
         }
     }
 
@@ -822,12 +826,110 @@ public class Redirector {
      *             if the execute stream handler cannot be created.
      */
     public ExecuteStreamHandler createHandler() throws BuildException {
-        createStreams();
         final boolean nonBlockingRead = input == null && inputString == null;
+        if (canRedirectToFiles()) {
+            return new FileRedirectingStreamHandler(this, nonBlockingRead);
+        }
+        createStreams();
         return new PumpStreamHandler(getOutputStream(), getErrorStream(),
                 getInputStream(), nonBlockingRead);
     }
 
+    /**
+     * Whether output and error output go to nothing but a single file
+     * each - or both to the same file - without any processing, so
+     * the operating system can write them directly.
+     */
+    private boolean canRedirectToFiles() {
+        if (out == null || out.length != 1 || discardOut || outputProperty != null
+            || alwaysLogOut || !createEmptyFilesOut
+            || (outputFilterChains != null && !outputFilterChains.isEmpty())
+            || !outputEncoding.equalsIgnoreCase(inputEncoding)) {
+            return false;
+        }
+        if (discardErr || errorProperty != null || alwaysLogErr
+            || (errorFilterChains != null && !errorFilterChains.isEmpty())
+            || !errorEncoding.equalsIgnoreCase(inputEncoding)) {
+            return false;
+        }
+        if (error == null || error.length == 0) {
+            // error output is merged into output unless it is logged
+            return !logError;
+        }
+        return error.length == 1 && createEmptyFilesErr
+            && !error[0].getAbsoluteFile().equals(out[0].getAbsoluteFile());
+    }
+
+    /**
+     * Where the operating system should send the output of the
+     * process.
+     *
+     * @return the redirect for output.
+     */
+    ProcessBuilder.Redirect getOutputRedirect() {
+        return appendOut ? ProcessBuilder.Redirect.appendTo(out[0])
+            : ProcessBuilder.Redirect.to(out[0]);
+    }
+
+    /**
+     * Where the operating system should send the error output of the
+     * process.
+     *
+     * @return null if error output should be merged into output.
+     */
+    ProcessBuilder.Redirect getErrorRedirect() {
+        if (error == null || error.length == 0) {
+            return null;
+        }
+        return appendErr ? ProcessBuilder.Redirect.appendTo(error[0])
+            : ProcessBuilder.Redirect.to(error[0]);
+    }
+
+    /**
+     * Whether the process is going to be fed any input.
+     *
+     * @return true if an input file or input string has been set.
+     */
+    boolean hasInput() {
+        synchronized (inMutex) {
+            return (input != null && input.length > 0) || inputString != null;
+        }
+    }
+
+    /**
+     * Where the operating system should read the input of the process
+     * from.
+     *
+     * @return null if the input has to be provided by Ant.
+     */
+    ProcessBuilder.Redirect getInputRedirect() {
+        if (input != null && input.length == 1 && input[0].isFile()
+            && (inputFilterChains == null || inputFilterChains.isEmpty())) {
+            return ProcessBuilder.Redirect.from(input[0]);
+        }
+        return null;
+    }
+
+    /**
+     * Creates the input stream after the process has been launched
+     * with the redirects of this instance and logs the redirections.
+     */
+    void createStreamsForRedirectedProcess() {
+        managingTask.log("Output " + (appendOut ? "appended" : "redirected")
+                         + " to " + out[0], Project.MSG_VERBOSE);
+        if (error != null && error.length > 0) {
+            managingTask.log("Error " + (appendErr ? "appended" : "redirected")
+                             + " to " + error[0], Project.MSG_VERBOSE);
+        }
+        synchronized (inMutex) {
+            if (getInputRedirect() != null) {
+                managingTask.log("Redirecting input from file", Project.MSG_VERBOSE);
+            } else {
+                inStreams();
+            }
+        }
+    }
+
     /**
      * Pass output sent to System.out to specified output.
      *
@@ -974,13 +1076,17 @@ public class Redirector {
         }
 
         synchronized (outMutex) {
-            outputStream.flush();
-            outputStream.close();
+            if (outputStream != null) {
+                outputStream.flush();
+                outputStream.close();
+            }
         }
 
         synchronized (errMutex) {
-            errorStream.flush();
-            errorStream.close();
+            if (errorStream != null) {
+                errorStream.flush();
+                errorStream.close();
+            }
         }
 
         // wait for the StreamPumpers to finish
@@ -33,6 +33,7 @@ import java.util.concurrent.TimeUnit;
 public class StreamPumper implements Runnable {
 
     private static final int SMALL_BUFFER_SIZE = 128;
+    private static final int LARGE_BUFFER_SIZE = 8192;
 
     private final InputStream is;
     private final OutputStream os;
@@ -42,6 +43,7 @@ public class StreamPumper implements Runnable {
     private boolean autoflush = false;
     private Exception exception = null;
     private int bufferSize = SMALL_BUFFER_SIZE;
+    private boolean fixedBufferSize = false;
     private boolean started = false;
     private final boolean useAvailable;
     private PostStopHandle postStopHandle;
@@ -120,7 +122,7 @@ public class StreamPumper implements Runnable {
         }
         finished = false;
 
-        final byte[] buf = new byte[bufferSize];
+        byte[] buf = new byte[bufferSize];
 
         try {
             int length;
@@ -142,9 +144,15 @@ public class StreamPumper implements Runnable {
                     if (autoflush) {
                         os.flush();
                     }
+                    if (length == buf.length && !fixedBufferSize
+                        && buf.length < LARGE_BUFFER_SIZE) {
+                        // the stream produces more than we can take
+                        // at once, use fewer but bigger reads
+                        buf = new byte[Math.min(buf.length * 2, LARGE_BUFFER_SIZE)];
+                    }
                 }
             }
-            this.doPostStop();
+            this.doPostStop(buf);
         } catch (InterruptedException ie) {
             // likely PumpStreamHandler trying to stop us
         } catch (Exception e) {
@@ -184,6 +192,11 @@ public class StreamPumper implements Runnable {
 
     /**
      * Set the size in bytes of the read buffer.
+     *
+     * <p>If no size has been set, the pumper starts with a small
+     * buffer and enlarges it while the input stream delivers more
+     * data than the buffer can hold.</p>
+     *
      * @param bufferSize the buffer size to use.
      * @throws IllegalStateException if the StreamPumper is already running.
      */
@@ -192,6 +205,7 @@ public class StreamPumper implements Runnable {
             throw new IllegalStateException("Cannot set buffer size on a running StreamPumper");
         }
         this.bufferSize = bufferSize;
+        fixedBufferSize = true;
     }
 
     /**
@@ -231,25 +245,38 @@ public class StreamPumper implements Runnable {
     }
 
     private static final long POLL_INTERVAL = 100;
+    private static final long MIN_POLL_INTERVAL = 1;
 
+    /**
+     * Waits until input is available if useAvailable is set.
+     *
+     * <p>The interval between two polls starts small and is doubled
+     * up to {@link #POLL_INTERVAL} while the stream stays quiet, so
+     * output of processes that write in quick succession doesn't get
+     * delayed by a full interval while idle streams still don't cause
+     * too many wakeups.</p>
+     */
     private void waitForInput(InputStream is)
             throws IOException, InterruptedException {
         if (useAvailable) {
+            long interval = MIN_POLL_INTERVAL;
             while (!askedToStop && is.available() == 0) {
                 if (Thread.interrupted()) {
                     throw new InterruptedException();
                 }
 
                 synchronized (this) {
-                    this.wait(POLL_INTERVAL);
+                    if (!askedToStop) {
+                        this.wait(interval);
+                    }
                 }
+                interval = Math.min(interval * 2, POLL_INTERVAL);
             }
         }
     }
 
-    private void doPostStop() throws IOException {
+    private void doPostStop(final byte[] buf) throws IOException {
         try {
-            final byte[] buf = new byte[bufferSize];
             int length;
             // We were asked to stop, the contract allows us to do any non-blocking
             // final bits of reads, before actually finishing. So we try and drain any (non-blocking) available
@@ -19,12 +19,23 @@ package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
 import org.apache.tools.ant.Main;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.taskdefs.Ant.TargetElement;
 import org.apache.tools.ant.types.DirSet;
@@ -55,6 +66,13 @@ import org.apache.tools.ant.util.StringUtils;
  * because you can specify it in each build file.
  * </li>
  * </ul>
+ *
+ * <h2>Parallel execution</h2>
+ * <p>If <code>threads</code> or <code>threadsPerProcessor</code> allow
+ * for more than one thread, sub-builds run concurrently.  The output
+ * of each sub-build is buffered and passed on to the build listeners
+ * in the order of the build path once the sub-build has finished, so
+ * the log looks the same as if they had run one after the other.</p>
  * @since Ant1.6
  * @ant.task name="subant" category="control"
  */
@@ -71,6 +89,10 @@ public class SubAnt extends Task {
     private boolean inheritRefs = false;
     private boolean failOnError = true;
     private String output  = null;
+    private int threads = 1;
+    private int threadsPerProcessor = 0;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
     private List<Property> properties = new Vector<>();
     private List<Ant.Reference> references = new Vector<>();
@@ -202,6 +224,13 @@ public class SubAnt extends Task {
             subTarget = getOwningTarget().getName();
         }
 */
+        int numThreads = threadsPerProcessor > 0
+            ? threadsPerProcessor * Runtime.getRuntime().availableProcessors() : threads;
+        if (numThreads > 1 && count > 1) {
+            executeInParallel(filenames, Math.min(numThreads, count));
+            return;
+        }
+
         BuildException buildException = null;
         for (String filename : filenames) {
             File file = null;
@@ -273,6 +302,93 @@ public class SubAnt extends Task {
         }
     }
 
+    /**
+     * Runs the sub-builds on a pool of threads.
+     *
+     * <p>Once a sub-build has failed no further sub-builds are
+     * started unless the project is in keep-going mode, the failure
+     * of the sub-build that comes first in the build path is
+     * thrown after all running sub-builds have finished.</p>
+     */
+    private void executeInParallel(String[] filenames, int numThreads) {
+        log("Running " + filenames.length + " sub-builds using " + numThreads
+            + " threads", Project.MSG_VERBOSE);
+        final boolean keepGoing = getProject().isKeepGoingMode();
+        final SubBuild[] builds = new SubBuild[filenames.length];
+        final AtomicBoolean abort = new AtomicBoolean();
+        final int[] nextToFlush = new int[1];
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "subant-" + THREAD_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < filenames.length; i++) {
+                SubBuild build = new SubBuild(filenames[i]);
+                builds[i] = build;
+                futures.add(pool.submit(() -> {
+                    if (abort.get()) {
+                        build.skipped = true;
+                    } else {
+                        build.run();
+                        if (build.failure != null && !keepGoing) {
+                            abort.set(true);
+                        }
+                    }
+                    // pass on the output in build path order
+                    synchronized (nextToFlush) {
+                        build.finished = true;
+                        while (nextToFlush[0] < builds.length
+                               && builds[nextToFlush[0]] != null
+                               && builds[nextToFlush[0]].finished) {
+                            builds[nextToFlush[0]++].output.replay(getProject());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            throw new BuildException("interrupted while waiting for sub-builds",
+                                     e, getLocation());
+        } catch (ExecutionException e) {
+            throw new BuildException(e.getCause(), getLocation());
+        } finally {
+            pool.shutdown();
+        }
+
+        Throwable firstFailure = null;
+        int failed = 0;
+        int skipped = 0;
+        for (SubBuild build : builds) {
+            String state = "succeeded";
+            if (build.skipped) {
+                state = "skipped";
+                skipped++;
+            } else if (build.failure != null) {
+                state = "failed";
+                failed++;
+                if (firstFailure == null) {
+                    firstFailure = build.failure;
+                }
+            }
+            log(build.filename + ": " + state, Project.MSG_VERBOSE);
+        }
+        log((builds.length - failed - skipped) + " sub-builds succeeded, "
+            + failed + " failed, " + skipped + " skipped",
+            failed + skipped > 0 ? Project.MSG_INFO : Project.MSG_VERBOSE);
+        if (firstFailure instanceof BuildException) {
+            throw (BuildException) firstFailure;
+        }
+        if (firstFailure != null) {
+            throw new BuildException(firstFailure);
+        }
+    }
+
     /**
      * Runs the given target on the provided build file.
      *
@@ -285,32 +401,46 @@ public class SubAnt extends Task {
      */
     private void execute(File file, File directory)
                 throws BuildException {
+        execute(file, directory, null);
+    }
+
+    /**
+     * Runs the given target on the provided build file sending the
+     * output to the given buffer if it is not null.
+     */
+    private void execute(File file, File directory, BufferedOutput out)
+                throws BuildException {
         if (!file.exists() || file.isDirectory() || !file.canRead()) {
             String msg = "Invalid file: " + file;
             if (failOnError) {
                 throw new BuildException(msg);
             }
-            log(msg, Project.MSG_WARN);
+            log(msg, Project.MSG_WARN, out);
             return;
         }
 
-        ant = createAntTask(directory);
+        Ant antTask = createAntTask(directory);
         String antfilename = file.getAbsolutePath();
-        ant.setAntfile(antfilename);
-        targets.forEach(ant::addConfiguredTarget);
+        antTask.setAntfile(antfilename);
+        targets.forEach(antTask::addConfiguredTarget);
+        if (out == null) {
+            ant = antTask;
+        } else {
+            antTask.setBuildListenerOverride(out);
+        }
 
         try {
             if (verbose) {
-                log("Executing: " + antfilename, Project.MSG_INFO);
+                log("Executing: " + antfilename, Project.MSG_INFO, out);
             }
-            ant.execute();
+            antTask.execute();
         } catch (BuildException e) {
             if (failOnError || isHardError(e)) {
                 throw e;
             }
             log("Failure for target '" + subTarget
                + "' of: " +  antfilename + "\n"
-               + e.getMessage(), Project.MSG_WARN);
+               + e.getMessage(), Project.MSG_WARN, out);
         } catch (Throwable e) {
             if (failOnError || isHardError(e)) {
                 throw new BuildException(e);
@@ -318,9 +448,19 @@ public class SubAnt extends Task {
             log("Failure for target '" + subTarget
                 + "' of: " + antfilename + "\n"
                 + e.toString(),
-                Project.MSG_WARN);
+                Project.MSG_WARN, out);
         } finally {
-            ant = null;
+            if (out == null) {
+                ant = null;
+            }
+        }
+    }
+
+    private void log(String msg, int msgLevel, BufferedOutput out) {
+        if (out == null) {
+            log(msg, msgLevel);
+        } else {
+            out.log(this, msg, msgLevel);
         }
     }
 
@@ -409,6 +549,27 @@ public class SubAnt extends Task {
         this.output = s;
     }
 
+    /**
+     * Maximum number of sub-builds to run at the same time.
+     * The default value is 1.
+     * @param threads the number of threads to use.
+     * @since Ant 1.10.16
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Maximum number of sub-builds to run at the same time per
+     * available processor, overrides <code>threads</code> if set.
+     * @param threadsPerProcessor the number of threads to use per
+     * processor.
+     * @since Ant 1.10.16
+     */
+    public void setThreadsPerProcessor(int threadsPerProcessor) {
+        this.threadsPerProcessor = threadsPerProcessor;
+    }
+
     /**
      * Corresponds to <code>&lt;ant&gt;</code>'s
      * <code>inheritall</code> attribute.
@@ -629,4 +790,140 @@ public class SubAnt extends Task {
         }
     }
 
+    /**
+     * A single sub-build of a parallel run.
+     */
+    private final class SubBuild {
+        private final String filename;
+        private final BufferedOutput output = new BufferedOutput();
+        private Throwable failure;
+        private boolean skipped;
+        private boolean finished;
+
+        private SubBuild(String filename) {
+            this.filename = filename;
+        }
+
+        private void run() {
+            File file = new File(filename);
+            String subdirPath = null;
+            try {
+                File directory = null;
+                if (file.isDirectory()) {
+                    if (verbose) {
+                        subdirPath = file.getPath();
+                        log("Entering directory: " + subdirPath + "\n", Project.MSG_INFO, output);
+                    }
+                    if (genericantfile != null) {
+                        directory = file;
+                        file = genericantfile;
+                    } else {
+                        file = new File(file, antfile);
+                    }
+                }
+                execute(file, directory, output);
+            } catch (Throwable ex) {
+                failure = ex;
+                if (getProject().isKeepGoingMode()) {
+                    if (ex instanceof BuildException) {
+                        log("File '" + file + "' failed with message '"
+                            + ex.getMessage() + "'.", Project.MSG_ERR, output);
+                    } else {
+                        log("Target '" + file + "' failed with message '"
+                            + ex.getMessage() + "'.", Project.MSG_ERR, output);
+                        log(StringUtils.getStackTrace(ex), Project.MSG_ERR, output);
+                    }
+                }
+            }
+            if (verbose && subdirPath != null) {
+                log("Leaving directory: " + subdirPath + "\n", Project.MSG_INFO, output);
+            }
+        }
+    }
+
+    /**
+     * Records the events of a sub-build so they can be passed on
+     * to the listeners of the calling project later.
+     *
+     * <p>The events are passed on through {@link
+     * Project#fireRecordedEvent Project#fireRecordedEvent} and keep
+     * the thread and time of their creation.</p>
+     */
+    private static final class BufferedOutput implements SubBuildListener {
+        private final List<BuildEvent> events = new ArrayList<>();
+        private final List<BiConsumer<BuildListener, BuildEvent>> actions = new ArrayList<>();
+
+        @Override
+        public void buildStarted(BuildEvent event) {
+            add(event, BuildListener::buildStarted);
+        }
+
+        @Override
+        public void buildFinished(BuildEvent event) {
+            add(event, BuildListener::buildFinished);
+        }
+
+        @Override
+        public void subBuildStarted(BuildEvent event) {
+            add(event, (l, e) -> {
+                if (l instanceof SubBuildListener) {
+                    ((SubBuildListener) l).subBuildStarted(e);
+                }
+            });
+        }
+
+        @Override
+        public void subBuildFinished(BuildEvent event) {
+            add(event, (l, e) -> {
+                if (l instanceof SubBuildListener) {
+                    ((SubBuildListener) l).subBuildFinished(e);
+                }
+            });
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+            add(event, BuildListener::targetStarted);
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+            add(event, BuildListener::targetFinished);
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+            add(event, BuildListener::taskStarted);
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+            add(event, BuildListener::taskFinished);
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+            add(event, BuildListener::messageLogged);
+        }
+
+        private void log(Task task, String message, int priority) {
+            BuildEvent event = new BuildEvent(task);
+            event.setMessage(message, priority);
+            messageLogged(event);
+        }
+
+        private synchronized void add(BuildEvent event,
+                                      BiConsumer<BuildListener, BuildEvent> action) {
+            events.add(event);
+            actions.add(action);
+        }
+
+        private synchronized void replay(Project project) {
+            for (int i = 0; i < events.size(); i++) {
+                project.fireRecordedEvent(events.get(i), actions.get(i));
+            }
+            events.clear();
+            actions.clear();
+        }
+    }
 }
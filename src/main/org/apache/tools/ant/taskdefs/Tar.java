@@ -49,6 +49,7 @@ import org.apache.tools.ant.types.resources.FileResource;
 import org.apache.tools.ant.types.resources.TarResource;
 import org.apache.tools.ant.types.selectors.SelectorUtils;
 import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.Instrumentation;
 import org.apache.tools.ant.util.MergingMapper;
 import org.apache.tools.ant.util.ResourceUtils;
 import org.apache.tools.ant.util.SourceFileScanner;
@@ -503,6 +504,7 @@ public class Tar extends MatchingTask {
         }
 
         InputStream in = null;
+        final Instrumentation.Span span = Instrumentation.archiveEntry(tarFile, vPath);
         try {
             tOut.putNextEntry(te);
 
@@ -518,7 +520,9 @@ public class Tar extends MatchingTask {
             }
 
             tOut.closeEntry();
+            Instrumentation.bytesArchived(tarFile, te.getSize());
         } finally {
+            span.end();
             FileUtils.close(in);
         }
     }
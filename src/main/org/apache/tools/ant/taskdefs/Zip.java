@@ -58,6 +58,7 @@ import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.tools.ant.util.GlobPatternMapper;
 import org.apache.tools.ant.util.IdentityMapper;
+import org.apache.tools.ant.util.Instrumentation;
 import org.apache.tools.ant.util.MergingMapper;
 import org.apache.tools.ant.util.ResourceUtils;
 import org.apache.tools.zip.UnixStat;
@@ -885,8 +886,10 @@ public class Zip extends MatchingTask {
             final FileScanner scanner = fs.getDirectoryScanner(getProject());
             final File basedir = scanner.getBasedir();
             for (String file : scanner.getIncludedFiles()) {
-                logWhenWriting("Adding file " + file + " to fileset",
-                               Project.MSG_VERBOSE);
+                if (isLoggableWhenWriting(Project.MSG_VERBOSE)) {
+                    logWhenWriting("Adding file " + file + " to fileset",
+                                   Project.MSG_VERBOSE);
+                }
                 final ZipFileSet zf = new ZipFileSet();
                 zf.setProject(getProject());
                 zf.setSrc(new File(basedir, file));
@@ -1694,7 +1697,9 @@ public class Zip extends MatchingTask {
             return;
         }
 
-        logWhenWriting("adding directory " + vPath, Project.MSG_VERBOSE);
+        if (isLoggableWhenWriting(Project.MSG_VERBOSE)) {
+            logWhenWriting("adding directory " + vPath, Project.MSG_VERBOSE);
+        }
         addedDirs.put(vPath, vPath);
 
         if (!skipWriting) {
@@ -1786,61 +1791,69 @@ public class Zip extends MatchingTask {
             // duplicate equal to add, so we continue
             logWhenWriting("duplicate file " + vPath
                            + " found, adding.", Project.MSG_VERBOSE);
-        } else {
+        } else if (isLoggableWhenWriting(Project.MSG_VERBOSE)) {
             logWhenWriting("adding entry " + vPath, Project.MSG_VERBOSE);
         }
 
         entries.put(vPath, vPath);
 
         if (!skipWriting) {
-            final ZipEntry ze = new ZipEntry(vPath);
-            ze.setTime(fixedModTime != null ? modTimeMillis : lastModified);
-            ze.setMethod(doCompress ? ZipEntry.DEFLATED : ZipEntry.STORED);
-            // if the input stream doesn't support mark/reset ability, we wrap it in a
-            // stream that adds that support.
-            // Note: We do *not* close this newly created wrapping input stream, since
-            // we don't "own" the underlying input stream that's passed to us and closing
-            // that is the responsibility of the caller.
-            final InputStream markableInputStream = in.markSupported() ? in : new BufferedInputStream(in);
-            /*
-             * ZipOutputStream.putNextEntry expects the ZipEntry to
-             * know its size and the CRC sum before you start writing
-             * the data when using STORED mode - unless it is seekable.
-             *
-             * This forces us to process the data twice.
-             */
-            if (!zOut.isSeekable() && !doCompress) {
-                long size = 0;
-                final CRC32 cal = new CRC32();
-                markableInputStream.mark(Integer.MAX_VALUE);
+            final Instrumentation.Span span = Instrumentation.archiveEntry(zipFile, vPath);
+            try {
+                final ZipEntry ze = new ZipEntry(vPath);
+                ze.setTime(fixedModTime != null ? modTimeMillis : lastModified);
+                ze.setMethod(doCompress ? ZipEntry.DEFLATED : ZipEntry.STORED);
+                // if the input stream doesn't support mark/reset ability, we wrap it in a
+                // stream that adds that support.
+                // Note: We do *not* close this newly created wrapping input stream, since
+                // we don't "own" the underlying input stream that's passed to us and closing
+                // that is the responsibility of the caller.
+                final InputStream markableInputStream = in.markSupported() ? in : new BufferedInputStream(in);
+                /*
+                 * ZipOutputStream.putNextEntry expects the ZipEntry to
+                 * know its size and the CRC sum before you start writing
+                 * the data when using STORED mode - unless it is seekable.
+                 *
+                 * This forces us to process the data twice.
+                 */
+                if (!zOut.isSeekable() && !doCompress) {
+                    long size = 0;
+                    final CRC32 cal = new CRC32();
+                    markableInputStream.mark(Integer.MAX_VALUE);
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int count = 0;
+                    do {
+                        size += count;
+                        cal.update(buffer, 0, count);
+                        count = markableInputStream.read(buffer, 0, buffer.length);
+                    } while (count != -1);
+                    markableInputStream.reset();
+                    ze.setSize(size);
+                    ze.setCrc(cal.getValue());
+                }
+
+                ze.setUnixMode(mode);
+                final ZipExtraField[] extra = getCurrentExtraFields();
+                if (extra != null) {
+                    ze.setExtraFields(extra);
+                }
+
+                zOut.putNextEntry(ze);
+
                 final byte[] buffer = new byte[BUFFER_SIZE];
+                long written = 0;
                 int count = 0;
                 do {
-                    size += count;
-                    cal.update(buffer, 0, count);
+                    if (count != 0) {
+                        zOut.write(buffer, 0, count);
+                        written += count;
+                    }
                     count = markableInputStream.read(buffer, 0, buffer.length);
                 } while (count != -1);
-                markableInputStream.reset();
-                ze.setSize(size);
-                ze.setCrc(cal.getValue());
-            }
-
-            ze.setUnixMode(mode);
-            final ZipExtraField[] extra = getCurrentExtraFields();
-            if (extra != null) {
-                ze.setExtraFields(extra);
+                Instrumentation.bytesArchived(zipFile, written);
+            } finally {
+                span.end();
             }
-
-            zOut.putNextEntry(ze);
-
-            final byte[] buffer = new byte[BUFFER_SIZE];
-            int count = 0;
-            do {
-                if (count != 0) {
-                    zOut.write(buffer, 0, count);
-                }
-                count = markableInputStream.read(buffer, 0, buffer.length);
-            } while (count != -1);
         }
         addedFiles.add(vPath);
     }
@@ -2069,6 +2082,18 @@ public class Zip extends MatchingTask {
         }
     }
 
+    /**
+     * Whether {@link #logWhenWriting logWhenWriting} would pass on a
+     * message of the given level to anybody, allows callers to skip
+     * building the message.
+     * @param level the message level.
+     * @return boolean
+     * @since Ant 1.10.16
+     */
+    protected boolean isLoggableWhenWriting(final int level) {
+        return !skipWriting && getProject().isLoggable(level);
+    }
+
     /**
      * Possible behaviors when a duplicate file is added:
      * "add", "preserve" or "fail"
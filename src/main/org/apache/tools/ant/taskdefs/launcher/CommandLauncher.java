@@ -130,6 +130,47 @@ public class CommandLauncher {
             "Cannot execute a process in different directory under this JVM");
     }
 
+    /**
+     * Launches the given command in a new process, in the given
+     * working directory, with the standard streams of the process
+     * connected as specified.
+     *
+     * <p>This implementation doesn't support redirection and returns
+     * null, callers must then use one of the other
+     * <code>exec</code> methods and copy the streams
+     * themselves.</p>
+     *
+     * @param project
+     *        The project that the command is part of.
+     * @param cmd
+     *        The command to execute.
+     * @param env
+     *        The environment for the new process. If null, the
+     *        environment of the current process is used.
+     * @param workingDir
+     *        The directory to start the command in. If null, the
+     *        current directory is used.
+     * @param input
+     *        Source of the standard input of the process, null if
+     *        the input is going to be written to the process.
+     * @param output
+     *        Destination of the standard output of the process.
+     * @param error
+     *        Destination of the standard error of the process, null
+     *        to merge it into the standard output.
+     * @return the created Process or null if this launcher cannot
+     *         redirect the streams.
+     * @throws IOException
+     *         if the process cannot be started.
+     * @since Ant 1.10.16
+     */
+    public Process exec(Project project, String[] cmd, String[] env,
+                        File workingDir, ProcessBuilder.Redirect input,
+                        ProcessBuilder.Redirect output,
+                        ProcessBuilder.Redirect error) throws IOException {
+        return null;
+    }
+
     /**
      * Obtains the shell launcher configured for the given project or
      * the default shell launcher.
@@ -19,9 +19,11 @@ package org.apache.tools.ant.taskdefs.launcher;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.condition.Os;
 import org.apache.tools.ant.types.Commandline;
 
 /**
@@ -63,4 +65,64 @@ public class Java13CommandLauncher extends CommandLauncher {
             throw new BuildException("Unable to execute command", exc);
         }
     }
+
+    /**
+     * Launches the given command in a new process, in the given
+     * working directory, with the standard streams of the process
+     * connected as specified.
+     *
+     * @param project
+     *        the Ant project.
+     * @param cmd
+     *        the command line to execute as an array of strings.
+     * @param env
+     *        the environment to set as an array of strings.
+     * @param workingDir
+     *        the working directory where the command should run.
+     * @param input
+     *        source of the standard input of the process, null if
+     *        the input is going to be written to the process.
+     * @param output
+     *        destination of the standard output of the process.
+     * @param error
+     *        destination of the standard error of the process, null
+     *        to merge it into the standard output.
+     * @return the created Process.
+     * @throws IOException
+     *         probably forwarded from ProcessBuilder#start.
+     * @since Ant 1.10.16
+     */
+    @Override
+    public Process exec(Project project, String[] cmd, String[] env,
+                        File workingDir, ProcessBuilder.Redirect input,
+                        ProcessBuilder.Redirect output,
+                        ProcessBuilder.Redirect error) throws IOException {
+        if (project != null) {
+            project.log("Execute:Java13CommandLauncher: "
+                        + Commandline.describeCommand(cmd), Project.MSG_DEBUG);
+        }
+        ProcessBuilder pb = new ProcessBuilder(cmd).directory(workingDir)
+            .redirectOutput(output);
+        if (input != null) {
+            pb.redirectInput(input);
+        }
+        if (error == null) {
+            pb.redirectErrorStream(true);
+        } else {
+            pb.redirectError(error);
+        }
+        if (env != null) {
+            // same rules as Runtime#exec
+            Map<String, String> environment = pb.environment();
+            environment.clear();
+            int minNameLength = Os.isFamily("windows") ? 1 : 0;
+            for (String variable : env) {
+                int eq = variable.indexOf('=', minNameLength);
+                if (eq != -1) {
+                    environment.put(variable.substring(0, eq), variable.substring(eq + 1));
+                }
+            }
+        }
+        return pb.start();
+    }
 }
\ No newline at end of file
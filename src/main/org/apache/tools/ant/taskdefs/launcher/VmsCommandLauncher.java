@@ -83,6 +83,35 @@ public class VmsCommandLauncher extends Java13CommandLauncher {
         return p;
     }
 
+    /**
+     * Doesn't support redirection as the command has to be run via a
+     * DCL script.
+     *
+     * @param project
+     *        the Ant project.
+     * @param cmd
+     *        the command line to execute as an array of strings.
+     * @param env
+     *        the environment to set as an array of strings.
+     * @param workingDir
+     *        working directory where the command should run.
+     * @param input
+     *        source of the standard input of the process.
+     * @param output
+     *        destination of the standard output of the process.
+     * @param error
+     *        destination of the standard error of the process.
+     * @return null
+     * @since Ant 1.10.16
+     */
+    @Override
+    public Process exec(Project project, String[] cmd, String[] env,
+                        File workingDir, ProcessBuilder.Redirect input,
+                        ProcessBuilder.Redirect output,
+                        ProcessBuilder.Redirect error) {
+        return null;
+    }
+
     /*
      * Writes the command into a temporary DCL script and returns the
      * corresponding File object.  The script will be deleted on exit.
@@ -30,6 +30,13 @@
 package org.apache.tools.ant.taskdefs.optional.unix;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.UserPrincipal;
+import java.nio.file.attribute.UserPrincipalLookupService;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.taskdefs.ExecuteOn;
@@ -101,6 +108,65 @@ public abstract class AbstractAccessTask extends ExecuteOn {
             + " doesn't support the addsourcefile attribute", getLocation());
     }
 
+    /**
+     * Looks up a user by name.
+     * @param name the user name or numeric id.
+     * @return null if the user cannot be found.
+     * @since Ant 1.10.16
+     */
+    protected static UserPrincipal lookupUser(String name) {
+        try {
+            return getLookupService().lookupPrincipalByName(name);
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Looks up a group by name.
+     * @param name the group name or numeric id.
+     * @return null if the group cannot be found.
+     * @since Ant 1.10.16
+     */
+    protected static GroupPrincipal lookupGroup(String name) {
+        try {
+            return getLookupService().lookupPrincipalByGroupName(name);
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Changes owner and group of a file via NIO.
+     * @param file the file.
+     * @param owner the new owner, null to keep the current one.
+     * @param group the new group, null to keep the current one.
+     * @return false if the file system doesn't support POSIX file
+     * attributes.
+     * @throws IOException if owner or group cannot be changed.
+     * @since Ant 1.10.16
+     */
+    protected static boolean changeOwnership(File file, UserPrincipal owner,
+                                             GroupPrincipal group)
+        throws IOException {
+        PosixFileAttributeView view =
+            Files.getFileAttributeView(file.toPath(), PosixFileAttributeView.class);
+        if (view == null) {
+            return false;
+        }
+        if (owner != null) {
+            view.setOwner(owner);
+        }
+        if (group != null) {
+            view.setGroup(group);
+        }
+        return true;
+    }
+
+    private static UserPrincipalLookupService getLookupService() {
+        return FileSystems.getDefault().getUserPrincipalLookupService();
+    }
+
     /**
      * Automatically approve Unix OS's.
      * @return true if a valid OS, for unix this is always true, otherwise
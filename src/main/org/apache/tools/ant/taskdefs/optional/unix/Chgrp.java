@@ -29,11 +29,20 @@
 
 package org.apache.tools.ant.taskdefs.optional.unix;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.attribute.GroupPrincipal;
+
 import org.apache.tools.ant.BuildException;
 
 /**
  * Chgrp equivalent for unix-like environments.
  *
+ * <p>If the group can be resolved, the task changes the group via
+ * NIO using multiple threads and only runs the chgrp command for
+ * files on file systems that don't support POSIX file
+ * attributes.</p>
+ *
  * @since Ant 1.6
  *
  * @ant.task category="filesystem"
@@ -41,6 +50,8 @@ import org.apache.tools.ant.BuildException;
 public class Chgrp extends AbstractAccessTask {
 
     private boolean haveGroup = false;
+    private String group;
+    private GroupPrincipal groupPrincipal;
 
     /**
      * Chgrp task for setting unix group of a file.
@@ -57,6 +68,7 @@ public class Chgrp extends AbstractAccessTask {
     public void setGroup(String group) {
         createArg().setValue(group);
         haveGroup = true;
+        this.group = group;
     }
 
     /**
@@ -72,6 +84,33 @@ public class Chgrp extends AbstractAccessTask {
         super.checkConfiguration();
     }
 
+    /**
+     * Whether the group can be changed without running chgrp.
+     * @return true if group is the only argument and can be resolved.
+     * @since Ant 1.10.16
+     */
+    @Override
+    protected boolean canRunInProcess() {
+        if (cmdl.getArguments().length != 1) {
+            return false;
+        }
+        groupPrincipal = lookupGroup(group);
+        return groupPrincipal != null;
+    }
+
+    /**
+     * Changes the group of the given file via NIO.
+     * @param file the file
+     * @return false if the file system doesn't support POSIX file
+     * attributes.
+     * @throws IOException if the group cannot be changed.
+     * @since Ant 1.10.16
+     */
+    @Override
+    protected boolean runInProcess(File file) throws IOException {
+        return changeOwnership(file, null, groupPrincipal);
+    }
+
     /**
      * We don't want to expose the executable attribute, so override it.
      *
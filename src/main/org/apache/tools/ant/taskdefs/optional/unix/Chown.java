@@ -29,11 +29,21 @@
 
 package org.apache.tools.ant.taskdefs.optional.unix;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.UserPrincipal;
+
 import org.apache.tools.ant.BuildException;
 
 /**
  * Chown equivalent for unix-like environments.
  *
+ * <p>If the owner (and the group if given as <code>owner:group</code>)
+ * can be resolved, the task changes ownership via NIO using
+ * multiple threads and only runs the chown command for files on
+ * file systems that don't support POSIX file attributes.</p>
+ *
  * @since Ant 1.6
  *
  * @ant.task category="filesystem"
@@ -41,6 +51,9 @@ import org.apache.tools.ant.BuildException;
 public class Chown extends AbstractAccessTask {
 
     private boolean haveOwner = false;
+    private String owner;
+    private UserPrincipal ownerPrincipal;
+    private GroupPrincipal groupPrincipal;
 
     /**
      * Chown task for setting file and directory permissions.
@@ -57,6 +70,7 @@ public class Chown extends AbstractAccessTask {
     public void setOwner(String owner) {
         createArg().setValue(owner);
         haveOwner = true;
+        this.owner = owner;
     }
 
     /**
@@ -72,6 +86,48 @@ public class Chown extends AbstractAccessTask {
         super.checkConfiguration();
     }
 
+    /**
+     * Whether ownership can be changed without running chown.
+     * @return true if owner is the only argument and user and group
+     * can be resolved.
+     * @since Ant 1.10.16
+     */
+    @Override
+    protected boolean canRunInProcess() {
+        if (cmdl.getArguments().length != 1) {
+            return false;
+        }
+        String user = owner;
+        String group = null;
+        int colon = owner.indexOf(':');
+        if (colon >= 0) {
+            user = owner.substring(0, colon);
+            group = owner.substring(colon + 1);
+            if (group.isEmpty()) {
+                // the user's login group
+                return false;
+            }
+        }
+        ownerPrincipal = user.isEmpty() ? null : lookupUser(user);
+        groupPrincipal = group == null ? null : lookupGroup(group);
+        return (ownerPrincipal != null || user.isEmpty())
+            && (groupPrincipal != null || group == null)
+            && (ownerPrincipal != null || groupPrincipal != null);
+    }
+
+    /**
+     * Changes ownership of the given file via NIO.
+     * @param file the file
+     * @return false if the file system doesn't support POSIX file
+     * attributes.
+     * @throws IOException if ownership cannot be changed.
+     * @since Ant 1.10.16
+     */
+    @Override
+    protected boolean runInProcess(File file) throws IOException {
+        return changeOwnership(file, ownerPrincipal, groupPrincipal);
+    }
+
     /**
      * We don't want to expose the executable attribute, so override it.
      *
@@ -0,0 +1,216 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.tools.ant.AntClassLoader;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Path;
+
+/**
+ * Pool of class loaders keyed by the content of their classpath.
+ *
+ * <p>Two requests for a loader share the same instance if they have
+ * the same parent loader, the same delegation order and a classpath
+ * that resolves to the same list of archives with the same size and
+ * modification time.  Classpaths that contain directories are never
+ * pooled as the classes inside a directory may be rewritten during
+ * the build without the directory itself changing.</p>
+ *
+ * <p>The pool is stored as a reference inside the project that
+ * created it and handed down to subprojects by {@link
+ * Project#initSubProject Project#initSubProject}, so
+ * <code>&lt;ant&gt;</code> and <code>&lt;subant&gt;</code> share the
+ * loaders of their parent build.  Pooled loaders are bound to the
+ * project owning the pool and only get cleaned up once that project's
+ * build has finished.</p>
+ *
+ * <p>Pooling is enabled by setting the magic property {@link
+ * MagicNames#CLASSLOADER_POOL ant.classloader.pool}.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class ClassLoaderPool {
+
+    private final Project owner;
+    private final Map<Key, AntClassLoader> loaders = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    /**
+     * Creates a new pool.
+     * @param owner the project the pooled loaders are bound to.
+     */
+    public ClassLoaderPool(Project owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Finds the pool used by the given project, creating one if
+     * there is none yet.
+     *
+     * @param project the project.
+     * @return the pool, never null.
+     */
+    public static synchronized ClassLoaderPool getPool(Project project) {
+        ClassLoaderPool pool = project.getReference(MagicNames.REFID_CLASSLOADER_POOL);
+        if (pool == null) {
+            pool = new ClassLoaderPool(project);
+            project.addReference(MagicNames.REFID_CLASSLOADER_POOL, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Whether class loader pooling has been enabled for the project.
+     *
+     * @param project the project.
+     * @return true if the magic property has been set to a true value.
+     */
+    public static boolean isEnabled(Project project) {
+        return project != null
+            && Project.toBoolean(project.getProperty(MagicNames.CLASSLOADER_POOL));
+    }
+
+    /**
+     * Returns a loader for the given path, reusing a previously
+     * created one if the path's content has not changed.
+     *
+     * @param project the project requesting the loader, used to
+     * determine the parent loader.
+     * @param path the classpath.
+     * @param reverseLoader whether the loader should be child-first.
+     * @return a class loader, freshly created if the path cannot be
+     * pooled.
+     */
+    public AntClassLoader getClassLoader(Project project, Path path, boolean reverseLoader) {
+        // same parent as Project#createClassLoader(Path) uses for
+        // unpooled loaders
+        ClassLoader parent = project.getCoreLoader();
+        if (parent == null) {
+            parent = project.getClass().getClassLoader();
+        }
+        Key key = createKey(parent, path, reverseLoader);
+        if (key == null) {
+            return createLoader(project, parent, path, reverseLoader);
+        }
+        synchronized (loaders) {
+            AntClassLoader cl = loaders.get(key);
+            Instrumentation.cacheLookup("classloader", cl != null);
+            if (cl == null) {
+                misses++;
+                cl = createLoader(owner, parent, path, reverseLoader);
+                loaders.put(key, cl);
+                project.log("Created pooled class loader for " + path,
+                            Project.MSG_DEBUG);
+            } else {
+                hits++;
+                project.log("Reusing pooled class loader for " + path,
+                            Project.MSG_DEBUG);
+            }
+            return cl;
+        }
+    }
+
+    /**
+     * Number of requests served by an existing loader.
+     * @return the number of hits.
+     */
+    public int getHits() {
+        synchronized (loaders) {
+            return hits;
+        }
+    }
+
+    /**
+     * Number of requests that created a new pooled loader.
+     * @return the number of misses.
+     */
+    public int getMisses() {
+        synchronized (loaders) {
+            return misses;
+        }
+    }
+
+    private static AntClassLoader createLoader(Project project, ClassLoader parent,
+                                               Path path, boolean reverseLoader) {
+        AntClassLoader acl = project.createClassLoader(parent, path);
+        if (reverseLoader) {
+            acl.setParentFirst(false);
+            acl.addJavaLibraries();
+        }
+        return acl;
+    }
+
+    /**
+     * @return null if the path contains elements that must not be
+     * pooled.
+     */
+    private static Key createKey(ClassLoader parent, Path path, boolean reverseLoader) {
+        if (path == null) {
+            return null;
+        }
+        List<String> elements = new ArrayList<>();
+        for (String element : path.concatSystemClasspath("ignore").list()) {
+            File f = new File(element);
+            if (f.isDirectory()) {
+                return null;
+            }
+            elements.add(f.getAbsolutePath() + '\u0000' + f.length()
+                         + '\u0000' + f.lastModified());
+        }
+        return new Key(parent, reverseLoader, elements);
+    }
+
+    private static final class Key {
+        private final ClassLoader parent;
+        private final boolean reverseLoader;
+        private final List<String> elements;
+
+        private Key(ClassLoader parent, boolean reverseLoader, List<String> elements) {
+            this.parent = parent;
+            this.reverseLoader = reverseLoader;
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return parent == other.parent && reverseLoader == other.reverseLoader
+                && elements.equals(other.elements);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(parent), reverseLoader, elements);
+        }
+    }
+}
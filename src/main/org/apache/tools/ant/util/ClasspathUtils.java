@@ -161,6 +161,11 @@ public class ClasspathUtils {
      * 'ant.reuse.loader' this will try to reuse the previously
      * created loader with that id, and of course store it there upon
      * creation.</p>
+     *
+     * <p>If the magic property 'ant.classloader.pool' is true a
+     * newly required loader is taken from the project's {@link
+     * ClassLoaderPool} so definitions using classpaths with the same
+     * content share a single loader.</p>
      * @param p             Ant Project where the handled components are living in.
      * @param path          Path object to be used as classpath for this classloader
      * @param loaderId      identification for this Loader,
@@ -185,7 +190,9 @@ public class ClasspathUtils {
             cl = (ClassLoader) reusedLoader;
         }
         if (cl == null) {
-            cl = getUniqueClassLoaderForPath(p, path, reverseLoader);
+            cl = ClassLoaderPool.isEnabled(p)
+                ? ClassLoaderPool.getPool(p).getClassLoader(p, path, reverseLoader)
+                : getUniqueClassLoaderForPath(p, path, reverseLoader);
             if (loaderId != null && reuseLoader) {
                 p.addReference(loaderId, cl);
             }
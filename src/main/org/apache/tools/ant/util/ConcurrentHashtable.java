@@ -0,0 +1,216 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Subclass of Hashtable that wraps a ConcurrentHashMap so reads
+ * don't need to acquire a lock.
+ *
+ * <p>This is not a general purpose class but has been written because
+ * the protected members of {@link org.apache.tools.ant.PropertyHelper
+ * PropertyHelper} expose Hashtables.  Unlike Hashtable none of the
+ * methods is synchronized, atomic updates must use {@link
+ * #putIfAbsent putIfAbsent} and friends rather than locking the
+ * instance and iterators never throw
+ * ConcurrentModificationException.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public class ConcurrentHashtable<K, V> extends Hashtable<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentHashMap<K, V> map;
+
+    public ConcurrentHashtable() {
+        map = new ConcurrentHashMap<>();
+    }
+
+    public ConcurrentHashtable(Map<? extends K, ? extends V> m) {
+        map = new ConcurrentHashMap<>(m);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Object clone() {
+        return new ConcurrentHashtable<>(map);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public Enumeration<V> elements() {
+        return map.elements();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return map.equals(o);
+    }
+
+    @Override
+    public V get(Object k) {
+        return map.get(k);
+    }
+
+    @Override
+    public V getOrDefault(Object k, V defaultValue) {
+        return map.getOrDefault(k, defaultValue);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public Enumeration<K> keys() {
+        return map.keys();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public V put(K k, V v) {
+        return map.put(k, v);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        map.putAll(m);
+    }
+
+    @Override
+    public V putIfAbsent(K k, V v) {
+        return map.putIfAbsent(k, v);
+    }
+
+    @Override
+    public V remove(Object k) {
+        return map.remove(k);
+    }
+
+    @Override
+    public boolean remove(Object k, Object v) {
+        return map.remove(k, v);
+    }
+
+    @Override
+    public V replace(K k, V v) {
+        return map.replace(k, v);
+    }
+
+    @Override
+    public boolean replace(K k, V oldValue, V newValue) {
+        return map.replace(k, oldValue, newValue);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        map.replaceAll(function);
+    }
+
+    @Override
+    public V computeIfAbsent(K k, Function<? super K, ? extends V> mappingFunction) {
+        return map.computeIfAbsent(k, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K k,
+                              BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return map.computeIfPresent(k, remappingFunction);
+    }
+
+    @Override
+    public V compute(K k, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return map.compute(k, remappingFunction);
+    }
+
+    @Override
+    public V merge(K k, V v, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return map.merge(k, v, remappingFunction);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return map.values();
+    }
+
+    /**
+     * A read-only view of the current content.
+     * @return an unmodifiable map backed by this table.
+     */
+    public Map<K, V> unmodifiableView() {
+        return Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Hooks that allow profilers and metrics collectors to measure
+ * operations that happen inside of tasks, like directory scans,
+ * writing archive entries or launching processes.
+ *
+ * <p>The hooks do nothing unless a {@link Recorder} has been
+ * installed, so the cost of an unused hook is a read of a volatile
+ * field.</p>
+ *
+ * @since Ant 1.10.16
+ */
+public final class Instrumentation {
+
+    /**
+     * An operation that is being measured.
+     */
+    public interface Span {
+        /** Span that doesn't do anything. */
+        Span NONE = () -> { };
+
+        /**
+         * Marks the end of the operation.
+         */
+        void end();
+    }
+
+    /**
+     * Receives the operations that are being measured.
+     *
+     * <p>All methods do nothing by default.</p>
+     */
+    public interface Recorder {
+        /**
+         * A DirectoryScanner starts to scan a directory.
+         *
+         * @param basedir the directory being scanned, may be null.
+         * @return the span that ends when the scan is complete.
+         */
+        default Span directoryScan(File basedir) {
+            return Span.NONE;
+        }
+
+        /**
+         * A DirectoryScanner has completed a scan.
+         *
+         * @param basedir the directory that has been scanned, may be
+         * null.
+         * @param files the number of included files.
+         */
+        default void filesScanned(File basedir, int files) {
+        }
+
+        /**
+         * An entry is about to be written to an archive.
+         *
+         * @param archive the archive, may be null.
+         * @param entry the name of the entry.
+         * @return the span that ends when the entry has been written.
+         */
+        default Span archiveEntry(File archive, String entry) {
+            return Span.NONE;
+        }
+
+        /**
+         * Uncompressed content has been written to an archive.
+         *
+         * @param archive the archive, may be null.
+         * @param bytes the number of bytes.
+         */
+        default void bytesArchived(File archive, long bytes) {
+        }
+
+        /**
+         * A resource has been copied.
+         *
+         * @param bytes the size of the resource.
+         */
+        default void bytesCopied(long bytes) {
+        }
+
+        /**
+         * A process is about to be launched.
+         *
+         * @param command the command line.
+         * @param dir the working directory, may be null.
+         * @return the span that ends when the process has been
+         * started.
+         */
+        default Span processLaunch(String[] command, File dir) {
+            return Span.NONE;
+        }
+
+        /**
+         * A cache has been consulted.
+         *
+         * @param cache the name of the cache.
+         * @param hit whether the cache has been able to satisfy the
+         * lookup.
+         */
+        default void cacheLookup(String cache, boolean hit) {
+        }
+    }
+
+    private static final Recorder[] NO_RECORDERS = new Recorder[0];
+
+    private static volatile Recorder[] recorders = NO_RECORDERS;
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Installs a recorder that receives all measured operations.
+     *
+     * @param r the recorder.
+     */
+    public static synchronized void addRecorder(Recorder r) {
+        Recorder[] newRecorders = Arrays.copyOf(recorders, recorders.length + 1);
+        newRecorders[recorders.length] = r;
+        recorders = newRecorders;
+    }
+
+    /**
+     * Uninstalls a recorder.
+     *
+     * @param r the recorder.
+     */
+    public static synchronized void removeRecorder(Recorder r) {
+        recorders = Arrays.stream(recorders).filter(x -> x != r).toArray(Recorder[]::new);
+    }
+
+    /**
+     * Whether any recorder has been installed.
+     *
+     * <p>Callers may use this to avoid collecting information that
+     * is expensive to obtain.</p>
+     *
+     * @return true if there is a recorder.
+     */
+    public static boolean isEnabled() {
+        return recorders.length > 0;
+    }
+
+    /**
+     * Marks the start of a directory scan.
+     *
+     * @param basedir the directory being scanned, may be null.
+     * @return the span to end once the scan is complete, never null.
+     */
+    public static Span directoryScan(File basedir) {
+        Recorder[] r = recorders;
+        if (r.length == 0) {
+            return Span.NONE;
+        }
+        Span[] spans = new Span[r.length];
+        for (int i = 0; i < r.length; i++) {
+            spans[i] = r[i].directoryScan(basedir);
+        }
+        return combine(spans);
+    }
+
+    /**
+     * Reports the result of a directory scan.
+     *
+     * @param basedir the directory that has been scanned, may be
+     * null.
+     * @param files the number of included files.
+     */
+    public static void filesScanned(File basedir, int files) {
+        for (Recorder r : recorders) {
+            r.filesScanned(basedir, files);
+        }
+    }
+
+    /**
+     * Marks the start of writing an archive entry.
+     *
+     * @param archive the archive, may be null.
+     * @param entry the name of the entry.
+     * @return the span to end once the entry has been written, never
+     * null.
+     */
+    public static Span archiveEntry(File archive, String entry) {
+        Recorder[] r = recorders;
+        if (r.length == 0) {
+            return Span.NONE;
+        }
+        Span[] spans = new Span[r.length];
+        for (int i = 0; i < r.length; i++) {
+            spans[i] = r[i].archiveEntry(archive, entry);
+        }
+        return combine(spans);
+    }
+
+    /**
+     * Reports uncompressed content written to an archive.
+     *
+     * @param archive the archive, may be null.
+     * @param bytes the number of bytes.
+     */
+    public static void bytesArchived(File archive, long bytes) {
+        for (Recorder r : recorders) {
+            r.bytesArchived(archive, bytes);
+        }
+    }
+
+    /**
+     * Reports a copied resource.
+     *
+     * @param bytes the size of the resource.
+     */
+    public static void bytesCopied(long bytes) {
+        for (Recorder r : recorders) {
+            r.bytesCopied(bytes);
+        }
+    }
+
+    /**
+     * Marks the start of launching a process.
+     *
+     * @param command the command line.
+     * @param dir the working directory, may be null.
+     * @return the span to end once the process has been started,
+     * never null.
+     */
+    public static Span processLaunch(String[] command, File dir) {
+        Recorder[] r = recorders;
+        if (r.length == 0) {
+            return Span.NONE;
+        }
+        Span[] spans = new Span[r.length];
+        for (int i = 0; i < r.length; i++) {
+            spans[i] = r[i].processLaunch(command, dir);
+        }
+        return combine(spans);
+    }
+
+    /**
+     * Reports a cache lookup.
+     *
+     * @param cache the name of the cache.
+     * @param hit whether the cache has been able to satisfy the
+     * lookup.
+     */
+    public static void cacheLookup(String cache, boolean hit) {
+        for (Recorder r : recorders) {
+            r.cacheLookup(cache, hit);
+        }
+    }
+
+    private static Span combine(Span[] spans) {
+        if (spans.length == 1) {
+            return spans[0];
+        }
+        return () -> {
+            for (int i = spans.length - 1; i >= 0; i--) {
+                spans[i].end();
+            }
+        };
+    }
+}
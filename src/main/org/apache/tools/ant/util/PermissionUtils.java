@@ -24,7 +24,9 @@ import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFileAttributeView;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -93,6 +95,102 @@ public class PermissionUtils {
         return permissions;
     }
 
+    /**
+     * Applies a mode as understood by chmod(1) to a set of
+     * permissions.
+     *
+     * <p>Supported are octal modes that don't contain the setuid,
+     * setgid or sticky bits and symbolic modes made of comma
+     * separated clauses like {@code u+x} or {@code go=rX}. Symbolic
+     * clauses must name the classes of users they apply to as the
+     * result would depend on the umask otherwise.</p>
+     *
+     * @param mode the mode
+     * @param permissions the current permissions, won't be modified
+     * @param isDirectory whether the permissions belong to a
+     * directory, only relevant for {@code X}
+     * @return the new permissions or null if the mode is not
+     * supported
+     * @since Ant 1.10.16
+     */
+    public static Set<PosixFilePermission> applyMode(String mode,
+                                                     Set<PosixFilePermission> permissions,
+                                                     boolean isDirectory) {
+        if (mode.isEmpty()) {
+            return null;
+        }
+        if (mode.chars().allMatch(c -> c >= '0' && c <= '7')) {
+            if (mode.length() > 4) {
+                return null;
+            }
+            int m = Integer.parseInt(mode, 8);
+            return m > 0777 ? null : permissionsFromMode(m);
+        }
+        Set<PosixFilePermission> result = EnumSet.noneOf(PosixFilePermission.class);
+        result.addAll(permissions);
+        for (String clause : mode.split(",", -1)) {
+            Set<String> prefixes = new LinkedHashSet<>();
+            int i = 0;
+            for (; i < clause.length() && "ugoa".indexOf(clause.charAt(i)) >= 0; i++) {
+                switch (clause.charAt(i)) {
+                case 'u':
+                    prefixes.add("OWNER");
+                    break;
+                case 'g':
+                    prefixes.add("GROUP");
+                    break;
+                case 'o':
+                    prefixes.add("OTHERS");
+                    break;
+                default:
+                    prefixes.addAll(Arrays.asList("OWNER", "GROUP", "OTHERS"));
+                    break;
+                }
+            }
+            if (prefixes.isEmpty() || i == clause.length()) {
+                return null;
+            }
+            while (i < clause.length()) {
+                char op = clause.charAt(i++);
+                if ("+-=".indexOf(op) < 0) {
+                    return null;
+                }
+                long bits = 0;
+                for (; i < clause.length() && "rwxX".indexOf(clause.charAt(i)) >= 0; i++) {
+                    switch (clause.charAt(i)) {
+                    case 'r':
+                        bits |= 4;
+                        break;
+                    case 'w':
+                        bits |= 2;
+                        break;
+                    case 'x':
+                        bits |= 1;
+                        break;
+                    default:
+                        if (isDirectory || result.contains(PosixFilePermission.OWNER_EXECUTE)
+                            || result.contains(PosixFilePermission.GROUP_EXECUTE)
+                            || result.contains(PosixFilePermission.OTHERS_EXECUTE)) {
+                            bits |= 1;
+                        }
+                        break;
+                    }
+                }
+                for (String prefix : prefixes) {
+                    if (op != '+') {
+                        Set<PosixFilePermission> removed = EnumSet.noneOf(PosixFilePermission.class);
+                        addPermissions(removed, prefix, op == '=' ? 7 : bits);
+                        result.removeAll(removed);
+                    }
+                    if (op != '-') {
+                        addPermissions(result, prefix, bits);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Sets permissions on a {@link Resource} - doesn't do anything
      * for unsupported resource types.
@@ -174,6 +174,8 @@ public class ResourceUtils {
             return Resources.NONE;
         }
         source = Union.getInstance(source);
+        final boolean verbose = logTo.getProject() != null
+            && logTo.getProject().isLoggable(Project.MSG_VERBOSE);
 
         final Union result = new Union();
         for (final Resource sr : source) {
@@ -209,17 +211,21 @@ public class ResourceUtils {
             r.add(targetColl);
             if (r.size() > 0) {
                 result.add(sr);
-                final Resource t = r.iterator().next();
-                logTo.log(sr.getName() + " added as " + t.getName()
-                    + (t.isExists() ? " is outdated." : " doesn't exist."),
-                    Project.MSG_VERBOSE);
+                if (verbose) {
+                    final Resource t = r.iterator().next();
+                    logTo.log(sr.getName() + " added as " + t.getName()
+                        + (t.isExists() ? " is outdated." : " doesn't exist."),
+                        Project.MSG_VERBOSE);
+                }
                 continue;
             }
             //log uptodateness of all targets:
-            logTo.log(sr.getName()
-                  + " omitted as " + targetColl.toString()
-                  + (targetColl.size() == 1 ? " is" : " are ")
-                  + " up to date.", Project.MSG_VERBOSE);
+            if (verbose) {
+                logTo.log(sr.getName()
+                      + " omitted as " + targetColl.toString()
+                      + (targetColl.size() == 1 ? " is" : " are ")
+                      + " up to date.", Project.MSG_VERBOSE);
+            }
         }
         return result;
     }
@@ -431,6 +437,9 @@ public class ResourceUtils {
                 copyUsingStreams(source, dest, append, project);
             }
         }
+        if (Instrumentation.isEnabled()) {
+            Instrumentation.bytesCopied(Math.max(source.getSize(), 0));
+        }
         if (preserveLastModified) {
             dest.asOptional(Touchable.class)
                 .ifPresent(t -> setLastModified(t, source.getLastModified()));
@@ -21,10 +21,18 @@ package org.apache.tools.ant.util;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Generalization of <code>ExecuteWatchdog</code>
  *
+ * <p>Since Ant 1.10.16 all watchdogs share a single timer thread
+ * rather than starting a thread of their own and the observers are
+ * informed in that thread.  Observers should return quickly as they
+ * delay the timeouts of other watchdogs otherwise.</p>
+ *
  * @since Ant 1.5
  *
  * @see org.apache.tools.ant.taskdefs.ExecuteWatchdog
@@ -48,6 +56,11 @@ public class Watchdog implements Runnable {
      */
     private volatile boolean stopped = false;
 
+    /** timeout scheduled by the most recent start */
+    private ScheduledFuture<?> pending;
+    /** incremented by each start so outdated timeouts can be ignored */
+    private int generation;
+
     /**
      * Constructor for Watchdog.
      * @param timeout the timeout to use in milliseconds (must be &gt;= 1).
@@ -88,9 +101,12 @@ public class Watchdog implements Runnable {
      */
     public synchronized void start() {
         stopped = false;
-        Thread t = new Thread(this, "WATCHDOG");
-        t.setDaemon(true);
-        t.start();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        final int startedAt = ++generation;
+        pending = Timer.INSTANCE.schedule(() -> timeout(startedAt), timeout,
+                                          TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -98,11 +114,33 @@ public class Watchdog implements Runnable {
      */
     public synchronized void stop() {
         stopped = true;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
         notifyAll();
     }
 
     /**
-     * The run method of the watch dog thread.
+     * Informs the observers unless the watchdog has been stopped or
+     * restarted since the timeout has been scheduled.
+     */
+    private void timeout(int startedAt) {
+        synchronized (this) {
+            if (stopped || startedAt != generation) {
+                return;
+            }
+            pending = null;
+        }
+        fireTimeoutOccured();
+    }
+
+    /**
+     * Waits for the timeout in the calling thread.
+     *
+     * <p>Not used by {@link #start} anymore, but kept for code that
+     * runs watchdogs in threads of its own.</p>
+     *
      * This simply does a wait for the timeout time, and
      * if the stop flag has not been set when the wait has returned or
      * has been interrupted, the watch dog listeners are informed.
@@ -125,4 +163,22 @@ public class Watchdog implements Runnable {
         }
     }
 
+    /**
+     * The timer shared by all watchdogs, created on first use.
+     */
+    private static final class Timer {
+        private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "WATCHDOG");
+                t.setDaemon(true);
+                return t;
+            });
+            // don't keep the tasks of stopped watchdogs around until
+            // their timeout would have expired
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
 }
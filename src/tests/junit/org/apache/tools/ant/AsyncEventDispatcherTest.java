@@ -0,0 +1,203 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncEventDispatcherTest {
+
+    private Project project;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        listener = new RecordingListener();
+        project.addBuildListener(listener);
+    }
+
+    @Test
+    public void testEventsOfEachThreadArriveInOrder() throws InterruptedException {
+        project.enableAsyncEventDispatch(16, false);
+        project.fireBuildStarted();
+        Thread other = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                project.log("b" + i);
+            }
+        });
+        other.start();
+        for (int i = 0; i < 1000; i++) {
+            project.log("a" + i);
+        }
+        other.join();
+        project.fireBuildFinished(null);
+
+        assertEquals("started", listener.events.get(0));
+        assertEquals("finished", listener.events.get(listener.events.size() - 1));
+        int a = 0;
+        int b = 0;
+        for (String e : listener.events) {
+            if (e.startsWith("a")) {
+                assertEquals("a" + a++, e);
+            } else if (e.startsWith("b")) {
+                assertEquals("b" + b++, e);
+            }
+        }
+        assertEquals(1000, a);
+        assertEquals(1000, b);
+        assertNotSame(Thread.currentThread(), listener.thread);
+    }
+
+    @Test
+    public void testEventsKnowTheirFiringThread() throws InterruptedException {
+        project.enableAsyncEventDispatch(0, false);
+        Thread other = new Thread(() -> project.log("other"));
+        other.start();
+        other.join();
+        project.log("main");
+        project.fireBuildFinished(null);
+        assertEquals(other, listener.firingThreads.get("other"));
+        assertEquals(Thread.currentThread(), listener.firingThreads.get("main"));
+        assertNotSame(Thread.currentThread(), listener.thread);
+    }
+
+    @Test
+    public void testRemoveListenerDeliversPendingEvents() {
+        project.enableAsyncEventDispatch(0, false);
+        project.log("one");
+        project.log("two");
+        project.removeBuildListener(listener);
+        assertEquals(2, listener.events.size());
+        project.log("three");
+        project.fireBuildFinished(null);
+        assertEquals(2, listener.events.size());
+    }
+
+    @Test
+    public void testSubProjectSharesDispatcher() {
+        project.enableAsyncEventDispatch(0, false);
+        Project sub = project.createSubProject();
+        sub.addBuildListener(listener);
+        project.log("one");
+        sub.log("two");
+        project.log("three");
+        project.fireBuildFinished(null);
+        assertEquals("one", listener.events.get(0));
+        assertEquals("two", listener.events.get(1));
+        assertEquals("three", listener.events.get(2));
+    }
+
+    @Test
+    public void testListenerFailureIsRethrown() {
+        project.enableAsyncEventDispatch(0, false);
+        project.addBuildListener(new RecordingListener() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                throw new BuildException("broken listener");
+            }
+        });
+        project.log("one");
+        try {
+            project.fireBuildFinished(null);
+            fail("expected the listener's exception");
+        } catch (BuildException e) {
+            assertEquals("broken listener", e.getMessage());
+        }
+        assertEquals("finished", listener.events.get(listener.events.size() - 1));
+    }
+
+    @Test
+    public void testDiscardDropsVerboseMessagesOnly() {
+        CountDownLatch release = new CountDownLatch(1);
+        project.addBuildListener(new RecordingListener() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        project.enableAsyncEventDispatch(2, true);
+        for (int i = 0; i < 10; i++) {
+            project.log("verbose" + i, Project.MSG_VERBOSE);
+        }
+        release.countDown();
+        project.log("info");
+        project.fireBuildFinished(null);
+        assertTrue(listener.events.contains("info"));
+        assertTrue(listener.events.stream()
+                   .anyMatch(e -> e.endsWith("messages have been discarded"
+                                             + " as the build listeners couldn't keep up")));
+    }
+
+    private static class RecordingListener implements BuildListener {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final Map<String, Thread> firingThreads = new ConcurrentHashMap<>();
+        private volatile Thread thread;
+
+        @Override
+        public void buildStarted(BuildEvent event) {
+            events.add("started");
+        }
+
+        @Override
+        public void buildFinished(BuildEvent event) {
+            events.add("finished");
+        }
+
+        @Override
+        public void targetStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void targetFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void taskStarted(BuildEvent event) {
+        }
+
+        @Override
+        public void taskFinished(BuildEvent event) {
+        }
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+            thread = Thread.currentThread();
+            if (event.getPriority() <= Project.MSG_INFO) {
+                events.add(event.getMessage());
+                firingThreads.put(event.getMessage(), event.getThread());
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.tools.ant.launch.DaemonClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DaemonTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File connectionFile;
+    private File dir;
+    private Thread daemon;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Before
+    public void startDaemon() throws Exception {
+        connectionFile = new File(folder.newFolder("home"), "daemon.properties");
+        dir = folder.newFolder("project");
+        Files.write(new File(dir, "build.xml").toPath(),
+            ("<project default='hello'>"
+             + "<target name='hello'><echo>hello ${who}</echo></target>"
+             + "<target name='fail'><fail>failed on purpose</fail></target>"
+             + "<target name='pool'><echo>pool is [${toString:ant.classLoaderPool}]</echo></target>"
+             + "</project>").getBytes(StandardCharsets.UTF_8));
+        daemon = new Thread(() -> {
+            try {
+                new Daemon(connectionFile).serve(null);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        daemon.setDaemon(true);
+        daemon.start();
+        for (int i = 0; i < 100 && !connectionFile.exists(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue("daemon didn't start", connectionFile.exists());
+    }
+
+    @After
+    public void stopDaemon() throws Exception {
+        if (connectionFile.exists()) {
+            DaemonClient.run(connectionFile, dir,
+                             Collections.singletonList(DaemonClient.STOP), out, err);
+        }
+        daemon.join(5000);
+    }
+
+    @Test
+    public void runsBuildsAndStreamsTheLog() throws IOException {
+        assertEquals(Integer.valueOf(0), run("-Dwho=world"));
+        assertThat(out.toString(), containsString("hello world"));
+        assertThat(out.toString(), containsString("BUILD SUCCESSFUL"));
+
+        out.reset();
+        assertEquals(Integer.valueOf(0), run("-Dwho", "again"));
+        assertThat(out.toString(), containsString("hello again"));
+        assertThat(out.toString(), not(containsString("hello world")));
+    }
+
+    @Test
+    public void reportsFailedBuilds() throws IOException {
+        assertEquals(Integer.valueOf(1), run("fail"));
+        assertThat(err.toString(), containsString("failed on purpose"));
+        assertThat(err.toString(), containsString("BUILD FAILED"));
+    }
+
+    @Test
+    public void sharesTheClassLoaderPoolBetweenBuilds() throws IOException {
+        assertEquals(Integer.valueOf(0), run("pool"));
+        String first = poolOf(out.toString());
+        out.reset();
+        assertEquals(Integer.valueOf(0), run("pool"));
+        assertEquals(first, poolOf(out.toString()));
+    }
+
+    @Test
+    public void resolvesFilesRelativeToTheClient() throws IOException {
+        assertEquals(Integer.valueOf(0), run("-f", "build.xml", "-l", "log.txt"));
+        assertThat(new String(Files.readAllBytes(new File(dir, "log.txt").toPath()),
+                              StandardCharsets.UTF_8),
+                   containsString("hello ${who}"));
+    }
+
+    @Test
+    public void stops() throws Exception {
+        assertEquals(Integer.valueOf(0),
+                     DaemonClient.run(connectionFile, dir,
+                                      Collections.singletonList(DaemonClient.STOP), out, err));
+        daemon.join(5000);
+        assertFalse(daemon.isAlive());
+        assertFalse(connectionFile.exists());
+    }
+
+    @Test
+    public void noDaemon() throws IOException {
+        assertNull(DaemonClient.run(new File(folder.getRoot(), "missing"), dir,
+                                    Collections.emptyList(), out, err));
+    }
+
+    @Test
+    public void addsBuildFileAndDisablesInput() {
+        assertArrayEquals(new String[] {
+                "-noinput", "-buildfile", new File(dir, "build.xml").getAbsolutePath(),
+                "-q", "-Dx", "-f", "target"
+            }, Daemon.resolveArgs(dir, new String[] {"-q", "-Dx", "-f", "target"}));
+        assertArrayEquals(new String[] {
+                "-noinput", "-propertyfile", new File(dir, "p").getAbsolutePath(),
+                "-find", "build.xml"
+            }, Daemon.resolveArgs(dir, new String[] {"-propertyfile", "p", "-find", "build.xml"}));
+    }
+
+    private Integer run(String... args) throws IOException {
+        return DaemonClient.run(connectionFile, dir, Arrays.asList(args), out, err);
+    }
+
+    private static String poolOf(String log) {
+        int start = log.indexOf("pool is [");
+        assertTrue(log, start >= 0);
+        String pool = log.substring(start, log.indexOf(']', start));
+        assertThat(pool, containsString("ClassLoaderPool@"));
+        return pool;
+    }
+}
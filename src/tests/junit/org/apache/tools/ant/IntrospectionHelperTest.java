@@ -241,6 +241,128 @@ public class IntrospectionHelperTest {
         ih.createElement(p, this, "fifteen");
     }
 
+    @Test
+    public void testDynamicElementCreator() {
+        IntrospectionHelper dih = IntrospectionHelper.getHelper(DynamicElementHolder.class);
+        DynamicElementHolder holder = new DynamicElementHolder();
+        assertEquals("dynamic:foo", dih.createElement(p, holder, "foo"));
+    }
+
+    public static class DynamicElementHolder implements DynamicElement {
+        public Object createDynamicElement(String name) {
+            return "dynamic:" + name;
+        }
+    }
+
+    @Test
+    public void testSetterBuildExceptionIsUnwrapped() {
+        IntrospectionHelper tih = IntrospectionHelper.getHelper(ThrowingSetter.class);
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("boom");
+        tih.setAttribute(p, new ThrowingSetter(), "fail", "build");
+    }
+
+    @Test
+    public void testSetterRuntimeExceptionIsWrapped() {
+        IntrospectionHelper tih = IntrospectionHelper.getHelper(ThrowingSetter.class);
+        thrown.expect(BuildException.class);
+        thrown.expect(hasProperty("cause", instanceOf(IllegalStateException.class)));
+        tih.setAttribute(p, new ThrowingSetter(), "fail", "state");
+    }
+
+    @Test
+    public void testInvokerWrapsExceptionOfTarget() throws Exception {
+        IntrospectionHelper.Invoker invoker = new IntrospectionHelper.Invoker(
+            ThrowingSetter.class.getMethod("setFail", String.class));
+        thrown.expect(InvocationTargetException.class);
+        thrown.expect(hasProperty("cause", instanceOf(BuildException.class)));
+        invoker.invoke(new ThrowingSetter(), "build");
+    }
+
+    @Test
+    public void testPrimitiveSetter() {
+        IntrospectionHelper tih = IntrospectionHelper.getHelper(PrimitiveHolder.class);
+        PrimitiveHolder holder = new PrimitiveHolder();
+        tih.setAttribute(p, holder, "value", "7");
+        assertEquals(7L, holder.value);
+    }
+
+    @Test
+    public void testInvokerWideningFallsBackToReflection() throws Exception {
+        IntrospectionHelper.Invoker invoker = new IntrospectionHelper.Invoker(
+            PrimitiveHolder.class.getMethod("setValue", long.class));
+        PrimitiveHolder holder = new PrimitiveHolder();
+        invoker.invoke(holder, 42L);
+        assertEquals(42L, holder.value);
+        // int to long needs a widening conversion the handle doesn't do
+        invoker.invoke(holder, 43);
+        assertEquals(43L, holder.value);
+    }
+
+    @Test
+    public void testInvokerRejectsNullForPrimitive() throws Exception {
+        IntrospectionHelper.Invoker invoker = new IntrospectionHelper.Invoker(
+            PrimitiveHolder.class.getMethod("setValue", long.class));
+        thrown.expect(IllegalArgumentException.class);
+        invoker.invoke(new PrimitiveHolder(), (Object) null);
+    }
+
+    @Test
+    public void testInvokerRejectsMismatchedArgument() throws Exception {
+        IntrospectionHelper.Invoker invoker = new IntrospectionHelper.Invoker(
+            PrimitiveHolder.class.getMethod("setValue", long.class));
+        thrown.expect(IllegalArgumentException.class);
+        invoker.invoke(new PrimitiveHolder(), "42");
+    }
+
+    @Test
+    public void testInvokerNonPublicClassFallsBackToReflection() throws Exception {
+        // not visible to the public lookup, but to reflection from this package
+        IntrospectionHelper.Invoker invoker = new IntrospectionHelper.Invoker(
+            PackagePrivateHolder.class.getMethod("setValue", String.class));
+        PackagePrivateHolder holder = new PackagePrivateHolder();
+        invoker.invoke(holder, "foo");
+        assertEquals("foo", holder.value);
+    }
+
+    @Test
+    public void testInvokerInaccessibleMethod() throws Exception {
+        IntrospectionHelper.Invoker invoker = new IntrospectionHelper.Invoker(
+            PrivateHolder.class.getDeclaredMethod("setValue", String.class));
+        thrown.expect(IllegalAccessException.class);
+        invoker.invoke(new PrivateHolder(), "foo");
+    }
+
+    public static class ThrowingSetter {
+        public void setFail(String what) {
+            if ("build".equals(what)) {
+                throw new BuildException("boom");
+            }
+            throw new IllegalStateException(what);
+        }
+    }
+
+    public static class PrimitiveHolder {
+        private long value;
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+    }
+
+    static class PackagePrivateHolder {
+        private String value;
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    public static class PrivateHolder {
+        private void setValue(String value) {
+        }
+    }
+
     private Map<String, Class<?>> getExpectedNestedElements() {
         Map<String, Class<?>> elemMap = new Hashtable<>();
         elemMap.put("six", String.class);
@@ -21,6 +21,7 @@ package org.apache.tools.ant;
 import org.apache.tools.ant.input.DefaultInputHandler;
 import org.apache.tools.ant.input.InputHandler;
 import org.apache.tools.ant.input.PropertyFileInputHandler;
+import org.apache.tools.ant.listener.TimestampedLogger;
 import org.apache.tools.ant.taskdefs.condition.Os;
 
 import java.io.File;
@@ -39,6 +40,7 @@ import static org.hamcrest.Matchers.hasValue;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -337,6 +339,73 @@ public class ProjectTest {
         // be content if no exception has been thrown
     }
 
+    @Test
+    public void testIsLoggable() {
+        Project project = new Project();
+        assertFalse(project.isLoggable(Project.MSG_ERR));
+
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        project.addBuildListener(logger);
+        assertTrue(project.isLoggable(Project.MSG_INFO));
+        assertFalse(project.isLoggable(Project.MSG_VERBOSE));
+
+        logger.setMessageOutputLevel(Project.MSG_DEBUG);
+        assertTrue(project.isLoggable(Project.MSG_DEBUG));
+
+        logger.setMessageOutputLevel(Project.MSG_WARN);
+        project.addBuildListener(new MockBuildListener(project));
+        assertTrue(project.isLoggable(Project.MSG_DEBUG));
+    }
+
+    @Test
+    public void testMessagesNobodyWantsAreNotDispatched() {
+        CountingLogger logger = new CountingLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        p.log("verbose", Project.MSG_VERBOSE);
+        p.log("info", Project.MSG_INFO);
+        assertEquals(1, logger.count);
+    }
+
+    @Test
+    public void testOverridingMessageLoggedSeesAllMessages() {
+        final int[] count = new int[1];
+        DefaultLogger logger = new DefaultLogger() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                count[0]++;
+            }
+        };
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        assertTrue(p.isLoggable(Project.MSG_DEBUG));
+        p.log("verbose", Project.MSG_VERBOSE);
+        p.log("info", Project.MSG_INFO);
+        assertEquals(2, count[0]);
+    }
+
+    @Test
+    public void testSubclassesNotOverridingMessageLoggedAreLevelAware() {
+        NoBannerLogger logger = new NoBannerLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        p.addBuildListener(logger);
+        assertFalse(p.isLoggable(Project.MSG_VERBOSE));
+        p.removeBuildListener(logger);
+        p.addBuildListener(new TimestampedLogger());
+        assertFalse(p.isLoggable(Project.MSG_INFO));
+    }
+
+    private static class CountingLogger extends DefaultLogger
+        implements LevelAwareBuildListener {
+        private int count;
+
+        @Override
+        public void messageLogged(BuildEvent event) {
+            count++;
+        }
+    }
+
     private class DummyTaskPrivate extends Task {
         @SuppressWarnings("unused")
         public DummyTaskPrivate() {
@@ -18,11 +18,20 @@
 
 package org.apache.tools.ant;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
 import org.apache.tools.ant.property.LocalProperties;
+import org.apache.tools.ant.property.PropertyExpander;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class PropertyHelperTest {
 
@@ -52,4 +61,109 @@ public class PropertyHelperTest {
         assertTrue(p.getPropertyNames().contains("foo"));
         assertFalse(p.getPropertyNames().contains("baz"));
     }
+
+    @Test
+    public void repeatedExpansionSeesCurrentValues() {
+        Project p = new Project();
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(p);
+        String value = "a${x}b$${x}c${y}d";
+        assertEquals("a${x}b${x}c${y}d", ph.replaceProperties(value));
+        p.setProperty("x", "1");
+        assertEquals("a1b${x}c${y}d", ph.replaceProperties(value));
+        p.setProperty("x", "2");
+        p.setProperty("y", "3");
+        assertEquals("a2b${x}c3d", ph.replaceProperties(value));
+        assertTrue(ph.containsProperties(value));
+        assertFalse(ph.containsProperties("a$$b"));
+        assertEquals("a$b", ph.replaceProperties("a$$b"));
+        assertEquals("${}", ph.replaceProperties("${}"));
+    }
+
+    @Test
+    public void singleReferenceReturnsValueObject() {
+        Project p = new Project();
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(p);
+        Object o = new Object();
+        p.addReference("r", o);
+        assertSame(o, ph.parseProperties("${ant.refid:r}"));
+        assertSame(o, ph.parseProperties("${ant.refid:r}"));
+        assertEquals(o.toString() + "x", ph.parseProperties("${ant.refid:r}x"));
+    }
+
+    @Test
+    public void syntaxErrorIsReportedEveryTime() {
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(new Project());
+        for (int i = 0; i < 2; i++) {
+            try {
+                ph.parseProperties("a${b");
+                fail("expected a syntax error");
+            } catch (BuildException e) {
+                assertEquals("Syntax error in property: ${b", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void customExpandersAreHonoredAfterCaching() {
+        Project p = new Project();
+        p.setProperty("x", "1");
+        PropertyHelper ph = PropertyHelper.getPropertyHelper(p);
+        assertEquals("1 #x", ph.replaceProperties("${x} #x"));
+        ph.add((PropertyExpander) (s, pos, notUsed) -> {
+            int index = pos.getIndex();
+            if (s.length() - index >= 2 && s.charAt(index) == '#') {
+                pos.setIndex(index + 2);
+                return s.substring(index + 1, index + 2);
+            }
+            return null;
+        });
+        assertEquals("1 1", ph.replaceProperties("${x} #x"));
+        assertTrue(ph.containsProperties("#x"));
+    }
+
+    @Test
+    public void propertiesViewIsLiveAndReadOnly() {
+        Project p = new Project();
+        Map<String, Object> view = PropertyHelper.getPropertyHelper(p).getPropertiesView();
+        p.setNewProperty("foo", "bar");
+        assertEquals("bar", view.get("foo"));
+        try {
+            view.put("foo", "baz");
+            fail("view should be read-only");
+        } catch (UnsupportedOperationException e) {
+            assertEquals("bar", p.getProperty("foo"));
+        }
+    }
+
+    @Test
+    public void concurrentSetNewPropertyKeepsFirstValue() throws InterruptedException {
+        Project p = new Project();
+        p.init();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String value = "v" + i;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 100; j++) {
+                    p.setNewProperty("p" + j, value);
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        for (int j = 0; j < 100; j++) {
+            String value = p.getProperty("p" + j);
+            p.setNewProperty("p" + j, "late");
+            assertEquals(value, p.getProperty("p" + j));
+        }
+    }
 }
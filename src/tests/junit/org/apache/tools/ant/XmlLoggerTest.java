@@ -18,8 +18,20 @@
 
 package org.apache.tools.ant;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
 import org.apache.tools.ant.taskdefs.Cvs;
 import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import static org.junit.Assert.assertEquals;
 
 public class XmlLoggerTest {
 
@@ -37,4 +49,70 @@ public class XmlLoggerTest {
         logger.buildFinished(event);
       }
 
+    @Test
+    public void testUsesThreadOfEventRatherThanCurrentThread() throws Exception {
+        Project project = new Project();
+        XmlLogger logger = new XmlLogger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        logger.setOutputPrintStream(new PrintStream(out));
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        Target target = new Target();
+        target.setName("t");
+        target.setProject(project);
+        Task first = createTask(project, "first", target);
+        Task second = createTask(project, "second", target);
+        ExecutorService t1 = Executors.newSingleThreadExecutor();
+        ExecutorService t2 = Executors.newSingleThreadExecutor();
+        try {
+            // events of two threads delivered on this thread, like an
+            // asynchronous dispatcher does
+            logger.buildStarted(new BuildEvent(project));
+            logger.targetStarted(new BuildEvent(target));
+            logger.taskStarted(t1.submit(() -> new BuildEvent(first)).get());
+            logger.messageLogged(t1.submit(() -> message(first, "one")).get());
+            logger.taskStarted(t2.submit(() -> new BuildEvent(second)).get());
+            logger.messageLogged(t2.submit(() -> message(second, "two")).get());
+            logger.messageLogged(t1.submit(() -> message(first, "one-done")).get());
+            logger.taskFinished(t1.submit(() -> new BuildEvent(first)).get());
+            logger.taskFinished(t2.submit(() -> new BuildEvent(second)).get());
+            logger.targetFinished(new BuildEvent(target));
+            logger.buildFinished(new BuildEvent(project));
+        } finally {
+            t1.shutdown();
+            t2.shutdown();
+        }
+
+        Element t = (Element) DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(out.toByteArray()))
+            .getElementsByTagName("target").item(0);
+        NodeList tasks = t.getElementsByTagName("task");
+        assertEquals(2, tasks.getLength());
+        Element f = (Element) tasks.item(0);
+        assertEquals("first", f.getAttribute("name"));
+        NodeList messages = f.getElementsByTagName("message");
+        assertEquals(2, messages.getLength());
+        assertEquals("one", messages.item(0).getTextContent());
+        assertEquals("one-done", messages.item(1).getTextContent());
+        Element s = (Element) tasks.item(1);
+        assertEquals("second", s.getAttribute("name"));
+        messages = s.getElementsByTagName("message");
+        assertEquals(1, messages.getLength());
+        assertEquals("two", messages.item(0).getTextContent());
+    }
+
+    private static Task createTask(Project project, String name, Target target) {
+        Task task = new Task() {
+        };
+        task.setProject(project);
+        task.setTaskName(name);
+        task.setOwningTarget(target);
+        return task;
+    }
+
+    private static BuildEvent message(Task task, String message) {
+        BuildEvent event = new BuildEvent(task);
+        event.setMessage(message, Project.MSG_INFO);
+        return event;
+    }
+
 }
@@ -0,0 +1,113 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for org.apache.tools.ant.helper.ImportPrefetcher.
+ */
+public class ImportPrefetcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    @Test
+    public void importsAreMergedInDeclarationOrder() throws IOException {
+        write("a.xml", "<project name='a'><property name='p' value='a'/>"
+              + "<target name='t' description='a'/></project>");
+        write("b.xml", "<project name='b'><property name='p' value='b'/>"
+              + "<target name='t' description='b'/><target name='onlyb'/></project>");
+        File buildFile = write("build.xml", "<project name='main'>"
+              + "<import file='a.xml'/><import file='b.xml'/></project>");
+        Project sequential = configure(buildFile, null);
+        Project prefetched = configure(buildFile, "2");
+        assertEquals("a", prefetched.getProperty("p"));
+        assertEquals(sequential.getTargets().keySet(), prefetched.getTargets().keySet());
+        for (String t : new String[] {"t", "a.t", "b.t"}) {
+            assertEquals(sequential.getTargets().get(t).getDescription(),
+                         prefetched.getTargets().get(t).getDescription());
+        }
+        assertTrue(prefetched.getTargets().containsKey("onlyb"));
+        assertTrue(log.toString().contains("using prefetched parse of buildfile"));
+    }
+
+    @Test
+    public void nestedResourcesArePrefetched() throws IOException {
+        write("x1.xml", "<project name='x1'><target name='x1'/></project>");
+        write("x2.xml", "<project name='x2'><target name='x2'/></project>");
+        File buildFile = write("build.xml", "<project name='main'>"
+              + "<import><fileset dir='.' includes='x*.xml'/></import></project>");
+        Project p = configure(buildFile, "2");
+        assertTrue(p.getTargets().containsKey("x1"));
+        assertTrue(p.getTargets().containsKey("x2"));
+    }
+
+    @Test
+    public void filesChangedByEarlierImportsAreParsedAgain() throws IOException {
+        write("gen.xml", "<project name='gen'><target name='stale'/></project>");
+        write("writer.xml", "<project name='writer'><echo file='${basedir}/gen.xml'>"
+              + "&lt;project name='gen'&gt;&lt;target name='fresh'/&gt;&lt;/project&gt;"
+              + "</echo></project>");
+        File buildFile = write("build.xml", "<project name='main' basedir='.'>"
+              + "<import file='writer.xml'/><import file='gen.xml'/></project>");
+        Project p = configure(buildFile, "2");
+        assertTrue(p.getTargets().containsKey("fresh"));
+        assertFalse(p.getTargets().containsKey("stale"));
+    }
+
+    private Project configure(File buildFile, String threads) {
+        Project p = new Project();
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_VERBOSE);
+        logger.setOutputPrintStream(new PrintStream(log));
+        logger.setErrorPrintStream(new PrintStream(log));
+        p.addBuildListener(logger);
+        p.init();
+        if (threads != null) {
+            p.setUserProperty(MagicNames.IMPORT_PREFETCH_THREADS, threads);
+        }
+        ProjectHelper.configureProject(p, buildFile);
+        return p;
+    }
+
+    private File write(String name, String content) throws IOException {
+        File f = new File(folder.getRoot(), name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for org.apache.tools.ant.helper.ParseCache.
+ */
+public class ParseCacheTest {
+
+    private static final String BUILD_FILE = "<?xml version='1.0'?>\n"
+        + "<project name='cached' default='a' xmlns:x='antlib:org.example'>\n"
+        + "  <property name='p' value='v'/>\n"
+        + "  <target name='a' depends='b' description='first'>\n"
+        + "    <echo message='${p}'>some text</echo>\n"
+        + "  </target>\n"
+        + "  <target name='b'/>\n"
+        + "</project>\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = new File(folder.getRoot(), "cache");
+    }
+
+    @Test
+    public void replayedProjectMatchesParsedOne() throws IOException {
+        File buildFile = write("build.xml", BUILD_FILE);
+        Project parsed = configure(buildFile);
+        int entries = cacheEntries();
+        assertTrue(entries > 0);
+        Project replayed = configure(buildFile);
+        assertEquals(entries, cacheEntries());
+
+        assertEquals(parsed.getName(), replayed.getName());
+        assertEquals(parsed.getDefaultTarget(), replayed.getDefaultTarget());
+        assertEquals("v", replayed.getProperty("p"));
+        assertEquals(parsed.getTargets().keySet(), replayed.getTargets().keySet());
+
+        Target a = replayed.getTargets().get("a");
+        assertEquals("first", a.getDescription());
+        assertEquals("b", a.getDependencies().nextElement());
+        Task echo = a.getTasks()[0];
+        Task originalEcho = parsed.getTargets().get("a").getTasks()[0];
+        assertEquals(originalEcho.getLocation().toString(), echo.getLocation().toString());
+        assertEquals("some text",
+                     echo.getRuntimeConfigurableWrapper().getText().toString());
+        assertEquals("${p}",
+                     echo.getRuntimeConfigurableWrapper().getAttributeMap().get("message"));
+    }
+
+    @Test
+    public void changedContentIsParsedAgain() throws IOException {
+        File buildFile = write("build.xml", BUILD_FILE);
+        configure(buildFile);
+        int entries = cacheEntries();
+        write("build.xml", BUILD_FILE.replace("name='b'", "name='c'"));
+        Project p = configure(buildFile);
+        assertTrue(p.getTargets().containsKey("c"));
+        assertEquals(entries + 1, cacheEntries());
+    }
+
+    @Test
+    public void externalEntitiesAreNotCached() throws IOException {
+        write("entity.xml", "<target name='e'/>");
+        File buildFile = write("build.xml", "<?xml version='1.0'?>\n"
+            + "<!DOCTYPE project [ <!ENTITY e SYSTEM 'entity.xml'> ]>\n"
+            + "<project name='entities'>&e;</project>\n");
+        Project p = configure(buildFile);
+        assertTrue(p.getTargets().containsKey("e"));
+        String key = new ParseCache(cacheDir).getKey(Files.readAllBytes(buildFile.toPath()));
+        assertFalse(new File(cacheDir, key + ".saxev").exists());
+    }
+
+    private Project configure(File buildFile) {
+        Project p = new Project();
+        p.init();
+        p.setUserProperty(MagicNames.PARSE_CACHE_DIR, cacheDir.getAbsolutePath());
+        ProjectHelper.configureProject(p, buildFile);
+        return p;
+    }
+
+    private File write(String name, String content) throws IOException {
+        File f = new File(folder.getRoot(), name);
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private int cacheEntries() {
+        String[] entries = cacheDir.list();
+        return entries == null ? 0 : entries.length;
+    }
+}
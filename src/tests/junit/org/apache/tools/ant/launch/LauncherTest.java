@@ -0,0 +1,133 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.launch;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+/** Tests the check of the class data sharing archive in the launcher */
+public class LauncherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File jar;
+    private File archive;
+    private File stamp;
+    private URL[] jars;
+
+    @Before
+    public void setUp() throws IOException {
+        jar = folder.newFile("some.jar");
+        write(jar, "jar");
+        archive = new File(folder.getRoot(), "ant.jsa");
+        stamp = new File(folder.getRoot(), "ant.jsa.stamp");
+        jars = new URL[] {jar.toURI().toURL()};
+    }
+
+    @Test
+    public void deletesArchiveWithoutStamp() throws IOException {
+        write(archive, "archive");
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertFalse(archive.exists());
+        assertTrue(stamp.isFile());
+        assertTrue(read(stamp).contains(jar.getAbsolutePath() + " 3 "));
+    }
+
+    @Test
+    public void keepsArchiveWithMatchingStamp() throws IOException {
+        Launcher.checkCdsArchive(archive, jars, false);
+        String fingerprint = read(stamp);
+        write(archive, "archive");
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertTrue(archive.exists());
+        assertEquals(fingerprint, read(stamp));
+    }
+
+    @Test
+    public void deletesArchiveIfLengthOfJarHasChanged() throws IOException {
+        Launcher.checkCdsArchive(archive, jars, false);
+        String fingerprint = read(stamp);
+        write(archive, "archive");
+        long lastModified = jar.lastModified();
+        write(jar, "changed jar");
+        assertTrue(jar.setLastModified(lastModified));
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertFalse(archive.exists());
+        assertNotEquals(fingerprint, read(stamp));
+        assertTrue(read(stamp).contains(jar.getAbsolutePath() + " 11 "));
+    }
+
+    @Test
+    public void deletesArchiveIfJarHasBeenModified() throws IOException {
+        Launcher.checkCdsArchive(archive, jars, false);
+        String fingerprint = read(stamp);
+        write(archive, "archive");
+        assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertFalse(archive.exists());
+        assertNotEquals(fingerprint, read(stamp));
+
+        write(archive, "archive");
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertTrue(archive.exists());
+    }
+
+    @Test
+    public void deletesArchiveIfStampIsNoFile() throws IOException {
+        assertTrue(stamp.mkdir());
+        write(archive, "archive");
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertFalse(archive.exists());
+        assertTrue(stamp.isFile());
+    }
+
+    @Test
+    public void deletesArchiveIfStampCannotBeRead() throws IOException {
+        Launcher.checkCdsArchive(archive, jars, false);
+        write(archive, "archive");
+        assertTrue(stamp.setReadable(false));
+        // root can read anything
+        assumeFalse(stamp.canRead());
+        Launcher.checkCdsArchive(archive, jars, false);
+        assertFalse(archive.exists());
+        assertTrue(stamp.canRead());
+    }
+
+    private static void write(File f, String content) throws IOException {
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File f) throws IOException {
+        return new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+    }
+}
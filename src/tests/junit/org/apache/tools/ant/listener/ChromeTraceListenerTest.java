@@ -0,0 +1,132 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.taskdefs.Parallel;
+import org.apache.tools.ant.taskdefs.Sleep;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class ChromeTraceListenerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private File trace;
+
+    @Before
+    public void setUp() throws Exception {
+        trace = folder.newFile("trace.json");
+        project = new Project();
+        project.init();
+        project.setName("traced");
+        project.setUserProperty(ChromeTraceListener.FILE_PROPERTY, trace.getAbsolutePath());
+        project.addBuildListener(new ChromeTraceListener());
+        // slow and fast both depend on init, all depends on both
+        addTarget("init", "", 10);
+        addTarget("fast", "init", 10);
+        addTarget("slow", "init", 200);
+        addTarget("all", "fast,slow", 10);
+    }
+
+    @Test
+    public void testTimelineAndCriticalPath() throws Exception {
+        project.fireBuildStarted();
+        project.executeTarget("all");
+        project.fireBuildFinished(null);
+
+        String json = new String(Files.readAllBytes(trace.toPath()), StandardCharsets.UTF_8);
+        assertThat(json, containsString("\"traceEvents\": ["));
+        assertThat(json, containsString("\"ph\": \"M\", \"name\": \"thread_name\""));
+        assertThat(json, containsString("\"cat\": \"target\", \"name\": \"slow\""));
+        assertThat(json, containsString("\"cat\": \"task\", \"name\": \"sleep\""));
+        assertThat(json, containsString("\"cat\": \"build\", \"name\": \"traced\""));
+        assertThat(json.replaceAll("\"dur\": \\d+", "\"dur\": 0"),
+                   containsString("\"criticalPath\": [\n{\"name\": \"init\", \"dur\": 0},\n"
+                                  + "{\"name\": \"slow\", \"dur\": 0},\n"
+                                  + "{\"name\": \"all\", \"dur\": 0}\n]"));
+    }
+
+    @Test
+    public void testLanesAndTimesOfAsynchronousEvents() throws Exception {
+        project.enableAsyncEventDispatch(0, false);
+        Target t = new Target();
+        t.setName("parallel");
+        t.setProject(project);
+        Parallel parallel = new Parallel();
+        parallel.setProject(project);
+        parallel.setTaskName("parallel");
+        parallel.setOwningTarget(t);
+        parallel.addTask(createSleep(t, "sleep1", 300));
+        parallel.addTask(createSleep(t, "sleep2", 300));
+        t.addTask(parallel);
+        project.addTarget(t);
+
+        project.fireBuildStarted();
+        project.executeTarget("parallel");
+        project.fireBuildFinished(null);
+
+        String json = new String(Files.readAllBytes(trace.toPath()), StandardCharsets.UTF_8);
+        Matcher m = Pattern.compile("\"cat\": \"task\", \"name\": \"sleep\\d\", "
+                                    + "\"pid\": 1, \"tid\": (\\d+), \"ts\": \\d+, "
+                                    + "\"dur\": (\\d+)").matcher(json);
+        Set<String> lanes = new HashSet<>();
+        while (m.find()) {
+            lanes.add(m.group(1));
+            assertThat(Long.parseLong(m.group(2)), greaterThanOrEqualTo(300000L));
+        }
+        // one lane per thread of parallel rather than the dispatcher's
+        assertEquals(2, lanes.size());
+    }
+
+    private void addTarget(String name, String depends, int millis) {
+        Target t = new Target();
+        t.setName(name);
+        t.setProject(project);
+        t.setDepends(depends);
+        t.addTask(createSleep(t, "sleep", millis));
+        project.addTarget(t);
+    }
+
+    private Sleep createSleep(Target t, String name, int millis) {
+        Sleep sleep = new Sleep();
+        sleep.setProject(project);
+        sleep.setTaskName(name);
+        sleep.setOwningTarget(t);
+        sleep.setMilliseconds(millis);
+        return sleep;
+    }
+}
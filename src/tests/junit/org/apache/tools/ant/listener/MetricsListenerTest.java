@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.taskdefs.Copy;
+import org.apache.tools.ant.types.FileSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
+
+public class MetricsListenerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+
+    @Before
+    public void setUp() throws Exception {
+        File src = folder.newFolder("src");
+        Files.write(new File(src, "a.txt").toPath(), new byte[100]);
+        Files.write(new File(src, "b.txt").toPath(), new byte[23]);
+
+        project = new Project();
+        project.init();
+        project.setName("measured");
+        project.addBuildListener(new MetricsListener());
+
+        Target target = new Target();
+        target.setName("copy");
+        target.setProject(project);
+        Copy copy = new Copy();
+        copy.setProject(project);
+        copy.setTaskName("copy");
+        copy.setOwningTarget(target);
+        copy.setTodir(new File(folder.getRoot(), "dest"));
+        FileSet fs = new FileSet();
+        fs.setProject(project);
+        fs.setDir(src);
+        copy.addFileset(fs);
+        target.addTask(copy);
+        project.addTarget(target);
+    }
+
+    @Test
+    public void testPrometheusFormat() throws Exception {
+        File metrics = new File(folder.getRoot(), "metrics/build.prom");
+        project.setUserProperty(MetricsListener.FILE_PROPERTY, metrics.getAbsolutePath());
+        build();
+
+        String text = read(metrics);
+        assertThat(text, containsString("# TYPE ant_target_duration_seconds histogram\n"));
+        assertThat(text, containsString(
+            "ant_target_duration_seconds_bucket{project=\"measured\",target=\"copy\",le=\"+Inf\"} 1\n"));
+        assertThat(text, containsString(
+            "ant_task_duration_seconds_count{project=\"measured\",task=\"copy\"} 1\n"));
+        assertThat(text, containsString("ant_bytes_copied_total{project=\"measured\"} 123\n"));
+        assertThat(text, containsString("ant_files_scanned_total{project=\"measured\"} 2\n"));
+        assertThat(text, containsString("ant_build_success{project=\"measured\"} 1\n"));
+    }
+
+    @Test
+    public void testJsonFormat() throws Exception {
+        File metrics = new File(folder.getRoot(), "build-metrics.json");
+        project.setUserProperty(MetricsListener.FILE_PROPERTY, metrics.getAbsolutePath());
+        build();
+
+        String text = read(metrics);
+        assertThat(text, containsString("\"project\": \"measured\""));
+        assertThat(text, containsString("\"copy\": {\"count\": 1, "));
+        assertThat(text, containsString("\"bytesCopied\": 123,"));
+        assertThat(text, containsString("\"directoryScans\": 1,"));
+    }
+
+    private void build() {
+        project.fireBuildStarted();
+        project.executeTarget("copy");
+        project.fireBuildFinished(null);
+    }
+
+    private static String read(File f) throws Exception {
+        return new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+    }
+}
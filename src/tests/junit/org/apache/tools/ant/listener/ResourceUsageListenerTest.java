@@ -0,0 +1,134 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.taskdefs.Sequential;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceUsageListenerTest {
+
+    private Project project;
+    private final List<BuildEvent> finished = new ArrayList<>();
+    private final StringBuilder log = new StringBuilder();
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.init();
+        project.addBuildListener(new ResourceUsageListener());
+        project.addBuildListener(new BuildListener() {
+            public void buildStarted(BuildEvent event) {
+            }
+            public void buildFinished(BuildEvent event) {
+            }
+            public void targetStarted(BuildEvent event) {
+            }
+            public void targetFinished(BuildEvent event) {
+            }
+            public void taskStarted(BuildEvent event) {
+            }
+            public void taskFinished(BuildEvent event) {
+                finished.add(event);
+            }
+            public void messageLogged(BuildEvent event) {
+                log.append(event.getMessage());
+            }
+        });
+    }
+
+    @Test
+    public void testNestedTasksAreNotCountedTwice() {
+        Target target = new Target();
+        target.setName("work");
+        target.setProject(project);
+        Sequential sequential = new Sequential();
+        sequential.setProject(project);
+        sequential.setTaskName("sequential");
+        sequential.setOwningTarget(target);
+        Task allocator = new Allocator();
+        allocator.setProject(project);
+        allocator.setTaskName("allocator");
+        allocator.setOwningTarget(target);
+        sequential.addTask(allocator);
+        target.addTask(sequential);
+        project.addTarget(target);
+
+        project.fireBuildStarted();
+        assertTrue(project.isTaskResourceAccounting());
+        project.executeTarget("work");
+        project.fireBuildFinished(null);
+
+        assertEquals(2, finished.size());
+        BuildEvent inner = finished.get(0);
+        BuildEvent outer = finished.get(1);
+        assertEquals("allocator", inner.getTask().getTaskName());
+        assertTrue(inner.getCpuTime() >= 0);
+        if (inner.getAllocatedBytes() >= 0) {
+            assertTrue(inner.getAllocatedBytes() >= 64 * 16 * 1024 * 8);
+            assertTrue(outer.getAllocatedBytes() < 64 * 16 * 1024 * 8);
+        }
+        assertThat(log.toString(), containsString("Resource usage by task:"));
+        assertThat(log.toString(), containsString("  allocator"));
+        assertThat(log.toString(), containsString("Resource usage by target:"));
+        assertThat(log.toString(), containsString("  work"));
+    }
+
+    @Test
+    public void testNotMeasuredByDefault() {
+        Project plain = new Project();
+        plain.init();
+        Task task = new Task() {
+        };
+        task.setProject(plain);
+        final BuildEvent[] event = new BuildEvent[1];
+        plain.addBuildListener(new ResourceUsageListener() {
+            @Override
+            public synchronized void taskFinished(BuildEvent e) {
+                event[0] = e;
+            }
+        });
+        task.perform();
+        assertEquals(-1, event[0].getCpuTime());
+        assertEquals(-1, event[0].getAllocatedBytes());
+    }
+
+    public static class Allocator extends Task {
+        @Override
+        public void execute() {
+            long[][] garbage = new long[64][];
+            for (int i = 0; i < garbage.length; i++) {
+                garbage[i] = new long[16 * 1024];
+            }
+            getProject().addReference("garbage", garbage);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.listener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class StreamingXmlLoggerTest {
+
+    private Project project;
+    private StreamingXmlLogger logger;
+    private ByteArrayOutputStream out;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        logger = new StreamingXmlLogger();
+        out = new ByteArrayOutputStream();
+        logger.setOutputPrintStream(new PrintStream(out));
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        project.addBuildListener(logger);
+    }
+
+    @Test
+    public void testElementsAreWrittenWhenTargetFinishes() throws Exception {
+        Target target = new Target();
+        target.setName("t");
+        target.setProject(project);
+        Task task = createTask("echo", target);
+
+        project.fireBuildStarted();
+        logger.targetStarted(new BuildEvent(target));
+        logger.taskStarted(new BuildEvent(task));
+        task.log("hello <world>");
+        task.log("ignored", Project.MSG_VERBOSE);
+        logger.taskFinished(new BuildEvent(task));
+        logger.targetFinished(new BuildEvent(target));
+
+        String soFar = out.toString("UTF-8");
+        assertThat(soFar, containsString("<target name=\"t\">"));
+        assertThat(soFar, containsString("<![CDATA[hello <world>]]>"));
+        assertThat(soFar, containsString("</target>"));
+
+        project.fireBuildFinished(null);
+        Element build = parse().getDocumentElement();
+        assertEquals("build", build.getTagName());
+        Element t = (Element) build.getElementsByTagName("target").item(0);
+        assertEquals("t", t.getAttribute("name"));
+        Element echo = (Element) t.getElementsByTagName("task").item(0);
+        assertEquals("echo", echo.getAttribute("name"));
+        NodeList messages = echo.getElementsByTagName("message");
+        assertEquals(1, messages.getLength());
+        assertEquals("hello <world>", messages.item(0).getTextContent());
+        assertEquals("info", ((Element) messages.item(0)).getAttribute("priority"));
+        assertEquals(1, echo.getElementsByTagName("finished").getLength());
+    }
+
+    @Test
+    public void testTasksOfOtherThreadsAreNotInterleaved() throws Exception {
+        Target target = new Target();
+        target.setName("t");
+        target.setProject(project);
+        Task parallel = createTask("parallel", target);
+        Task first = createTask("first", target);
+        Task second = createTask("second", target);
+
+        project.fireBuildStarted();
+        logger.targetStarted(new BuildEvent(target));
+        logger.taskStarted(new BuildEvent(parallel));
+        Thread t1 = new Thread(() -> {
+            logger.taskStarted(new BuildEvent(first));
+            first.log("first message");
+            // second starts and finishes while first is running
+            Thread t2 = new Thread(() -> {
+                logger.taskStarted(new BuildEvent(second));
+                second.log("second message");
+                logger.taskFinished(new BuildEvent(second));
+            });
+            t2.start();
+            try {
+                t2.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            first.log("first again");
+            logger.taskFinished(new BuildEvent(first));
+        });
+        t1.start();
+        t1.join();
+        logger.taskFinished(new BuildEvent(parallel));
+        logger.targetFinished(new BuildEvent(target));
+        project.fireBuildFinished(null);
+
+        Element p = (Element) parse().getElementsByTagName("task").item(0);
+        assertEquals("parallel", p.getAttribute("name"));
+        NodeList tasks = p.getElementsByTagName("task");
+        assertEquals(2, tasks.getLength());
+        Element s = (Element) tasks.item(0);
+        assertEquals("second", s.getAttribute("name"));
+        assertEquals("second message", s.getElementsByTagName("message").item(0).getTextContent());
+        Element f = (Element) tasks.item(1);
+        assertEquals("first", f.getAttribute("name"));
+        NodeList messages = f.getElementsByTagName("message");
+        assertEquals(2, messages.getLength());
+        assertEquals("first again", messages.item(1).getTextContent());
+    }
+
+    @Test
+    public void testUsesThreadOfEventRatherThanCurrentThread() throws Exception {
+        Target target = new Target();
+        target.setName("t");
+        target.setProject(project);
+        Task parallel = createTask("parallel", target);
+        Task first = createTask("first", target);
+        Task second = createTask("second", target);
+        ExecutorService t1 = Executors.newSingleThreadExecutor();
+        ExecutorService t2 = Executors.newSingleThreadExecutor();
+        try {
+            // events of two threads delivered on this thread, like an
+            // asynchronous dispatcher does
+            project.fireBuildStarted();
+            logger.targetStarted(new BuildEvent(target));
+            logger.taskStarted(new BuildEvent(parallel));
+            logger.taskStarted(t1.submit(() -> new BuildEvent(first)).get());
+            logger.messageLogged(t1.submit(() -> message(first, "first message")).get());
+            logger.taskStarted(t2.submit(() -> new BuildEvent(second)).get());
+            logger.messageLogged(t2.submit(() -> message(second, "second message")).get());
+            logger.taskFinished(t2.submit(() -> new BuildEvent(second)).get());
+            logger.messageLogged(t1.submit(() -> message(first, "first again")).get());
+            logger.taskFinished(t1.submit(() -> new BuildEvent(first)).get());
+            logger.taskFinished(new BuildEvent(parallel));
+            logger.targetFinished(new BuildEvent(target));
+            project.fireBuildFinished(null);
+        } finally {
+            t1.shutdown();
+            t2.shutdown();
+        }
+
+        Element p = (Element) parse().getElementsByTagName("task").item(0);
+        assertEquals("parallel", p.getAttribute("name"));
+        NodeList tasks = p.getElementsByTagName("task");
+        assertEquals(2, tasks.getLength());
+        Element s = (Element) tasks.item(0);
+        assertEquals("second", s.getAttribute("name"));
+        assertEquals(0, s.getElementsByTagName("task").getLength());
+        assertEquals(1, s.getElementsByTagName("message").getLength());
+        Element f = (Element) tasks.item(1);
+        assertEquals("first", f.getAttribute("name"));
+        assertEquals(0, f.getElementsByTagName("task").getLength());
+        NodeList messages = f.getElementsByTagName("message");
+        assertEquals(2, messages.getLength());
+        assertEquals("first message", messages.item(0).getTextContent());
+        assertEquals("first again", messages.item(1).getTextContent());
+    }
+
+    @Test
+    public void testBuildFailure() throws Exception {
+        project.fireBuildStarted();
+        project.fireBuildFinished(new RuntimeException("broken"));
+        Element build = parse().getDocumentElement();
+        NodeList finished = build.getElementsByTagName("finished");
+        assertEquals(1, finished.getLength());
+        assertEquals("java.lang.RuntimeException: broken",
+                     ((Element) finished.item(0)).getAttribute("error"));
+        assertEquals(1, build.getElementsByTagName("stacktrace").getLength());
+    }
+
+    private Task createTask(String name, Target target) {
+        Task task = new Task() {
+        };
+        task.setProject(project);
+        task.setTaskName(name);
+        task.setOwningTarget(target);
+        return task;
+    }
+
+    private static BuildEvent message(Task task, String message) {
+        BuildEvent event = new BuildEvent(task);
+        event.setMessage(message, Project.MSG_INFO);
+        return event;
+    }
+
+    private Document parse() throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.PropertyHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the tests of {@link AntTest} with subprojects reading the
+ * properties and references of their parent instead of copying them.
+ */
+public class AntCopyOnWriteTest extends AntTest {
+
+    @Before
+    @Override
+    public void setUp() {
+        super.setUp();
+        buildRule.getProject().setProperty(MagicNames.INHERIT_COPY_ON_WRITE, "true");
+    }
+
+    @Test
+    public void testLayeredPropertiesMatchCopies() {
+        Project parent = new Project();
+        parent.setUserProperty("cli", "c");
+        parent.setInheritedProperty("inherited", "i");
+        parent.setProperty("plain", "p");
+        parent.setProperty(MagicNames.PROJECT_BASEDIR, "/parent");
+
+        Project child = parent.createSubProject();
+        child.setProperty("own", "o");
+        child.setProperty("cli", "replaced by the user property");
+        PropertyHelper childHelper = PropertyHelper.getPropertyHelper(child);
+        childHelper.inheritFrom(PropertyHelper.getPropertyHelper(parent), true);
+
+        // inherited properties are plain ones until nested properties have been set
+        assertEquals("i", child.getProperty("inherited"));
+        assertNull(child.getUserProperty("inherited"));
+        childHelper.inheritInheritedProperties();
+
+        assertEquals("c", child.getProperty("cli"));
+        assertEquals("c", child.getUserProperty("cli"));
+        assertEquals("i", child.getProperty("inherited"));
+        assertEquals("p", child.getProperty("plain"));
+        assertNull(child.getUserProperty("plain"));
+        assertNull(child.getProperty(MagicNames.PROJECT_BASEDIR));
+        assertEquals("o", child.getProperty("own"));
+        assertTrue(child.getInheritedProperties().containsKey("inherited"));
+        assertFalse(child.getInheritedProperties().containsKey("cli"));
+        assertTrue(child.getProperties().containsKey("plain"));
+        assertFalse(child.getProperties().containsKey(MagicNames.PROJECT_BASEDIR));
+
+        // user properties are immutable, plain ones are set once
+        child.setProperty("cli", "x");
+        child.setNewProperty("plain", "x");
+        assertEquals("c", child.getProperty("cli"));
+        assertEquals("p", child.getProperty("plain"));
+
+        // writes stay in the child
+        child.setProperty("plain", "q");
+        child.setUserProperty("param", "v");
+        assertEquals("q", child.getProperty("plain"));
+        assertEquals("p", parent.getProperty("plain"));
+        assertNull(parent.getProperty("param"));
+
+        // a parameter shadows an inherited property of the same name
+        child.setUserProperty("inherited", "j");
+        assertFalse(child.getInheritedProperties().containsKey("inherited"));
+        assertEquals("j", child.getProperty("inherited"));
+    }
+
+    @Test
+    public void testOnlyUserPropertiesWithoutInheritAll() {
+        Project parent = new Project();
+        parent.setUserProperty("cli", "c");
+        parent.setProperty("plain", "p");
+
+        Project child = parent.createSubProject();
+        PropertyHelper.getPropertyHelper(child)
+            .inheritFrom(PropertyHelper.getPropertyHelper(parent), false);
+        assertEquals("c", child.getProperty("cli"));
+        assertNull(child.getProperty("plain"));
+        assertFalse(child.getPropertyNames().contains("plain"));
+        assertTrue(child.getPropertyNames().contains("cli"));
+    }
+
+    @Test
+    public void testLazyReferenceIsCreatedOnce() {
+        Project p = new Project();
+        int[] calls = new int[1];
+        p.addLazyReference("lazy", () -> {
+            calls[0]++;
+            return "value";
+        });
+        assertEquals(0, calls[0]);
+        assertTrue(p.hasReference("lazy"));
+        assertEquals("value", p.getReference("lazy"));
+        assertEquals("value", p.getReference("lazy"));
+        assertEquals(1, calls[0]);
+
+        p.addLazyReference("overridden", () -> {
+            calls[0]++;
+            return "lazy";
+        });
+        p.addReference("overridden", "eager");
+        assertEquals("eager", p.getReference("overridden"));
+
+        p.addLazyReference("enumerated", () -> "e");
+        assertTrue(p.getCopyOfReferences().containsKey("enumerated"));
+        assertEquals(1, calls[0]);
+    }
+}
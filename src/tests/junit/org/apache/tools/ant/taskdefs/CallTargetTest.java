@@ -20,6 +20,7 @@ package org.apache.tools.ant.taskdefs;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.BuildFileRule;
+import org.apache.tools.ant.MagicNames;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -67,6 +68,36 @@ public class CallTargetTest {
         assertThat(buildRule.getLog(), containsString("multi is SETmulti is SET"));
     }
 
+    @Test
+    public void testReuseParse() {
+        buildRule.executeTarget("reuse-parse");
+        assertThat(buildRule.getLog(),
+                   containsString("multi is 1multi is 2multi is 3"));
+        // the first antcall parses, the later ones and the nested one reuse
+        assertEquals(3, countReuses(buildRule.getFullLog()));
+    }
+
+    @Test
+    public void testReuseParseIsNotInheritedByCaller() {
+        buildRule.executeTarget("reuse-parse-not-sticky");
+        assertThat(buildRule.getLog(),
+                   containsString("multi is 1multi is 2multi is 3"));
+        String fullLog = buildRule.getFullLog();
+        // only the last antcall reuses the first one's parse
+        assertEquals(0, countReuses(fullLog.substring(0, fullLog.indexOf("multi is 2"))));
+        assertEquals(1, countReuses(fullLog));
+    }
+
+    private int countReuses(String log) {
+        String message = "reusing parsed buildfile "
+            + buildRule.getProject().getProperty(MagicNames.ANT_FILE);
+        int count = 0;
+        for (int i = log.indexOf(message); i >= 0; i = log.indexOf(message, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Expected failure due to empty target name
      */
@@ -0,0 +1,129 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.condition.Os;
+import org.apache.tools.ant.types.FileSet;
+import org.apache.tools.ant.util.PermissionUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ChmodTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private ByteArrayOutputStream log;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Os.isFamily("unix"));
+        project = new Project();
+        project.init();
+        log = new ByteArrayOutputStream();
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_VERBOSE);
+        logger.setOutputPrintStream(new PrintStream(log, true));
+        logger.setErrorPrintStream(new PrintStream(log, true));
+        project.addBuildListener(logger);
+    }
+
+    @Test
+    public void changesPermissionsInProcess() throws IOException {
+        File a = createFile("a", 0600);
+        File b = createFile("b", 0600);
+        Chmod chmod = createChmod("644");
+        chmod.addFileset(fileset());
+        chmod.execute();
+        assertEquals(PermissionUtils.permissionsFromMode(0644), permissions(a));
+        assertEquals(PermissionUtils.permissionsFromMode(0644), permissions(b));
+        assertThat(log.toString(), containsString("Handled 2 of 2 files without running chmod"));
+    }
+
+    @Test
+    public void supportsSymbolicModes() throws IOException {
+        File a = createFile("a", 0666);
+        Chmod chmod = createChmod("u+x,go-w");
+        chmod.addFileset(fileset());
+        chmod.execute();
+        assertEquals(PermissionUtils.permissionsFromMode(0744), permissions(a));
+    }
+
+    @Test
+    public void changesPermissionsOfDirectory() throws IOException {
+        File dir = folder.newFolder("dir");
+        Chmod chmod = createChmod("700");
+        chmod.setDir(dir);
+        chmod.execute();
+        assertEquals(PermissionUtils.permissionsFromMode(0700), permissions(dir));
+    }
+
+    @Test
+    public void runsChmodForUnsupportedModes() throws IOException {
+        File a = createFile("a", 0600);
+        Chmod chmod = createChmod("+x");
+        chmod.addFileset(fileset());
+        chmod.execute();
+        assertEquals(true, permissions(a).contains(PosixFilePermission.OWNER_EXECUTE));
+        assertThat(log.toString(), not(containsString("without running chmod")));
+    }
+
+    private Chmod createChmod(String perm) {
+        Chmod chmod = new Chmod();
+        chmod.setProject(project);
+        chmod.setPerm(perm);
+        chmod.setFailonerror(true);
+        return chmod;
+    }
+
+    private FileSet fileset() {
+        FileSet fs = new FileSet();
+        fs.setProject(project);
+        fs.setDir(folder.getRoot());
+        return fs;
+    }
+
+    private File createFile(String name, int mode) throws IOException {
+        File f = folder.newFile(name);
+        Files.setPosixFilePermissions(f.toPath(), PermissionUtils.permissionsFromMode(mode));
+        return f;
+    }
+
+    private static Set<PosixFilePermission> permissions(File f) throws IOException {
+        return Files.getPosixFilePermissions(f.toPath());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.FileList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests &lt;apply&gt; with more than one thread without running
+ * any processes.
+ */
+public class ExecuteOnTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StringBuffer log = new StringBuffer();
+    private Project project;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.init();
+        project.addBuildListener(new DefaultLogger() {
+            @Override
+            public void messageLogged(BuildEvent event) {
+                log.append(event.getMessage()).append('\n');
+            }
+        });
+    }
+
+    @Test
+    public void testOutputIsPassedOnBeforeAllCommandsHaveBeenSubmitted() throws IOException {
+        final boolean[] sawFirstOutput = new boolean[1];
+        FakeApply apply = new FakeApply() {
+            @Override
+            int run(String file) {
+                if (file.endsWith("f9")) {
+                    sawFirstOutput[0] = log.indexOf("f0 out") >= 0;
+                }
+                return 0;
+            }
+        };
+        apply.addFilelist(files("f0", "f1", "f2", "f3", "f4", "f5", "f6", "f7", "f8", "f9"));
+        apply.execute();
+        assertTrue("output of the first command has been passed on before the last command ran",
+                   sawFirstOutput[0]);
+        for (int i = 0; i < 10; i++) {
+            assertThat(log.toString(), containsString("f" + i + " out"));
+        }
+    }
+
+    @Test
+    public void testOutputOfEarlierCommandsSurvivesExceptionOfLaterCommand() throws IOException {
+        FakeApply apply = new FakeApply() {
+            @Override
+            int run(String file) {
+                if (file.endsWith("boom")) {
+                    throw new BuildException("boom");
+                }
+                return 0;
+            }
+        };
+        apply.addFilelist(files("a", "boom", "c"));
+        try {
+            apply.execute();
+            fail("expected the exception of the failed command");
+        } catch (BuildException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertThat(log.toString(), containsString("a out"));
+    }
+
+    private FileList files(String... names) throws IOException {
+        FileList list = new FileList();
+        list.setDir(folder.getRoot());
+        for (String name : names) {
+            folder.newFile(name);
+            FileList.FileName n = new FileList.FileName();
+            n.setName(name);
+            list.addConfiguredFile(n);
+        }
+        return list;
+    }
+
+    /**
+     * Runs no processes but writes "file out" for each file.
+     */
+    private abstract class FakeApply extends ExecuteOn {
+
+        private FakeApply() {
+            setProject(ExecuteOnTest.this.project);
+            setTaskName("apply");
+            setExecutable("fake");
+            setThreads(2);
+        }
+
+        abstract int run(String file);
+
+        @Override
+        Execute createExecute(ExecuteStreamHandler handler) {
+            return new Execute(handler) {
+                @Override
+                public int execute() throws IOException {
+                    String file = new File(getCommandline()[1]).getName();
+                    int rc = run(file);
+                    ((PumpStreamHandler) handler).getOut()
+                        .write((file + " out\n").getBytes(StandardCharsets.UTF_8));
+                    return rc;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.taskdefs;
+
+import org.apache.tools.ant.BuildFileRule;
+import org.apache.tools.ant.MagicNames;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests the pool of forked JVMs used by &lt;java&gt; inside
+ * sub-builds.
+ */
+public class JavaWorkerPoolTest {
+
+    @Rule
+    public BuildFileRule buildRule = new BuildFileRule();
+
+    private int workersBefore;
+
+    @Before
+    public void setUp() {
+        buildRule.configureProject("src/etc/testcases/taskdefs/javaworkerpool.xml");
+        workersBefore = JavaWorkerPool.getLiveWorkerCount();
+    }
+
+    @Test
+    public void subBuildsShareTheWorkersOfTheirParent() {
+        buildRule.getProject().setUserProperty(MagicNames.JAVA_WORKER_POOL, "true");
+        buildRule.executeTarget("twoSubBuilds");
+        assertThat(buildRule.getLog(), containsString("hello from the worker"));
+        assertThat(buildRule.getFullLog(), containsString("Reusing forked JVM"));
+        assertEquals(1, JavaWorkerPool.getLiveWorkerCount() - workersBefore);
+        buildRule.getProject().fireBuildFinished(null);
+        assertEquals(0, JavaWorkerPool.getLiveWorkerCount() - workersBefore);
+    }
+
+    @Test
+    public void poolOfSubBuildIsShutDownWhenSubBuildFinishes() {
+        buildRule.executeTarget("poolEnabledInSubBuild");
+        assertThat(buildRule.getLog(), containsString("hello from the worker"));
+        assertThat(buildRule.getFullLog(), containsString("Started forked JVM"));
+        assertEquals(0, JavaWorkerPool.getLiveWorkerCount() - workersBefore);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.condition.Os;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests processes whose output is written to files by the operating
+ * system.
+ */
+public class RedirectorFileHandlerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.init();
+    }
+
+    @Test
+    public void usesFileHandlerForPlainFileOutput() {
+        Redirector redirector = new Redirector(new ExecTask());
+        redirector.setOutput(new File(folder.getRoot(), "out.txt"));
+        assertThat(redirector.createHandler(), instanceOf(FileRedirectingStreamHandler.class));
+    }
+
+    @Test
+    public void usesPumpsIfOutputIsCaptured() {
+        Redirector redirector = new Redirector(new ExecTask());
+        redirector.setOutput(new File(folder.getRoot(), "out.txt"));
+        redirector.setOutputProperty("out");
+        assertThat(redirector.createHandler(),
+                   not(instanceOf(FileRedirectingStreamHandler.class)));
+    }
+
+    @Test
+    public void mergesErrorIntoOutput() throws IOException {
+        assumeTrue(Os.isFamily("unix"));
+        File out = new File(folder.getRoot(), "out.txt");
+        ExecTask exec = createExec("echo out; echo err >&2");
+        exec.setOutput(out);
+        exec.execute();
+        assertEquals("out\nerr\n", read(out));
+    }
+
+    @Test
+    public void writesErrorToSeparateFile() throws IOException {
+        assumeTrue(Os.isFamily("unix"));
+        File out = new File(folder.getRoot(), "out.txt");
+        File err = new File(folder.getRoot(), "err.txt");
+        ExecTask exec = createExec("echo out; echo err >&2");
+        exec.setOutput(out);
+        exec.setError(err);
+        exec.execute();
+        assertEquals("out\n", read(out));
+        assertEquals("err\n", read(err));
+    }
+
+    @Test
+    public void appendsToOutput() throws IOException {
+        assumeTrue(Os.isFamily("unix"));
+        File out = new File(folder.getRoot(), "out.txt");
+        Files.write(out.toPath(), "before\n".getBytes(StandardCharsets.UTF_8));
+        ExecTask exec = createExec("echo after");
+        exec.setOutput(out);
+        exec.setAppend(true);
+        exec.execute();
+        assertEquals("before\nafter\n", read(out));
+    }
+
+    @Test
+    public void readsInputFromFile() throws IOException {
+        assumeTrue(Os.isFamily("unix"));
+        File in = new File(folder.getRoot(), "in.txt");
+        Files.write(in.toPath(), "hello\n".getBytes(StandardCharsets.UTF_8));
+        File out = new File(folder.getRoot(), "out.txt");
+        ExecTask exec = createExec("cat");
+        exec.setInput(in);
+        exec.setOutput(out);
+        exec.execute();
+        assertEquals("hello\n", read(out));
+    }
+
+    @Test
+    public void outputPropertyStillWorks() throws IOException {
+        assumeTrue(Os.isFamily("unix"));
+        File out = new File(folder.getRoot(), "out.txt");
+        ExecTask exec = createExec("echo out");
+        exec.setOutput(out);
+        exec.setOutputproperty("result");
+        exec.execute();
+        assertThat(read(out), containsString("out"));
+        assertEquals("out", project.getProperty("result"));
+    }
+
+    private ExecTask createExec(String script) {
+        ExecTask exec = new ExecTask();
+        exec.setProject(project);
+        exec.setExecutable("sh");
+        exec.createArg().setValue("-c");
+        exec.createArg().setValue(script);
+        exec.setFailonerror(true);
+        return exec;
+    }
+
+    private static String read(File f) throws IOException {
+        return new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamPumperTest {
+
+    @Test
+    public void testPumpsEverythingWhileGrowingTheBuffer() throws Exception {
+        byte[] data = new byte[100000];
+        new Random(42).nextBytes(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamPumper pumper = new StreamPumper(new ByteArrayInputStream(data), out);
+        pumper.run();
+        assertTrue(pumper.isFinished());
+        assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public void testUseAvailablePicksUpDataAndStops() throws Exception {
+        PipedOutputStream writer = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(writer);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamPumper pumper = new StreamPumper(in, out, false, true);
+        Thread t = new Thread(pumper);
+        t.start();
+        writer.write("hello".getBytes());
+        writer.flush();
+        long deadline = System.currentTimeMillis() + 10000;
+        synchronized (out) {
+            while (out.size() < 5 && System.currentTimeMillis() < deadline) {
+                out.wait(10);
+            }
+        }
+        assertEquals("hello", out.toString());
+        pumper.stop();
+        t.join(10000);
+        assertTrue(pumper.isFinished());
+    }
+}
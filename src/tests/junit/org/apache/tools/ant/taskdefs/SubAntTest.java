@@ -19,18 +19,29 @@
 package org.apache.tools.ant.taskdefs;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.BuildFileRule;
 import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Task;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 public class SubAntTest {
@@ -105,6 +116,70 @@ public class SubAntTest {
         buildRule.executeTarget("multipleTargetsOneDoesntExist_FOEtrue");
     }
 
+    @Test
+    public void testMultipleTargetsThreads() {
+        buildRule.executeTarget("multipleTargets");
+        String sequential = buildRule.getLog();
+        buildRule.executeTarget("multipleTargetsThreads");
+        assertEquals(sequential, buildRule.getLog());
+    }
+
+    @Test
+    public void testMultipleTargetsOneDoesntExist_FOEtrueThreads() {
+        thrown.expect(BuildException.class);
+        thrown.expectMessage("Target \"three\" does not exist in the project \"subant\"");
+        buildRule.executeTarget("multipleTargetsOneDoesntExist_FOEtrueThreads");
+    }
+
+    @Test
+    public void testThreadsKeepThreadAndTimeOfEvents() {
+        Map<Task, BuildEvent> started = new ConcurrentHashMap<>();
+        List<BuildEvent[]> sleeps = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> listenerThreads = Collections.synchronizedList(new ArrayList<>());
+        // the replayed events must take the same path as the project's own
+        buildRule.getProject().enableAsyncEventDispatch(0, false);
+        buildRule.getProject().addBuildListener(new BuildListener() {
+            public void buildStarted(BuildEvent event) {
+            }
+
+            public void buildFinished(BuildEvent event) {
+            }
+
+            public void targetStarted(BuildEvent event) {
+            }
+
+            public void targetFinished(BuildEvent event) {
+            }
+
+            public void taskStarted(BuildEvent event) {
+                started.put(event.getTask(), event);
+            }
+
+            public void taskFinished(BuildEvent event) {
+                if ("sleep".equals(event.getTask().getTaskName())) {
+                    listenerThreads.add(Thread.currentThread());
+                    sleeps.add(new BuildEvent[] {started.get(event.getTask()), event});
+                }
+            }
+
+            public void messageLogged(BuildEvent event) {
+            }
+        });
+        buildRule.executeTarget("sleepThreads");
+        buildRule.getProject().fireBuildFinished(null);
+        assertEquals(2, sleeps.size());
+        for (Thread t : listenerThreads) {
+            assertThat(t.getName(), startsWith("ant-event-dispatcher"));
+        }
+        for (BuildEvent[] sleep : sleeps) {
+            assertSame(sleep[0].getThread(), sleep[1].getThread());
+            assertNotSame(Thread.currentThread(), sleep[0].getThread());
+            assertThat(sleep[1].getNanoTime() - sleep[0].getNanoTime(),
+                       greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300)));
+        }
+        assertNotSame(sleeps.get(0)[0].getThread(), sleeps.get(1)[0].getThread());
+    }
+
     protected void testBaseDirs(String target, String[] dirs) {
         SubAntTest.BasedirChecker bc = new SubAntTest.BasedirChecker(dirs);
         buildRule.getProject().addBuildListener(bc);
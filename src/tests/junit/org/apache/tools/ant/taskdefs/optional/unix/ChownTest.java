@@ -0,0 +1,94 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.taskdefs.optional.unix;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.PosixFileAttributes;
+
+import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.condition.Os;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests Chown and Chgrp using the owner and group files already
+ * have, which doesn't require any special privileges.
+ */
+public class ChownTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+    private ByteArrayOutputStream log;
+    private File file;
+    private PosixFileAttributes attributes;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue(Os.isFamily("unix"));
+        project = new Project();
+        project.init();
+        log = new ByteArrayOutputStream();
+        DefaultLogger logger = new DefaultLogger();
+        logger.setMessageOutputLevel(Project.MSG_VERBOSE);
+        logger.setOutputPrintStream(new PrintStream(log, true));
+        logger.setErrorPrintStream(new PrintStream(log, true));
+        project.addBuildListener(logger);
+        file = folder.newFile("a");
+        attributes = Files.readAttributes(file.toPath(), PosixFileAttributes.class);
+    }
+
+    @Test
+    public void chownRunsInProcess() throws IOException {
+        Chown chown = new Chown();
+        chown.setProject(project);
+        chown.setOwner(attributes.owner().getName() + ":" + attributes.group().getName());
+        chown.setFile(file);
+        chown.setFailonerror(true);
+        chown.execute();
+        assertEquals(attributes.owner(), Files.getOwner(file.toPath()));
+        assertThat(log.toString(), containsString("Handled 1 of 1 files without running chown"));
+    }
+
+    @Test
+    public void chgrpRunsInProcess() throws IOException {
+        Chgrp chgrp = new Chgrp();
+        chgrp.setProject(project);
+        chgrp.setGroup(attributes.group().getName());
+        chgrp.setFile(file);
+        chgrp.setFailonerror(true);
+        chgrp.execute();
+        GroupPrincipal group = Files.readAttributes(file.toPath(), PosixFileAttributes.class).group();
+        assertEquals(attributes.group(), group);
+        assertThat(log.toString(), containsString("Handled 1 of 1 files without running chgrp"));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.apache.tools.ant.AntClassLoader;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for org.apache.tools.ant.util.ClassLoaderPool.
+ */
+public class ClassLoaderPoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project p;
+    private File jar;
+
+    @Before
+    public void setUp() throws IOException {
+        p = new Project();
+        p.init();
+        jar = folder.newFile("tools.jar");
+    }
+
+    @Test
+    public void sameContentSharesLoader() {
+        ClassLoaderPool pool = ClassLoaderPool.getPool(p);
+        ClassLoader first = pool.getClassLoader(p, new Path(p, jar.getPath()), false);
+        ClassLoader second = pool.getClassLoader(p, new Path(p, jar.getPath()), false);
+        assertSame(first, second);
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    public void delegationOrderIsPartOfKey() {
+        ClassLoaderPool pool = ClassLoaderPool.getPool(p);
+        assertNotSame(pool.getClassLoader(p, new Path(p, jar.getPath()), false),
+                      pool.getClassLoader(p, new Path(p, jar.getPath()), true));
+    }
+
+    @Test
+    public void modifiedArchiveGetsNewLoader() {
+        ClassLoaderPool pool = ClassLoaderPool.getPool(p);
+        ClassLoader first = pool.getClassLoader(p, new Path(p, jar.getPath()), false);
+        jar.setLastModified(jar.lastModified() - 10000);
+        assertNotSame(first, pool.getClassLoader(p, new Path(p, jar.getPath()), false));
+    }
+
+    @Test
+    public void directoriesAreNotPooled() throws IOException {
+        File dir = folder.newFolder("classes");
+        ClassLoaderPool pool = ClassLoaderPool.getPool(p);
+        assertNotSame(pool.getClassLoader(p, new Path(p, dir.getPath()), false),
+                      pool.getClassLoader(p, new Path(p, dir.getPath()), false));
+        assertEquals(0, pool.getMisses());
+    }
+
+    @Test
+    public void subProjectsSharePool() {
+        ClassLoaderPool pool = ClassLoaderPool.getPool(p);
+        Project sub = p.createSubProject();
+        assertSame(pool, ClassLoaderPool.getPool(sub));
+    }
+
+    @Test
+    public void classpathUtilsUsesPoolWhenEnabled() {
+        p.setProperty(MagicNames.CLASSLOADER_POOL, "true");
+        assertSame(ClasspathUtils.getClassLoaderForPath(p, new Path(p, jar.getPath()), null),
+                   ClasspathUtils.getClassLoaderForPath(p, new Path(p, jar.getPath()), null));
+    }
+
+    @Test
+    public void pooledLoaderHasSameParentAsUnpooledLoader() {
+        Project custom = new Project() { };
+        custom.init();
+        ClassLoader pooled = ClassLoaderPool.getPool(custom)
+            .getClassLoader(custom, new Path(custom, jar.getPath()), false);
+        ClassLoader unpooled = ClasspathUtils
+            .getUniqueClassLoaderForPath(custom, new Path(custom, jar.getPath()), false);
+        assertSame(((AntClassLoader) unpooled).getConfiguredParent(),
+                   ((AntClassLoader) pooled).getConfiguredParent());
+
+        ClassLoader core = new URLClassLoader(new URL[0]);
+        p.setCoreLoader(core);
+        pooled = ClassLoaderPool.getPool(p).getClassLoader(p, new Path(p, jar.getPath()), false);
+        assertSame(core, ((AntClassLoader) pooled).getConfiguredParent());
+    }
+
+    @Test
+    public void classpathUtilsIgnoresPoolByDefault() {
+        assertNotSame(ClasspathUtils.getClassLoaderForPath(p, new Path(p, jar.getPath()), null),
+                      ClasspathUtils.getClassLoaderForPath(p, new Path(p, jar.getPath()), null));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.apache.tools.ant.util;
+
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ConcurrentHashtableTest {
+
+    private static final Object K1 = new Object();
+    private static final Object K2 = new Object();
+    private static final Object V1 = new Object();
+    private static final Object V2 = new Object();
+    private ConcurrentHashtable<Object, Object> h = new ConcurrentHashtable<>();
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testClone() {
+        h.put(K1, V1);
+        Hashtable<Object, Object> h2 = (Hashtable<Object, Object>) h.clone();
+        assertThat(h2, instanceOf(ConcurrentHashtable.class));
+        assertThat(h2, hasKey(K1));
+        h2.remove(K1);
+        assertThat(h, hasKey(K1));
+    }
+
+    @Test
+    public void testCopyConstructorOfHashtable() {
+        h.put(K1, V1);
+        h.put(K2, V2);
+        Hashtable<Object, Object> copy = new Hashtable<>(h);
+        assertEquals(2, copy.size());
+        assertSame(V1, copy.get(K1));
+        assertEquals(h, copy);
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertNull(h.putIfAbsent(K1, V1));
+        assertSame(V1, h.putIfAbsent(K1, V2));
+        assertSame(V1, h.get(K1));
+    }
+
+    @Test
+    public void testModifyWhileIterating() {
+        h.put(K1, V1);
+        for (Object k : h.keySet()) {
+            h.put(K2, V2);
+            h.remove(k);
+        }
+        assertThat(h, not(hasKey(K1)));
+    }
+
+    @Test
+    public void testUnmodifiableView() {
+        Map<Object, Object> view = h.unmodifiableView();
+        h.put(K1, V1);
+        assertSame(V1, view.get(K1));
+        try {
+            view.put(K2, V2);
+            fail("view should be read-only");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(1, h.size());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.Execute;
+import org.apache.tools.ant.taskdefs.Zip;
+import org.apache.tools.ant.taskdefs.condition.Os;
+import org.apache.tools.ant.types.Resource;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class InstrumentationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> spans = new ArrayList<>();
+
+    private final Instrumentation.Recorder recorder = new Instrumentation.Recorder() {
+        public Instrumentation.Span directoryScan(File basedir) {
+            return span("scan " + basedir.getName());
+        }
+        public Instrumentation.Span archiveEntry(File archive, String entry) {
+            return span("entry " + entry);
+        }
+        public Instrumentation.Span processLaunch(String[] command, File dir) {
+            return span("launch " + command[0]);
+        }
+    };
+
+    private Instrumentation.Span span(String name) {
+        spans.add("begin " + name);
+        return () -> spans.add("end " + name);
+    }
+
+    @After
+    public void tearDown() {
+        Instrumentation.removeRecorder(recorder);
+    }
+
+    @Test
+    public void testHooksDoNothingWithoutRecorder() {
+        Instrumentation.directoryScan(null).end();
+        Instrumentation.archiveEntry(null, "a").end();
+        Instrumentation.processLaunch(new String[] {"a"}, null).end();
+        assertEquals(0, spans.size());
+    }
+
+    @Test
+    public void testDirectoryScan() throws Exception {
+        Instrumentation.addRecorder(recorder);
+        File dir = folder.newFolder("scanned");
+        DirectoryScanner ds = new DirectoryScanner();
+        ds.setBasedir(dir);
+        ds.scan();
+        assertEquals(2, spans.size());
+        assertEquals("begin scan scanned", spans.get(0));
+        assertEquals("end scan scanned", spans.get(1));
+    }
+
+    @Test
+    public void testProcessLaunch() throws Exception {
+        assumeTrue(Os.isFamily("unix"));
+        Instrumentation.addRecorder(recorder);
+        Execute.launch(new Project(), new String[] {"true"}, null, null, true).waitFor();
+        assertEquals(2, spans.size());
+        assertEquals("begin launch true", spans.get(0));
+        assertEquals("end launch true", spans.get(1));
+    }
+
+    @Test
+    public void testArchiveEntryEndsIfEntryCannotBeRead() throws Exception {
+        Instrumentation.addRecorder(recorder);
+        Project p = new Project();
+        p.init();
+        Zip zip = new Zip();
+        zip.setProject(p);
+        zip.setDestFile(new File(folder.getRoot(), "broken.zip"));
+        zip.add(new Resource("broken", true, 1) {
+            @Override
+            public InputStream getInputStream() {
+                return new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("cannot read");
+                    }
+                };
+            }
+        });
+        try {
+            zip.execute();
+            fail("expected the read error to be thrown");
+        } catch (BuildException e) {
+            // expected
+        }
+        assertEquals(2, spans.size());
+        assertEquals("begin entry broken", spans.get(0));
+        assertEquals("end entry broken", spans.get(1));
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.tools.ant.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assume.assumeNotNull;
 
 import java.io.File;
@@ -74,6 +75,52 @@ public class PermissionUtilsTest {
                      s);
     }
 
+    @Test
+    public void applyModeSupportsOctalModes() {
+        assertEquals(PermissionUtils.permissionsFromMode(0754),
+                     PermissionUtils.applyMode("754", EnumSet.noneOf(PosixFilePermission.class),
+                                               false));
+        assertEquals(PermissionUtils.permissionsFromMode(0640),
+                     PermissionUtils.applyMode("0640", EnumSet.allOf(PosixFilePermission.class),
+                                               false));
+    }
+
+    @Test
+    public void applyModeSupportsSymbolicModes() {
+        Set<PosixFilePermission> current = PermissionUtils.permissionsFromMode(0664);
+        assertEquals(PermissionUtils.permissionsFromMode(0744),
+                     PermissionUtils.applyMode("u+x,go-w", current, false));
+        assertEquals(PermissionUtils.permissionsFromMode(0600),
+                     PermissionUtils.applyMode("go=", current, false));
+        assertEquals(PermissionUtils.permissionsFromMode(0777),
+                     PermissionUtils.applyMode("a=rwx", current, false));
+        assertEquals(current, PermissionUtils.permissionsFromMode(0664));
+    }
+
+    @Test
+    public void applyModeHandlesCapitalX() {
+        Set<PosixFilePermission> current = PermissionUtils.permissionsFromMode(0644);
+        assertEquals(PermissionUtils.permissionsFromMode(0644),
+                     PermissionUtils.applyMode("a+X", current, false));
+        assertEquals(PermissionUtils.permissionsFromMode(0755),
+                     PermissionUtils.applyMode("a+X", current, true));
+        assertEquals(PermissionUtils.permissionsFromMode(0755),
+                     PermissionUtils.applyMode("go+X",
+                                               PermissionUtils.permissionsFromMode(0744),
+                                               false));
+    }
+
+    @Test
+    public void applyModeRejectsUnsupportedModes() {
+        Set<PosixFilePermission> current = PermissionUtils.permissionsFromMode(0644);
+        assertNull(PermissionUtils.applyMode("4755", current, false));
+        assertNull(PermissionUtils.applyMode("+x", current, false));
+        assertNull(PermissionUtils.applyMode("u+s", current, false));
+        assertNull(PermissionUtils.applyMode("g=u", current, false));
+        assertNull(PermissionUtils.applyMode("u", current, false));
+        assertNull(PermissionUtils.applyMode("", current, false));
+    }
+
     @Test
     public void detectsFileTypeOfRegularFileFromPath() throws IOException {
         assertEquals(PermissionUtils.FileType.REGULAR_FILE,
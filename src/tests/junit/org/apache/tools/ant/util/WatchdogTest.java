@@ -0,0 +1,87 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.tools.ant.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WatchdogTest {
+
+    @Test
+    public void informsObserversAfterTimeout() throws InterruptedException {
+        Watchdog w = new Watchdog(50);
+        CountDownLatch fired = new CountDownLatch(1);
+        w.addTimeoutObserver(dog -> fired.countDown());
+        w.start();
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void stoppedWatchdogDoesntFire() throws InterruptedException {
+        Watchdog w = new Watchdog(100);
+        AtomicInteger fired = new AtomicInteger();
+        w.addTimeoutObserver(dog -> fired.incrementAndGet());
+        w.start();
+        w.stop();
+        Thread.sleep(300);
+        assertEquals(0, fired.get());
+    }
+
+    @Test
+    public void restartReplacesEarlierTimeout() throws InterruptedException {
+        Watchdog w = new Watchdog(200);
+        AtomicInteger fired = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        w.addTimeoutObserver(dog -> {
+            fired.incrementAndGet();
+            latch.countDown();
+        });
+        w.start();
+        w.stop();
+        w.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    public void watchdogsShareATimerThread() throws InterruptedException {
+        int count = 50;
+        CountDownLatch fired = new CountDownLatch(count);
+        Watchdog[] dogs = new Watchdog[count];
+        for (int i = 0; i < count; i++) {
+            dogs[i] = new Watchdog(200);
+            dogs[i].addTimeoutObserver(dog -> fired.countDown());
+            dogs[i].start();
+        }
+        assertTrue(countTimerThreads() <= 1);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(countTimerThreads() <= 1);
+    }
+
+    private static int countTimerThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+            .filter(t -> "WATCHDOG".equals(t.getName())).count();
+    }
+}